@@ -6,10 +6,18 @@ import java.time.Instant;
 @Entity
 @Table(name = "activities")
 public class Activity {
+  /** Ids reservados por nextval de activities_id_seq (increment by 50, ver V3__activity_id_sequence.sql). */
+  public static final int ID_ALLOCATION_SIZE = 50;
+
+  // sequence em vez de IDENTITY: o Hibernate só agrupa INSERTs quando conhece o id antes do flush
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activities_id")
+  @SequenceGenerator(name = "activities_id", sequenceName = "activities_id_seq", allocationSize = ID_ALLOCATION_SIZE)
   private Long id;
 
+  // uuid nativo no banco (mesmo tipo de tasks.id), String na API
+  @Convert(converter = UuidStringConverter.class)
+  @Column(columnDefinition = "uuid")
   private String taskId;
   private String projectId;
   private String type; // created | updated
@@ -17,6 +25,13 @@ public class Activity {
   private String title;
   private String status;
 
+  // idempotência: eventId único (ux_activities_event_id); seq = versão da task no evento
+  @Convert(converter = UuidStringConverter.class)
+  @Column(columnDefinition = "uuid")
+  private String eventId;
+  @Column(name = "seq")
+  private Long sequence;
+
   public Long getId() { return id; }
   public void setId(Long id) { this.id = id; }
   public String getTaskId() { return taskId; }
@@ -31,4 +46,8 @@ public class Activity {
   public void setTitle(String title) { this.title = title; }
   public String getStatus() { return status; }
   public void setStatus(String status) { this.status = status; }
+  public String getEventId() { return eventId; }
+  public void setEventId(String eventId) { this.eventId = eventId; }
+  public Long getSequence() { return sequence; }
+  public void setSequence(Long sequence) { this.sequence = sequence; }
 }
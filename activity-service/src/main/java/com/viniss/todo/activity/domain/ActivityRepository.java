@@ -9,7 +9,13 @@ import java.util.List;
  * Adapters (e.g., JPA) should implement this contract.
  */
 public interface ActivityRepository {
+  /** Idempotent on {@link Activity#getEventId()}: an activity whose event was already stored is skipped. */
   Activity save(Activity activity);
+
+  /**
+   * Stores the batch in one go, skipping activities whose event id already exists
+   * (redelivered events). Activities without an event id are always inserted.
+   */
   List<Activity> saveAll(List<Activity> activities);
   List<Activity> findAll();
   List<Activity> findByProjectIdOrderByAtDesc(String projectId);
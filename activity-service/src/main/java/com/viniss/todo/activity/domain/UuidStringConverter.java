@@ -0,0 +1,22 @@
+package com.viniss.todo.activity.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.UUID;
+
+/**
+ * Mantém ids como String no domínio/JSON e grava como {@code uuid} nativo.
+ */
+@Converter
+public class UuidStringConverter implements AttributeConverter<String, UUID> {
+  @Override
+  public UUID convertToDatabaseColumn(String attribute) {
+    return attribute == null ? null : UUID.fromString(attribute);
+  }
+
+  @Override
+  public String convertToEntityAttribute(UUID dbData) {
+    return dbData == null ? null : dbData.toString();
+  }
+}
@@ -0,0 +1,70 @@
+package com.viniss.todo.activity.http;
+
+import com.viniss.todo.activity.kafka.ActivityRebuilder;
+import com.viniss.todo.common.security.InternalIdentityAuthentication;
+import com.viniss.todo.common.security.ProjectGrants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+
+/**
+ * Admin: rebuild do feed a partir de task.events (ver {@link ActivityRebuilder}).
+ *
+ * Só sobe com {@code app.activities.rebuild.admin-endpoint=true}. O serviço não tem cadeia do Spring
+ * Security, então cada chamada exige aqui uma identidade interna verificada
+ * ({@link com.viniss.todo.common.security.InternalIdentityFilter}) com grants de admin; sem ela → 403.
+ */
+@RestController
+@RequestMapping(path = "/admin/activities/rebuild", produces = MediaType.APPLICATION_JSON_VALUE)
+@ConditionalOnProperty(name = "app.activities.rebuild.admin-endpoint", havingValue = "true")
+public class ActivityRebuildController {
+  private final ActivityRebuilder rebuilder;
+
+  public ActivityRebuildController(ActivityRebuilder rebuilder) {
+    this.rebuilder = rebuilder;
+  }
+
+  /** 202 com o status inicial; 409 com o status atual se já há um rebuild em andamento. */
+  @PostMapping
+  public ResponseEntity<ActivityRebuilder.Status> start(
+      @RequestParam(name = "fromOffset", required = false) Long fromOffset,
+      @RequestParam(name = "fromTimestamp", required = false) Instant fromTimestamp) {
+    requireAdmin();
+    if (fromOffset != null && fromTimestamp != null) {
+      throw new IllegalArgumentException("Informe fromOffset ou fromTimestamp, não os dois");
+    }
+    if (fromOffset != null && fromOffset < 0) {
+      throw new IllegalArgumentException("fromOffset deve ser >= 0");
+    }
+    boolean started = rebuilder.start(fromOffset, fromTimestamp);
+    return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(rebuilder.status());
+  }
+
+  @GetMapping
+  public ActivityRebuilder.Status status() {
+    requireAdmin();
+    return rebuilder.status();
+  }
+
+  /** Cancela antes do swap; 409 se não há rebuild cancelável. */
+  @DeleteMapping
+  public ResponseEntity<ActivityRebuilder.Status> cancel() {
+    requireAdmin();
+    boolean cancelled = rebuilder.cancel();
+    return ResponseEntity.status(cancelled ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(rebuilder.status());
+  }
+
+  private static void requireAdmin() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (!(auth instanceof InternalIdentityAuthentication) || !ProjectGrants.of(auth).admin()) {
+      throw new AccessDeniedException("Rebuild exige identidade interna de admin");
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.viniss.todo.activity.kafka;
+
+import com.viniss.todo.common.kafka.TaskEventHeaderFilter;
+import com.viniss.todo.common.kafka.TaskEventHeaders;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Só TaskCreated e TaskUpdated geram atividade: os demais tipos são descartados pelo header,
+ * sem decodificar o payload. Registros sem header de tipo (produtores antigos) seguem para o
+ * {@link TaskEventListener#toActivity(Object)}, que decide pelo payload.
+ */
+@Component
+public class ActivityEventFilter implements TaskEventHeaderFilter {
+  static final Set<String> TYPES = Set.of("TaskCreated", "TaskUpdated");
+
+  @Override
+  public boolean accept(String topic, Headers headers) {
+    String type = TaskEventHeaders.type(headers);
+    return type == null || TYPES.contains(type);
+  }
+}
@@ -0,0 +1,339 @@
+package com.viniss.todo.activity.kafka;
+
+import com.viniss.todo.activity.domain.Activity;
+import com.viniss.todo.activity.persistence.copy.ActivityShadowTable;
+import com.viniss.todo.common.kafka.UnsupportedTaskEventException;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rebuild do feed a partir de task.events, disparado pelo operador (ActivityRebuildController).
+ *
+ * Lê o tópico desde um offset ou timestamp com um consumidor próprio (grupo
+ * {@code activity-service-rebuild}, polls grandes, sem lanes nem retry) e carrega tudo via COPY
+ * em {@link ActivityShadowTable}. Quando falta pouco para o fim do tópico
+ * ({@code app.activities.rebuild.swap-max-lag}), indexa a sombra, alcança o fim de novo e faz o
+ * swap: com as escritas em activities travadas, lê até o offset final do momento e troca as
+ * tabelas. O TaskEventListener continua gravando em activities o tempo todo; o que ele gravou
+ * antes do lock está no tópico antes desse offset e entra na sombra pela cauda. A cauda tem prazo
+ * ({@code app.activities.rebuild.swap-drain-timeout}): estourado, o swap é desfeito (o lock é
+ * solto e activities fica como estava) e o rebuild falha.
+ *
+ * O swap troca a tabela inteira, então o rebuild precisa cobrir todo o histórico: com
+ * {@code fromTimestamp}, o que é anterior ao timestamp é copiado de activities para a sombra
+ * ({@link ActivityShadowTable#seed}); sem timestamp, o tópico tem que estar completo (início do log
+ * no offset 0 em todas as partições), senão o rebuild falha antes de tocar em qualquer tabela.
+ *
+ * Payloads que o listener mandaria ao DLT são contados em {@code skipped} e pulados. Um rebuild
+ * por vez; progresso e ETA em {@link #status()}.
+ */
+@Component
+public class ActivityRebuilder {
+  private static final Logger log = LoggerFactory.getLogger(ActivityRebuilder.class);
+  static final String TOPIC = "task.events";
+  static final String GROUP = "activity-service-rebuild";
+  private static final Duration POLL = Duration.ofMillis(500);
+  private static final Duration END_REFRESH = Duration.ofSeconds(5);
+
+  public enum State { IDLE, LOADING, INDEXING, SWAPPING, DONE, FAILED, CANCELLED }
+
+  /**
+   * Progresso do rebuild. {@code totalOffsets} cresce junto com o tópico (ingestão ao vivo);
+   * {@code etaSeconds} é {@code null} enquanto não há taxa medida.
+   */
+  public record Status(State state, String from, Instant startedAt, Instant finishedAt,
+                       long processedOffsets, long totalOffsets, long remaining,
+                       long loaded, long skipped, double recordsPerSecond, Long etaSeconds, String error) {
+    static Status idle() {
+      return new Status(State.IDLE, null, null, null, 0, 0, 0, 0, 0, 0, null, null);
+    }
+  }
+
+  private final ConsumerFactory<?, ?> consumerFactory;
+  private final ActivityShadowTable shadow;
+  private final TaskEventListener mapper;
+  private final int maxPollRecords;
+  private final long swapMaxLag;
+  private final Duration swapDrainTimeout;
+
+  private volatile Run current;
+
+  public ActivityRebuilder(ConsumerFactory<?, ?> consumerFactory, ActivityShadowTable shadow,
+                           TaskEventListener mapper,
+                           @Value("${app.activities.rebuild.max-poll-records:5000}") int maxPollRecords,
+                           @Value("${app.activities.rebuild.swap-max-lag:1000}") long swapMaxLag,
+                           @Value("${app.activities.rebuild.swap-drain-timeout:30s}") Duration swapDrainTimeout) {
+    this.consumerFactory = consumerFactory;
+    this.shadow = shadow;
+    this.mapper = mapper;
+    this.maxPollRecords = maxPollRecords;
+    this.swapMaxLag = swapMaxLag;
+    this.swapDrainTimeout = swapDrainTimeout;
+  }
+
+  /**
+   * Inicia um rebuild em background.
+   *
+   * @param fromOffset    offset inicial em cada partição (limitado ao intervalo disponível); ignorado com timestamp.
+   *                      Só é aceito se cobrir o log inteiro (início em 0) — para recomeçar do meio, use timestamp
+   * @param fromTimestamp primeiro registro com timestamp maior ou igual; ambos {@code null} = início do tópico
+   * @return {@code false} se já há um rebuild em andamento
+   */
+  public synchronized boolean start(Long fromOffset, Instant fromTimestamp) {
+    if (current != null && !current.finished()) return false;
+    String from = fromTimestamp != null ? "timestamp:" + fromTimestamp
+        : fromOffset != null ? "offset:" + fromOffset : "earliest";
+    Run run = new Run(from, fromOffset, fromTimestamp);
+    current = run;
+    Thread.ofPlatform().daemon().name("activity-rebuild").start(run::execute);
+    return true;
+  }
+
+  /** Pede o cancelamento: a sombra é descartada e activities não é tocada. Não vale mais depois que o swap começou. */
+  public boolean cancel() {
+    Run run = current;
+    if (run == null || run.finished() || run.state == State.SWAPPING) return false;
+    run.cancelled = true;
+    return true;
+  }
+
+  public Status status() {
+    Run run = current;
+    return run == null ? Status.idle() : run.status();
+  }
+
+  /** ETA em segundos para {@code remaining} offsets na taxa média até aqui, ou {@code null} sem taxa. */
+  static Long eta(long remaining, double recordsPerSecond) {
+    if (remaining <= 0) return 0L;
+    if (recordsPerSecond <= 0) return null;
+    return (long) Math.ceil(remaining / recordsPerSecond);
+  }
+
+  private final class Run {
+    final String from;
+    final Long fromOffset;
+    final Instant fromTimestamp;
+    final Instant startedAt = Instant.now();
+    final Map<TopicPartition, Long> starts = new ConcurrentHashMap<>();
+    final Map<TopicPartition, Long> positions = new ConcurrentHashMap<>();
+    final Map<TopicPartition, Long> ends = new ConcurrentHashMap<>();
+    volatile State state = State.LOADING;
+    volatile boolean cancelled;
+    volatile long loaded;
+    volatile long skipped;
+    volatile Instant finishedAt;
+    volatile String error;
+
+    Run(String from, Long fromOffset, Instant fromTimestamp) {
+      this.from = from;
+      this.fromOffset = fromOffset;
+      this.fromTimestamp = fromTimestamp;
+    }
+
+    boolean finished() {
+      return state == State.DONE || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    Status status() {
+      long processed = 0;
+      long total = 0;
+      long remaining = 0;
+      for (Map.Entry<TopicPartition, Long> e : starts.entrySet()) {
+        long start = e.getValue();
+        long position = positions.getOrDefault(e.getKey(), start);
+        long end = ends.getOrDefault(e.getKey(), position);
+        processed += position - start;
+        total += Math.max(0, end - start);
+        remaining += Math.max(0, end - position);
+      }
+      Instant until = finishedAt != null ? finishedAt : Instant.now();
+      double seconds = Duration.between(startedAt, until).toMillis() / 1000.0;
+      double rate = seconds > 0 ? processed / seconds : 0;
+      return new Status(state, from, startedAt, finishedAt, processed, total, remaining, loaded, skipped, rate,
+          finished() ? null : eta(remaining, rate), error);
+    }
+
+    void execute() {
+      log.info("activity_rebuild_started from={}", from);
+      try {
+        try (Consumer<?, ?> consumer = consumerFactory.createConsumer(GROUP, null, null, overrides())) {
+          List<TopicPartition> partitions = consumer.partitionsFor(TOPIC).stream()
+              .map(p -> new TopicPartition(p.topic(), p.partition()))
+              .toList();
+          consumer.assign(partitions);
+          seek(consumer, partitions);
+
+          shadow.prepare();
+          if (fromTimestamp != null) shadow.seed(fromTimestamp);
+
+          catchUp(consumer, partitions); // COPY direto, sem índices
+          if (!cancelled) {
+            state = State.INDEXING;
+            shadow.index();
+            catchUp(consumer, partitions); // o que chegou durante a indexação, já com merge
+          }
+          if (!cancelled) {
+            state = State.SWAPPING;
+            shadow.swap(() -> drain(consumer, consumer.endOffsets(partitions)));
+          }
+        }
+        if (state != State.SWAPPING) { // só não chega ao swap quando é cancelado
+          shadow.discard();
+          finish(State.CANCELLED, null);
+        } else {
+          finish(State.DONE, null);
+        }
+      } catch (Exception e) {
+        log.error("activity_rebuild_failed from={} error={}", from, e.toString(), e);
+        try {
+          shadow.discard();
+        } catch (Exception ignored) {
+          // a próxima execução recria a sombra no prepare
+        }
+        finish(State.FAILED, e.getClass().getSimpleName() + ": " + e.getMessage());
+      }
+    }
+
+    private void finish(State end, String failure) {
+      error = failure;
+      finishedAt = Instant.now();
+      state = end;
+      Status s = status();
+      log.info("activity_rebuild_finished state={} loaded={} skipped={} offsets={} rate={}/s",
+          end, s.loaded(), s.skipped(), s.processedOffsets(), Math.round(s.recordsPerSecond()));
+    }
+
+    private Properties overrides() {
+      Properties p = new Properties();
+      p.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+      p.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+      // vazão em vez de latência: lotes grandes, o broker junta até 1MB por fetch
+      p.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+      p.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(1024 * 1024));
+      p.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, "500");
+      p.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, String.valueOf(8 * 1024 * 1024));
+      return p;
+    }
+
+    private void seek(Consumer<?, ?> consumer, List<TopicPartition> partitions) {
+      Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+      Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+      Map<TopicPartition, OffsetAndTimestamp> byTime = Map.of();
+      if (fromTimestamp != null) {
+        Map<TopicPartition, Long> query = new HashMap<>();
+        partitions.forEach(tp -> query.put(tp, fromTimestamp.toEpochMilli()));
+        byTime = consumer.offsetsForTimes(query);
+      }
+      for (TopicPartition tp : partitions) {
+        long offset;
+        if (fromTimestamp != null) {
+          OffsetAndTimestamp found = byTime.get(tp);
+          offset = found != null ? found.offset() : end.get(tp); // nada depois do timestamp
+        } else {
+          offset = fromOffset != null ? Math.max(beginning.get(tp), Math.min(fromOffset, end.get(tp))) : beginning.get(tp);
+          // sem seed: um sufixo do tópico substituiria activities inteira só pelo que foi relido
+          if (offset > 0) {
+            throw new IllegalStateException("Rebuild a partir do offset " + offset + " em " + tp
+                + " não cobre o histórico (retenção ou fromOffset); use fromTimestamp");
+          }
+        }
+        consumer.seek(tp, offset);
+        starts.put(tp, offset);
+        positions.put(tp, offset);
+      }
+      ends.putAll(end);
+    }
+
+    /** Lê até o lag total ficar em até swapMaxLag (ou cancelar). */
+    private void catchUp(Consumer<?, ?> consumer, List<TopicPartition> partitions) {
+      long refreshedAt = System.nanoTime();
+      while (!cancelled) {
+        if (status().remaining() <= swapMaxLag) {
+          // confirma com o fim atual do tópico antes de seguir
+          ends.putAll(consumer.endOffsets(partitions));
+          refreshedAt = System.nanoTime();
+          if (status().remaining() <= swapMaxLag) return;
+        }
+        pollAndLoad(consumer);
+        if (System.nanoTime() - refreshedAt > END_REFRESH.toNanos()) {
+          ends.putAll(consumer.endOffsets(partitions));
+          refreshedAt = System.nanoTime();
+        }
+      }
+    }
+
+    /** Dentro do lock do swap: lê até {@code targets} em todas as partições, em até swapDrainTimeout. */
+    private void drain(Consumer<?, ?> consumer, Map<TopicPartition, Long> targets) {
+      ends.putAll(targets);
+      long deadline = System.nanoTime() + swapDrainTimeout.toNanos();
+      while (targets.entrySet().stream().anyMatch(e -> positions.get(e.getKey()) < e.getValue())) {
+        if (System.nanoTime() - deadline > 0) {
+          // a exceção desfaz a transação do swap e solta o lock de activities
+          throw new IllegalStateException("Cauda do swap não chegou a " + targets + " em " + swapDrainTimeout
+              + " (posições " + positions + ")");
+        }
+        pollAndLoad(consumer);
+      }
+    }
+
+    private void pollAndLoad(Consumer<?, ?> consumer) {
+      ConsumerRecords<?, ?> records;
+      try {
+        records = consumer.poll(POLL);
+      } catch (RecordDeserializationException e) {
+        // mesmo destino que no listener (DLT): conta e segue
+        skipped++;
+        consumer.seek(e.topicPartition(), e.offset() + 1);
+        positions.put(e.topicPartition(), e.offset() + 1);
+        return;
+      }
+      if (!records.isEmpty()) {
+        load(records);
+        consumer.commitAsync(); // só para acompanhar o rebuild pelo grupo; o reinício é sempre pelo from
+      }
+      // todas as partições, não só as que trouxeram registros: marcadores de transação e offsets
+      // compactados avançam a posição sem entregar nada, e o drain esperaria por eles para sempre
+      for (TopicPartition tp : consumer.assignment()) {
+        positions.put(tp, consumer.position(tp));
+      }
+    }
+
+    private void load(ConsumerRecords<?, ?> records) {
+      List<Activity> batch = new ArrayList<>(records.count());
+      Set<String> seen = new HashSet<>();
+      long ignored = 0;
+      for (ConsumerRecord<?, ?> record : records) {
+        try {
+          Activity a = mapper.toActivity(record.value());
+          if (a != null && (a.getEventId() == null || seen.add(a.getEventId()))) batch.add(a);
+        } catch (UnsupportedTaskEventException e) {
+          ignored++;
+        }
+      }
+      shadow.load(batch);
+      loaded += batch.size();
+      skipped += ignored;
+    }
+  }
+}
@@ -3,61 +3,156 @@ package com.viniss.todo.activity.kafka;
 import com.viniss.todo.activity.domain.Activity;
 import com.viniss.todo.activity.domain.ActivityRepository;
 import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.events.TaskStatusChanged;
 import com.viniss.todo.common.events.TaskUpdated;
+import com.viniss.todo.common.kafka.KeyOrderedProcessor;
+import com.viniss.todo.common.kafka.TaskEventConsumerMetrics;
+import com.viniss.todo.common.kafka.TaskEventRetryBackOff;
+import com.viniss.todo.common.kafka.UnsupportedTaskEventException;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Listener em lote (spring.kafka.listener.type=batch): recebe um poll inteiro e o divide em
+ * lanes por taskId ({@link KeyOrderedProcessor}); cada lane mapeia e grava os seus eventos num
+ * único saveAll/transação, na ordem do lote. Com app.kafka.key-ordered.concurrency=1 (padrão)
+ * é uma lane só: um saveAll por poll. O offset do lote só é commitado depois que o listener
+ * retorna (ack-mode batch), ou seja, depois do commit no banco; se uma lane falha, só os
+ * offsets anteriores ao registro que falhou são commitados.
+ *
+ * Tamanho máximo do lote = max-poll-records; espera máxima = fetch-max-wait (application.yml).
+ *
+ * Idempotente: eventos repetidos dentro do lote são descartados aqui e os já gravados
+ * (reentrega após rebalance/retry) pelo ON CONFLICT (event_id) do repositório.
+ *
+ * Falhas não param a partição: payload que não dá para interpretar vai direto para o
+ * task.events.DLT e as demais passam pelos tiers de retry (TaskEventRetryConfig).
+ *
+ * Tipos que não geram atividade são descartados pelo header antes do parsing
+ * ({@link ActivityEventFilter}) e chegam aqui com valor {@code null}.
+ */
 @Component
 public class TaskEventListener {
+  static final String RETRY_LISTENER = "activity-service-retry";
+
   private final ActivityRepository repository;
+  private final KeyOrderedProcessor processor;
+  private final TaskEventConsumerMetrics metrics;
+  private final TaskEventRetryBackOff retryBackOff;
 
-  public TaskEventListener(ActivityRepository repository) {
+  public TaskEventListener(ActivityRepository repository, KeyOrderedProcessor processor,
+                           TaskEventConsumerMetrics metrics, TaskEventRetryBackOff retryBackOff) {
     this.repository = repository;
+    this.processor = processor;
+    this.metrics = metrics;
+    this.retryBackOff = retryBackOff;
   }
 
   @KafkaListener(topics = "task.events", groupId = "activity-service")
-  public void onMessage(ConsumerRecord<String, ?> record) {
-    Object payload = record.value();
+  public void onMessages(List<ConsumerRecord<String, ?>> records) {
+    metrics.observe("activity-service", records, () -> process(records));
+  }
+
+  /**
+   * Tiers de retry (TaskEventRetryConfig): um registro por vez, depois do atraso do tier (a
+   * partição fica pausada até lá, {@link TaskEventRetryBackOff}). Uma nova falha manda o
+   * registro ao tier seguinte ou ao DLT.
+   */
+  @KafkaListener(id = RETRY_LISTENER, topicPattern = "task\\.events\\.${app.kafka.retry.app}\\.retry-\\d+",
+      groupId = "activity-service-retry", batch = "false", properties = "max.poll.records=50")
+  public void onRetry(ConsumerRecord<String, ?> record, Consumer<?, ?> consumer) {
+    retryBackOff.awaitDue(record, RETRY_LISTENER, consumer);
+    List<ConsumerRecord<String, ?>> records = List.of(record);
+    metrics.observe("activity-service-retry", records, () -> process(records));
+  }
+
+  private void process(List<ConsumerRecord<String, ?>> records) {
+    // key = taskId: eventos da mesma task ficam na mesma lane, em ordem
+    processor.forEachLane("activity-service", records, ConsumerRecord::key, this::saveLane);
+  }
+
+  private void saveLane(List<ConsumerRecord<String, ?>> records) {
+    List<Activity> batch = new ArrayList<>(records.size());
+    Set<String> seen = new HashSet<>();
+    for (ConsumerRecord<String, ?> record : records) {
+      Activity a;
+      try {
+        a = toActivity(record.value());
+      } catch (UnsupportedTaskEventException e) {
+        // grava o que veio antes na lane (offsets anteriores podem ser commitados) e aponta o registro
+        save(batch);
+        throw new BatchListenerFailedException(e.getMessage(), e, record);
+      }
+      if (a == null) continue;
+      if (a.getEventId() != null && !seen.add(a.getEventId())) continue;
+      batch.add(a);
+    }
+    save(batch);
+  }
 
+  private void save(List<Activity> batch) {
+    if (!batch.isEmpty()) {
+      repository.saveAll(batch);
+    }
+  }
+
+  /**
+   * @return a Activity do evento, ou {@code null} para payloads que não geram atividade (tombstone, TaskStatusChanged)
+   * @throws UnsupportedTaskEventException para payloads que não dá para interpretar (vão para o DLT)
+   */
+  Activity toActivity(Object payload) {
     if (payload == null) {
-      // opcional: log.warn("Ignoring null payload ...");
-      return; // NÃO salva
+      return null; // tombstone: nada a registrar
     }
 
     if (payload instanceof TaskCreated e) {
-      // Somente quando o payload é um TaskCreated válido
-      save("TaskCreated", e.taskId(), e.projectId(), e.title(), e.status(), e.occurredAt().toInstant());
-      return;
+      return activity("TaskCreated", e.taskId(), e.projectId(), e.title(), e.status(), e.occurredAt().toInstant(),
+          e.eventId(), e.sequence());
     }
 
     if (payload instanceof TaskUpdated e) {
-      // Somente quando o payload é um TaskUpdated válido
-      save("TaskUpdated", e.taskId(), e.projectId(), e.title(), e.status(), e.occurredAt().toInstant());
-      return;
+      return activity("TaskUpdated", e.taskId(), e.projectId(), e.title(), e.status(), e.occurredAt().toInstant(),
+          e.eventId(), e.sequence());
+    }
+
+    if (payload instanceof TaskStatusChanged) {
+      return null; // o TaskUpdated da mesma escrita já registra a mudança
     }
 
     if (payload instanceof Map<?, ?> m) {
+      // JSON sem header de tipo: o Map precisa dizer o que é
       Object type = m.get("type");
-      if ("TaskCreated".equals(type)) {
-        // extrai campos e chama save(...)
-        return;
-      }
-      if ("TaskUpdated".equals(type)) {
-        // extrai campos e chama save(...)
-        return;
+      if ("TaskCreated".equals(type) || "TaskUpdated".equals(type)) {
+        Object at = m.get("occurredAt");
+        Object sequence = m.get("sequence");
+        return activity(type.toString(), string(m, "taskId"), string(m, "projectId"), string(m, "title"),
+            string(m, "status"), at == null ? null : OffsetDateTime.parse(at.toString()).toInstant(),
+            string(m, "eventId"), sequence instanceof Number n ? n.longValue() : null);
       }
-      return; // Map sem type conhecido → ignora
+      throw new UnsupportedTaskEventException("Map sem type conhecido: " + type);
     }
 
-    // Demais tipos desconhecidos → ignora
-    // opcional: log.warn("Ignoring unexpected payload type: {}", payload.getClass().getName());
+    throw new UnsupportedTaskEventException("Payload não suportado: " + payload.getClass().getName());
+  }
+
+  private static String string(Map<?, ?> m, String key) {
+    Object v = m.get(key);
+    return v == null ? null : v.toString();
   }
 
-  private void save(String type, String taskId, String projectId, String title, String status, Instant at) {
+  private static Activity activity(String type, String taskId, String projectId, String title, String status, Instant at,
+                                   String eventId, Long sequence) {
     Activity a = new Activity();
     a.setTaskId(taskId);
     a.setProjectId(projectId);
@@ -65,6 +160,8 @@ public class TaskEventListener {
     a.setTitle(title);
     a.setStatus(status);
     a.setAt(at != null ? at : Instant.now());
-    repository.save(a);
+    a.setEventId(eventId);
+    a.setSequence(sequence);
+    return a;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,161 @@
+package com.viniss.todo.activity.persistence.copy;
+
+import com.viniss.todo.activity.domain.Activity;
+import com.viniss.todo.activity.persistence.jpa.ActivityIdAllocator;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Tabela sombra activities_rebuild do rebuild do feed (ActivityRebuilder): recebe a carga via
+ * COPY enquanto activities continua atendendo leitura e ingestão ao vivo, e depois toma o lugar
+ * dela num único rename.
+ *
+ * <ol>
+ *   <li>{@link #prepare()}: recria activities_rebuild com as colunas e defaults de activities, sem
+ *       índices — o COPY vai direto para a tabela, sem manter btree a cada linha.</li>
+ *   <li>{@link #seed(Instant)}: num rebuild parcial, copia de activities o que é anterior ao
+ *       ponto de partida — sem isso o swap descartaria esse histórico.</li>
+ *   <li>{@link #load(List)}: COPY puro até {@link #index()}; depois, staging + ON CONFLICT
+ *       (event_id) DO NOTHING, como o {@link CopyActivityRepository}.</li>
+ *   <li>{@link #index()}: descarta eventIds repetidos (reentregas no tópico) e cria pk e índice
+ *       único — fora do lock, que fica só com a cauda e os renames.</li>
+ *   <li>{@link #swap(Runnable)}: trava as escritas em activities, roda a cauda e troca os nomes
+ *       de tabelas e índices. activities_previous fica até o próximo prepare (rollback manual).</li>
+ * </ol>
+ *
+ * Índices novos em activities precisam ser criados também em {@link #index()} e renomeados em
+ * {@link #swap(Runnable)}.
+ */
+@Component
+public class ActivityShadowTable {
+  private static final Logger log = LoggerFactory.getLogger(ActivityShadowTable.class);
+  static final String TABLE = "activities_rebuild";
+  static final String PREVIOUS = "activities_previous";
+  static final String COPY_SQL =
+      "copy activities_rebuild (id, task_id, project_id, type, at, title, status, event_id, seq) from stdin";
+  static final String MERGE_SQL = """
+      insert into activities_rebuild (id, task_id, project_id, type, at, title, status, event_id, seq)
+      select id, task_id, project_id, type, at, title, status, event_id, seq from activities_ingest
+      on conflict (event_id) do nothing
+      """;
+  static final String SEED_SQL = """
+      insert into activities_rebuild (id, task_id, project_id, type, at, title, status, event_id, seq)
+      select id, task_id, project_id, type, at, title, status, event_id, seq from activities
+      where at < ?
+      """;
+  // reentregas do tópico: fica a primeira cópia de cada eventId (legados sem eventId ficam todos)
+  static final String DEDUPE_SQL = """
+      delete from activities_rebuild a using activities_rebuild b
+      where a.event_id = b.event_id and a.id > b.id
+      """;
+
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbc;
+  private final ActivityIdAllocator ids;
+  private volatile boolean indexed;
+
+  public ActivityShadowTable(DataSource dataSource, JdbcTemplate jdbc, ActivityIdAllocator ids) {
+    this.dataSource = dataSource;
+    this.jdbc = jdbc;
+    this.ids = ids;
+  }
+
+  /** Recria activities_rebuild vazia; descarta a activities_previous do rebuild anterior. */
+  public void prepare() {
+    jdbc.execute("drop table if exists " + TABLE);
+    jdbc.execute("drop table if exists " + PREVIOUS);
+    jdbc.execute("create table " + TABLE + " (like activities including defaults)");
+    indexed = false;
+  }
+
+  /**
+   * Copia de activities as atividades com {@code at} anterior a {@code before}. O timestamp do
+   * registro no tópico nunca é menor que o occurredAt do evento, então tudo com {@code at >= before}
+   * é relido do tópico; o que cair nos dois lados sai no dedupe por eventId ({@link #index()}),
+   * ficando a linha copiada (id menor).
+   */
+  public int seed(Instant before) {
+    int seeded = jdbc.update(SEED_SQL, Timestamp.from(before));
+    log.info("activity_rebuild_seeded before={} rows={}", before, seeded);
+    return seeded;
+  }
+
+  @Transactional
+  public void load(List<Activity> activities) {
+    if (activities.isEmpty()) return;
+    ids.assign(activities);
+    if (!indexed) {
+      copy(COPY_SQL, activities);
+      return;
+    }
+    jdbc.execute(CopyActivityRepository.STAGING_SQL);
+    jdbc.execute("truncate activities_ingest");
+    copy(CopyActivityRepository.COPY_SQL, activities);
+    jdbc.update(MERGE_SQL);
+  }
+
+  /** Deduplica por eventId e cria pk e índice único; a partir daqui o load passa a fazer merge. */
+  public void index() {
+    int removed = jdbc.update(DEDUPE_SQL);
+    jdbc.execute("alter table " + TABLE + " add constraint activities_rebuild_pkey primary key (id)");
+    jdbc.execute("create unique index ux_activities_rebuild_event_id on " + TABLE + " (event_id)");
+    jdbc.execute("analyze " + TABLE);
+    indexed = true;
+    log.info("activity_rebuild_indexed duplicates_removed={}", removed);
+  }
+
+  /**
+   * Troca activities_rebuild por activities na mesma transação. Com o lock, escritas ao vivo em
+   * activities esperam (leituras seguem até o rename); {@code catchUp} roda dentro dele e deve
+   * carregar via {@link #load(List)} tudo que foi publicado até ali.
+   */
+  @Transactional
+  public void swap(Runnable catchUp) {
+    if (!indexed) {
+      throw new IllegalStateException("activities_rebuild sem índices: chame index() antes do swap");
+    }
+    jdbc.execute("set local lock_timeout = '10s'");
+    jdbc.execute("lock table activities in exclusive mode");
+    catchUp.run();
+
+    jdbc.execute("alter table activities rename to " + PREVIOUS);
+    jdbc.execute("alter index activities_pkey rename to activities_previous_pkey");
+    jdbc.execute("alter index ux_activities_event_id rename to ux_activities_previous_event_id");
+    jdbc.execute("alter table " + TABLE + " rename to activities");
+    jdbc.execute("alter index activities_rebuild_pkey rename to activities_pkey");
+    jdbc.execute("alter index ux_activities_rebuild_event_id rename to ux_activities_event_id");
+    // a sequence era da tabela antiga: sem isso, o drop de activities_previous a levaria junto.
+    // Não pode ser de identity (V5 converte bancos criados pelo Hibernate com IDENTITY)
+    jdbc.execute("alter sequence activities_id_seq owned by activities.id");
+    indexed = false;
+  }
+
+  /** Descarta a carga (rebuild cancelado ou com falha); activities não é tocada. */
+  public void discard() {
+    jdbc.execute("drop table if exists " + TABLE);
+    indexed = false;
+  }
+
+  private void copy(String sql, List<Activity> activities) {
+    Connection conn = DataSourceUtils.getConnection(dataSource);
+    try {
+      CopyActivityRepository.copy(conn.unwrap(PGConnection.class).getCopyAPI(), sql, activities);
+    } catch (SQLException e) {
+      throw jdbc.getExceptionTranslator().translate("COPY " + TABLE, sql, e);
+    } finally {
+      DataSourceUtils.releaseConnection(conn, dataSource);
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package com.viniss.todo.activity.persistence.copy;
+
+import com.viniss.todo.activity.domain.Activity;
+import com.viniss.todo.activity.domain.ActivityRepository;
+import com.viniss.todo.activity.persistence.jpa.ActivityIdAllocator;
+import com.viniss.todo.activity.persistence.jpa.ActivityRepositoryJpaAdapter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * saveAll via COPY ... FROM STDIN (formato texto) em vez de INSERTs: replays e ingestão em massa.
+ * Ativo com {@code app.activities.writer=copy}; o resto do contrato fica com o adapter JPA.
+ *
+ * <ul>
+ *   <li>Ids via {@link ActivityIdAllocator} (blocos pooled-lo de activities_id_seq).</li>
+ *   <li>COPY não tem ON CONFLICT: o lote vai para a tabela temporária activities_ingest e entra
+ *       em activities com um INSERT ... SELECT ... ON CONFLICT (event_id) DO NOTHING, então
+ *       eventos reentregues são descartados como no adapter JPA.</li>
+ *   <li>Usa a conexão da transação corrente (DataSourceUtils): o COPY entra no mesmo commit
+ *       do listener em lote.</li>
+ *   <li>Linhas vão ao servidor em blocos de ~64KB, sem montar o lote inteiro em memória.</li>
+ * </ul>
+ */
+@Primary
+@Repository
+@ConditionalOnProperty(name = "app.activities.writer", havingValue = "copy")
+public class CopyActivityRepository implements ActivityRepository {
+  static final String STAGING_SQL =
+      "create temp table if not exists activities_ingest (like activities) on commit delete rows";
+  static final String COPY_SQL =
+      "copy activities_ingest (id, task_id, project_id, type, at, title, status, event_id, seq) from stdin";
+  static final String MERGE_SQL = """
+      insert into activities (id, task_id, project_id, type, at, title, status, event_id, seq)
+      select id, task_id, project_id, type, at, title, status, event_id, seq from activities_ingest
+      on conflict (event_id) do nothing
+      """;
+  private static final int FLUSH_CHARS = 64 * 1024;
+
+  private final ActivityRepositoryJpaAdapter delegate;
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbc;
+  private final ActivityIdAllocator ids;
+
+  public CopyActivityRepository(ActivityRepositoryJpaAdapter delegate, DataSource dataSource, JdbcTemplate jdbc,
+                                ActivityIdAllocator ids) {
+    this.delegate = delegate;
+    this.dataSource = dataSource;
+    this.jdbc = jdbc;
+    this.ids = ids;
+  }
+
+  @Override
+  public Activity save(Activity activity) {
+    return delegate.save(activity);
+  }
+
+  @Override
+  @Transactional
+  public List<Activity> saveAll(List<Activity> activities) {
+    if (activities.isEmpty()) return activities;
+    ids.assign(activities);
+    jdbc.execute(STAGING_SQL);
+    jdbc.execute("truncate activities_ingest"); // outro saveAll na mesma transação
+
+    Connection conn = DataSourceUtils.getConnection(dataSource);
+    try {
+      copy(conn.unwrap(PGConnection.class).getCopyAPI(), COPY_SQL, activities);
+    } catch (SQLException e) {
+      throw jdbc.getExceptionTranslator().translate("COPY activities", COPY_SQL, e);
+    } finally {
+      DataSourceUtils.releaseConnection(conn, dataSource);
+    }
+    jdbc.update(MERGE_SQL);
+    return activities;
+  }
+
+  @Override
+  public List<Activity> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public List<Activity> findByProjectIdOrderByAtDesc(String projectId) {
+    return delegate.findByProjectIdOrderByAtDesc(projectId);
+  }
+
+  @Override
+  public void deleteAll() {
+    delegate.deleteAll();
+  }
+
+  /** COPY ... FROM STDIN de {@code sql} (colunas na ordem de {@link #appendRow}), em blocos de ~64KB. */
+  static void copy(CopyManager copyApi, String sql, List<Activity> activities) throws SQLException {
+    CopyIn in = copyApi.copyIn(sql);
+    try {
+      StringBuilder buf = new StringBuilder(FLUSH_CHARS + 1024);
+      for (Activity a : activities) {
+        appendRow(buf, a);
+        if (buf.length() >= FLUSH_CHARS) write(in, buf);
+      }
+      write(in, buf);
+      in.endCopy();
+    } finally {
+      if (in.isActive()) in.cancelCopy();
+    }
+  }
+
+  private static void write(CopyIn in, StringBuilder buf) throws SQLException {
+    if (buf.isEmpty()) return;
+    byte[] bytes = buf.toString().getBytes(StandardCharsets.UTF_8);
+    in.writeToCopy(bytes, 0, bytes.length);
+    buf.setLength(0);
+  }
+
+  static void appendRow(StringBuilder b, Activity a) {
+    b.append(a.getId()).append('\t');
+    // mesma validação do UuidStringConverter: task_id é uuid nativo
+    field(b, a.getTaskId() == null ? null : UUID.fromString(a.getTaskId()).toString()).append('\t');
+    field(b, a.getProjectId()).append('\t');
+    field(b, a.getType()).append('\t');
+    field(b, a.getAt() == null ? null : a.getAt().toString()).append('\t');
+    field(b, a.getTitle()).append('\t');
+    field(b, a.getStatus()).append('\t');
+    field(b, a.getEventId() == null ? null : UUID.fromString(a.getEventId()).toString()).append('\t');
+    field(b, a.getSequence() == null ? null : a.getSequence().toString()).append('\n');
+  }
+
+  /** Escape do formato texto do COPY: \N para null; barra, tab e quebras de linha escapados. */
+  private static StringBuilder field(StringBuilder b, String v) {
+    if (v == null) return b.append("\\N");
+    for (int i = 0; i < v.length(); i++) {
+      char c = v.charAt(i);
+      switch (c) {
+        case '\\' -> b.append("\\\\");
+        case '\t' -> b.append("\\t");
+        case '\n' -> b.append("\\n");
+        case '\r' -> b.append("\\r");
+        default -> b.append(c);
+      }
+    }
+    return b;
+  }
+}
@@ -0,0 +1,32 @@
+package com.viniss.todo.activity.persistence.jpa;
+
+import com.viniss.todo.activity.domain.Activity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Atribui ids de activities_id_seq aos lotes gravados por SQL (upsert JDBC e COPY):
+ * um nextval por bloco de {@link Activity#ID_ALLOCATION_SIZE}, o mesmo contrato pooled-lo
+ * do mapeamento JPA, então todos os caminhos convivem sem colisão.
+ */
+@Component
+public class ActivityIdAllocator {
+  private final JdbcTemplate jdbc;
+
+  public ActivityIdAllocator(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  public void assign(List<Activity> activities) {
+    if (activities.isEmpty()) return;
+    int blocks = (activities.size() + Activity.ID_ALLOCATION_SIZE - 1) / Activity.ID_ALLOCATION_SIZE;
+    List<Long> starts = jdbc.queryForList(
+        "select nextval('activities_id_seq') from generate_series(1, ?)", Long.class, blocks);
+    for (int i = 0; i < activities.size(); i++) {
+      long start = starts.get(i / Activity.ID_ALLOCATION_SIZE);
+      activities.get(i).setId(start + i % Activity.ID_ALLOCATION_SIZE);
+    }
+  }
+}
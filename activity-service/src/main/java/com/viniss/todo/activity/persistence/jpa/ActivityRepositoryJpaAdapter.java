@@ -2,26 +2,62 @@ package com.viniss.todo.activity.persistence.jpa;
 
 import com.viniss.todo.activity.domain.Activity;
 import com.viniss.todo.activity.domain.ActivityRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
 public class ActivityRepositoryJpaAdapter implements ActivityRepository {
+  /**
+   * Inserção idempotente: eventos reentregues batem em ux_activities_event_id e são ignorados
+   * sem abortar o lote (o persist do Hibernate não tem ON CONFLICT). Com reWriteBatchedInserts
+   * o batch JDBC vira INSERTs multi-valores.
+   */
+  static final String INSERT_SQL = """
+      insert into activities (id, task_id, project_id, type, at, title, status, event_id, seq)
+      values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+      on conflict (event_id) do nothing
+      """;
+
   private final SpringDataActivityRepository delegate;
+  private final JdbcTemplate jdbc;
+  private final ActivityIdAllocator ids;
 
-  public ActivityRepositoryJpaAdapter(SpringDataActivityRepository delegate) {
+  public ActivityRepositoryJpaAdapter(SpringDataActivityRepository delegate, JdbcTemplate jdbc, ActivityIdAllocator ids) {
     this.delegate = delegate;
+    this.jdbc = jdbc;
+    this.ids = ids;
   }
 
   @Override
   public Activity save(Activity activity) {
-    return delegate.save(activity);
+    saveAll(List.of(activity));
+    return activity;
   }
-  
+
   @Override
+  @Transactional
   public List<Activity> saveAll(List<Activity> activities) {
-    return delegate.saveAll(activities);
+    if (activities.isEmpty()) return activities;
+    ids.assign(activities);
+    jdbc.batchUpdate(INSERT_SQL, activities.stream()
+        .map(a -> new Object[] {
+            a.getId(),
+            uuid(a.getTaskId()),
+            a.getProjectId(),
+            a.getType(),
+            a.getAt() == null ? null : OffsetDateTime.ofInstant(a.getAt(), ZoneOffset.UTC),
+            a.getTitle(),
+            a.getStatus(),
+            uuid(a.getEventId()),
+            a.getSequence()})
+        .toList());
+    return activities;
   }
 
   @Override
@@ -36,9 +72,14 @@ public class ActivityRepositoryJpaAdapter implements ActivityRepository {
     }
     return delegate.findByProjectIdOrderByAtDesc(projectId);
   }
-  
+
   @Override
   public void deleteAll() {
     delegate.deleteAll();
   }
-}
\ No newline at end of file
+
+  // mesma conversão do UuidStringConverter
+  private static UUID uuid(String value) {
+    return value == null ? null : UUID.fromString(value);
+  }
+}
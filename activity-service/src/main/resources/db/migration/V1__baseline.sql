@@ -0,0 +1,12 @@
+-- Esquema existente antes do Flyway (gerado até então pelo ddl-auto do Hibernate).
+-- Idempotente: bancos já populados também passam por aqui (baseline-version 0).
+
+create table if not exists activities (
+    id         bigserial    primary key,
+    task_id    varchar(255),
+    project_id varchar(255),
+    type       varchar(255),
+    at         timestamp(6) with time zone,
+    title      varchar(255),
+    status     varchar(255)
+);
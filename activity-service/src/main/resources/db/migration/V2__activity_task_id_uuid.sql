@@ -0,0 +1,2 @@
+-- activities.task_id acompanha tasks.id (uuid nativo, ver V5__task_id_uuid.sql no task-service).
+alter table activities alter column task_id type uuid using task_id::uuid;
@@ -0,0 +1,7 @@
+-- activities.id deixa de ser IDENTITY no mapeamento: ids saem de activities_id_seq em blocos
+-- de 50 (pooled-lo: nextval devolve o início do bloco). Vale para o Hibernate e para o adapter COPY.
+
+alter sequence activities_id_seq increment by 50;
+
+-- próximo bloco começa depois do maior id já gravado
+select setval('activities_id_seq', coalesce((select max(id) from activities), 0) + 1, false);
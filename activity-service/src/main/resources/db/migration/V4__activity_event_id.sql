@@ -0,0 +1,8 @@
+-- Ingestão idempotente: cada atividade guarda o eventId do evento que a gerou e a versão
+-- da task (seq). Reentregas do Kafka caem no índice único e são descartadas com
+-- ON CONFLICT (event_id) DO NOTHING. Eventos legados (sem eventId) ficam com null, que não conflita.
+
+alter table activities add column if not exists event_id uuid;
+alter table activities add column if not exists seq bigint;
+
+create unique index if not exists ux_activities_event_id on activities (event_id);
@@ -0,0 +1,24 @@
+-- Bancos criados pelo ddl-auto do Hibernate antes do Flyway têm activities.id como IDENTITY, e
+-- sequence de identity não aceita OWNED BY — o swap do rebuild (ActivityShadowTable) faz isso.
+-- Aqui vira uma sequence comum (mesmo nome e incremento do V3), sem reaproveitar ids: o próximo
+-- bloco começa depois do último entregue pela sequence antiga e do maior id gravado.
+
+do $$
+declare
+  old_seq regclass;
+  next_id bigint;
+begin
+  if exists (select 1 from information_schema.columns
+             where table_schema = current_schema() and table_name = 'activities'
+               and column_name = 'id' and is_identity = 'YES') then
+    old_seq := pg_get_serial_sequence('activities', 'id')::regclass;
+    select coalesce(pg_sequence_last_value(old_seq), 0) + s.seqincrement into next_id
+      from pg_sequence s where s.seqrelid = old_seq;
+    select greatest(next_id, coalesce(max(id), 0) + 1) into next_id from activities;
+
+    alter table activities alter column id drop identity;
+    create sequence activities_id_seq increment by 50 owned by activities.id;
+    perform setval('activities_id_seq', next_id, false);
+    alter table activities alter column id set default nextval('activities_id_seq');
+  end if;
+end $$;
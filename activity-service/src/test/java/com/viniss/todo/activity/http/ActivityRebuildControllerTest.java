@@ -0,0 +1,76 @@
+package com.viniss.todo.activity.http;
+
+import com.viniss.todo.activity.kafka.ActivityRebuilder;
+import com.viniss.todo.common.security.InternalIdentity;
+import com.viniss.todo.common.security.InternalIdentityAuthentication;
+import com.viniss.todo.common.security.ProjectGrants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Sem cadeia de segurança no serviço, o próprio controller exige identidade interna de admin.
+ */
+class ActivityRebuildControllerTest {
+
+    private final ActivityRebuilder rebuilder = mock(ActivityRebuilder.class);
+    private final ActivityRebuildController controller = new ActivityRebuildController(rebuilder);
+
+    @AfterEach
+    void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(Authentication auth) {
+        SecurityContextHolder.getContext().setAuthentication(auth);
+    }
+
+    private static InternalIdentityAuthentication identity(boolean admin) {
+        return new InternalIdentityAuthentication(new InternalIdentity("ops-1",
+                ProjectGrants.of(admin, false, Map.of("p-1", ProjectGrants.READ)), Instant.now().plusSeconds(30)));
+    }
+
+    @Test
+    @DisplayName("anônimo → AccessDenied (403) sem iniciar o rebuild")
+    void anonymous_denied() {
+        assertThatThrownBy(() -> controller.start(null, Instant.parse("2025-01-01T00:00:00Z")))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(controller::status).isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(rebuilder);
+    }
+
+    @Test
+    @DisplayName("identidade sem admin, ou autenticação que não é a interna → AccessDenied")
+    void non_admin_denied() {
+        authenticate(identity(false));
+        assertThatThrownBy(controller::cancel).isInstanceOf(AccessDeniedException.class);
+
+        authenticate(new TestingAuthenticationToken("x", "y", "SCOPE_admin"));
+        assertThatThrownBy(controller::cancel).isInstanceOf(AccessDeniedException.class);
+
+        verifyNoInteractions(rebuilder);
+    }
+
+    @Test
+    @DisplayName("identidade interna de admin → delega ao rebuilder")
+    void admin_allowed() {
+        authenticate(identity(true));
+        when(rebuilder.start(null, null)).thenReturn(true);
+
+        controller.start(null, null);
+        controller.status();
+
+        verify(rebuilder).start(null, null);
+        verify(rebuilder, times(2)).status();
+    }
+}
@@ -0,0 +1,225 @@
+package com.viniss.todo.activity.kafka;
+
+import com.viniss.todo.activity.domain.Activity;
+import com.viniss.todo.activity.domain.ActivityRepository;
+import com.viniss.todo.activity.persistence.copy.ActivityShadowTable;
+import com.viniss.todo.common.events.TaskCreated;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ActivityRebuilderTest {
+
+    static final TopicPartition P0 = new TopicPartition("task.events", 0);
+    static final OffsetDateTime AT = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    static final Duration DRAIN = Duration.ofSeconds(30);
+
+    @Test
+    @DisplayName("ETA: restante / taxa média, arredondado para cima; null sem taxa")
+    void eta() {
+        assertThat(ActivityRebuilder.eta(1_000, 300.0)).isEqualTo(4L);
+        assertThat(ActivityRebuilder.eta(0, 0)).isZero();
+        assertThat(ActivityRebuilder.eta(10, 0)).isNull();
+    }
+
+    @Test
+    @DisplayName("Sem rebuild: status IDLE e cancel não tem efeito")
+    void idle() {
+        ActivityRebuilder rebuilder = new ActivityRebuilder(mock(ConsumerFactory.class), mock(ActivityShadowTable.class),
+                TaskEventListenerTest.listener(mock(ActivityRepository.class), 1), 100, 0, DRAIN);
+
+        assertThat(rebuilder.status().state()).isEqualTo(ActivityRebuilder.State.IDLE);
+        assertThat(rebuilder.cancel()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Carrega o tópico na sombra, pula payload inválido, indexa e faz o swap no fim")
+    @SuppressWarnings("unchecked")
+    void rebuildCompleto() throws Exception {
+        MockConsumer<String, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions("task.events", List.of(new PartitionInfo("task.events", 0, Node.noNode(), null, null)));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L));
+        consumer.updateEndOffsets(Map.of(P0, 3L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, new TaskCreated("0190a5a0-0000-7000-8000-000000000001", "p-1", "A", "TODO", AT, List.of())));
+            consumer.addRecord(record(1, 42)); // iria para o DLT
+            consumer.addRecord(record(2, new TaskCreated("0190a5a0-0000-7000-8000-000000000002", "p-1", "B", "TODO", AT, List.of())));
+        });
+        ConsumerFactory<String, Object> factory = mock(ConsumerFactory.class);
+        when(factory.createConsumer(eq(ActivityRebuilder.GROUP), isNull(), isNull(), any(Properties.class))).thenReturn(consumer);
+
+        ActivityShadowTable shadow = mock(ActivityShadowTable.class);
+        List<Activity> loaded = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> loaded.addAll(inv.getArgument(0))).when(shadow).load(anyList());
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(shadow).swap(any());
+
+        ActivityRebuilder rebuilder = new ActivityRebuilder(factory, shadow,
+                TaskEventListenerTest.listener(mock(ActivityRepository.class), 1), 100, 0, DRAIN);
+        assertThat(rebuilder.start(null, null)).isTrue();
+        awaitFinished(rebuilder);
+
+        ActivityRebuilder.Status status = rebuilder.status();
+        assertThat(status.state()).isEqualTo(ActivityRebuilder.State.DONE);
+        assertThat(status.loaded()).isEqualTo(2);
+        assertThat(status.skipped()).isEqualTo(1);
+        assertThat(status.processedOffsets()).isEqualTo(3);
+        assertThat(status.remaining()).isZero();
+        assertThat(loaded).extracting(Activity::getTitle).containsExactly("A", "B");
+
+        InOrder order = inOrder(shadow);
+        order.verify(shadow).prepare();
+        order.verify(shadow).load(anyList());
+        order.verify(shadow).index();
+        order.verify(shadow).swap(any());
+        verify(shadow, never()).discard();
+    }
+
+    @Test
+    @DisplayName("Sem timestamp e com o início do log truncado: falha sem tocar nas tabelas")
+    @SuppressWarnings("unchecked")
+    void recusaTopicoIncompleto() throws Exception {
+        MockConsumer<String, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions("task.events", List.of(new PartitionInfo("task.events", 0, Node.noNode(), null, null)));
+        consumer.updateBeginningOffsets(Map.of(P0, 5L)); // retenção já apagou o começo
+        consumer.updateEndOffsets(Map.of(P0, 8L));
+        ConsumerFactory<String, Object> factory = mock(ConsumerFactory.class);
+        when(factory.createConsumer(eq(ActivityRebuilder.GROUP), isNull(), isNull(), any(Properties.class))).thenReturn(consumer);
+        ActivityShadowTable shadow = mock(ActivityShadowTable.class);
+
+        ActivityRebuilder rebuilder = new ActivityRebuilder(factory, shadow,
+                TaskEventListenerTest.listener(mock(ActivityRepository.class), 1), 100, 0, DRAIN);
+        assertThat(rebuilder.start(null, null)).isTrue();
+        awaitFinished(rebuilder);
+
+        assertThat(rebuilder.status().state()).isEqualTo(ActivityRebuilder.State.FAILED);
+        assertThat(rebuilder.status().error()).contains("fromTimestamp");
+        verify(shadow, never()).prepare();
+        verify(shadow, never()).swap(any());
+    }
+
+    @Test
+    @DisplayName("Com fromTimestamp: copia de activities o histórico anterior antes de reler o tópico")
+    @SuppressWarnings("unchecked")
+    void seedAntesDoTimestamp() throws Exception {
+        Instant from = Instant.parse("2025-01-01T09:00:00Z");
+        MockConsumer<String, Object> mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        mockConsumer.updatePartitions("task.events", List.of(new PartitionInfo("task.events", 0, Node.noNode(), null, null)));
+        mockConsumer.updateBeginningOffsets(Map.of(P0, 5L));
+        mockConsumer.updateEndOffsets(Map.of(P0, 8L));
+        MockConsumer<String, Object> consumer = spy(mockConsumer);
+        doReturn(Map.of(P0, new OffsetAndTimestamp(8L, from.toEpochMilli()))).when(consumer).offsetsForTimes(anyMap());
+        ConsumerFactory<String, Object> factory = mock(ConsumerFactory.class);
+        when(factory.createConsumer(eq(ActivityRebuilder.GROUP), isNull(), isNull(), any(Properties.class))).thenReturn(consumer);
+        ActivityShadowTable shadow = mock(ActivityShadowTable.class);
+
+        ActivityRebuilder rebuilder = new ActivityRebuilder(factory, shadow,
+                TaskEventListenerTest.listener(mock(ActivityRepository.class), 1), 100, 0, DRAIN);
+        assertThat(rebuilder.start(null, from)).isTrue();
+        awaitFinished(rebuilder);
+
+        assertThat(rebuilder.status().state()).isEqualTo(ActivityRebuilder.State.DONE);
+        InOrder order = inOrder(shadow);
+        order.verify(shadow).prepare();
+        order.verify(shadow).seed(from);
+        order.verify(shadow).index();
+        order.verify(shadow).swap(any());
+    }
+
+    @Test
+    @DisplayName("Fim do tópico sem registros (marcadores de transação): a cauda do swap usa a posição do consumidor")
+    @SuppressWarnings("unchecked")
+    void drainAtravessaGap() throws Exception {
+        MockConsumer<String, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions("task.events", List.of(new PartitionInfo("task.events", 0, Node.noNode(), null, null)));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L));
+        consumer.updateEndOffsets(Map.of(P0, 5L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, new TaskCreated("0190a5a0-0000-7000-8000-000000000001", "p-1", "A", "TODO", AT, List.of())));
+            consumer.addRecord(record(2, new TaskCreated("0190a5a0-0000-7000-8000-000000000002", "p-1", "B", "TODO", AT, List.of())));
+        });
+        // offsets 3 e 4 são marcadores de commit: o fetch avança a posição sem devolver registros
+        consumer.schedulePollTask(() -> consumer.seek(P0, 5L));
+        ConsumerFactory<String, Object> factory = mock(ConsumerFactory.class);
+        when(factory.createConsumer(eq(ActivityRebuilder.GROUP), isNull(), isNull(), any(Properties.class))).thenReturn(consumer);
+        ActivityShadowTable shadow = swapRunningCatchUp();
+
+        // swap-max-lag alto: tudo é lido na cauda, dentro do lock
+        ActivityRebuilder rebuilder = new ActivityRebuilder(factory, shadow,
+                TaskEventListenerTest.listener(mock(ActivityRepository.class), 1), 100, 100, DRAIN);
+        assertThat(rebuilder.start(null, null)).isTrue();
+        awaitFinished(rebuilder);
+
+        assertThat(rebuilder.status().state()).isEqualTo(ActivityRebuilder.State.DONE);
+        assertThat(rebuilder.status().loaded()).isEqualTo(2);
+        assertThat(rebuilder.status().remaining()).isZero();
+    }
+
+    @Test
+    @DisplayName("Cauda do swap que não alcança o fim no prazo: swap desfeito, sombra descartada, rebuild FAILED")
+    @SuppressWarnings("unchecked")
+    void drainComPrazo() throws Exception {
+        MockConsumer<String, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions("task.events", List.of(new PartitionInfo("task.events", 0, Node.noNode(), null, null)));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L));
+        consumer.updateEndOffsets(Map.of(P0, 5L)); // nada chega: a posição fica em 0
+        ConsumerFactory<String, Object> factory = mock(ConsumerFactory.class);
+        when(factory.createConsumer(eq(ActivityRebuilder.GROUP), isNull(), isNull(), any(Properties.class))).thenReturn(consumer);
+        ActivityShadowTable shadow = swapRunningCatchUp();
+
+        ActivityRebuilder rebuilder = new ActivityRebuilder(factory, shadow,
+                TaskEventListenerTest.listener(mock(ActivityRepository.class), 1), 100, 100, Duration.ofMillis(200));
+        assertThat(rebuilder.start(null, null)).isTrue();
+        awaitFinished(rebuilder);
+
+        assertThat(rebuilder.status().state()).isEqualTo(ActivityRebuilder.State.FAILED);
+        assertThat(rebuilder.status().error()).contains("Cauda do swap");
+        verify(shadow).discard();
+    }
+
+    /** Shadow mockada cujo swap roda a cauda como o real, dentro do "lock". */
+    private static ActivityShadowTable swapRunningCatchUp() {
+        ActivityShadowTable shadow = mock(ActivityShadowTable.class);
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(shadow).swap(any());
+        return shadow;
+    }
+
+    private static ConsumerRecord<String, Object> record(long offset, Object value) {
+        return new ConsumerRecord<>("task.events", 0, offset, "k", value);
+    }
+
+    private static void awaitFinished(ActivityRebuilder rebuilder) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            ActivityRebuilder.State state = rebuilder.status().state();
+            if (state == ActivityRebuilder.State.DONE || state == ActivityRebuilder.State.FAILED) return;
+            Thread.sleep(50);
+        }
+        throw new AssertionError("rebuild não terminou: " + rebuilder.status());
+    }
+}
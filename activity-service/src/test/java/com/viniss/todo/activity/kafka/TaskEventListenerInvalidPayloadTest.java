@@ -1,76 +1,125 @@
 package com.viniss.todo.activity.kafka;
 
+import com.viniss.todo.activity.domain.Activity;
 import com.viniss.todo.activity.domain.ActivityRepository;
+import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.kafka.KeyOrderedProcessor;
+import com.viniss.todo.common.kafka.TaskEventConsumerMetrics;
+import com.viniss.todo.common.kafka.TaskEventRetryBackOff;
+import com.viniss.todo.common.kafka.UnsupportedTaskEventException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 
 import java.lang.reflect.Method;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 /**
- * Garante que payloads inesperados não geram Activity.
+ * Garante que payloads inesperados não geram Activity: tombstones são ignorados e o resto é
+ * apontado ao error handler (BatchListenerFailedException) para ir ao task.events.DLT.
  */
 class TaskEventListenerInvalidPayloadTest {
 
+    static TaskEventListener listener(ActivityRepository repo, int concurrency) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new TaskEventListener(repo, new KeyOrderedProcessor(concurrency, registry), new TaskEventConsumerMetrics(registry),
+                mock(TaskEventRetryBackOff.class));
+    }
+
     private Method listenerMethod() {
         return Arrays.stream(TaskEventListener.class.getDeclaredMethods())
                 .filter(m -> m.isAnnotationPresent(KafkaListener.class))
+                .filter(m -> m.getParameterTypes()[0] == List.class) // o listener do lote, não o de retry
                 .findFirst()
                 .orElseThrow(() -> new AssertionError("No @KafkaListener method found"));
     }
 
     @Test
-    @DisplayName("Ignora quando value é Map (payload genérico JSON)")
-    void ignore_whenMapPayload() throws Exception {
+    @DisplayName("Map sem type conhecido → falha não retentável apontando o registro, nada salvo")
+    void fails_whenMapPayload() throws Exception {
         ActivityRepository repo = mock(ActivityRepository.class);
-        TaskEventListener listener = new TaskEventListener(repo);
+        TaskEventListener listener = listener(repo, 1);
 
         ConsumerRecord<String, Object> record =
                 new ConsumerRecord<>("task.events", 0, 0L, "t-1", Map.of("unexpected", "value"));
 
         Method m = listenerMethod();
         m.setAccessible(true);
-        m.invoke(listener, record);
+        assertThatThrownBy(() -> m.invoke(listener, List.of(record)))
+                .cause()
+                .isInstanceOf(BatchListenerFailedException.class)
+                .hasCauseInstanceOf(UnsupportedTaskEventException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getIndex()).isZero());
 
         verify(repo, never()).save(any());
+        verify(repo, never()).saveAll(any());
     }
 
     @Test
     @DisplayName("Ignora quando value é null")
     void ignore_whenNull() throws Exception {
         ActivityRepository repo = mock(ActivityRepository.class);
-        TaskEventListener listener = new TaskEventListener(repo);
+        TaskEventListener listener = listener(repo, 1);
 
         ConsumerRecord<String, Object> record =
                 new ConsumerRecord<>("task.events", 0, 1L, "t-2", null);
 
         Method m = listenerMethod();
         m.setAccessible(true);
-        m.invoke(listener, record);
+        m.invoke(listener, List.of(record));
 
         verify(repo, never()).save(any());
+        verify(repo, never()).saveAll(any());
     }
 
     @Test
-    @DisplayName("Ignora quando value é de tipo desconhecido")
-    void ignore_whenUnknownType() throws Exception {
+    @DisplayName("Tipo desconhecido → falha no registro; os anteriores da lane são gravados antes")
+    void fails_whenUnknownType() throws Exception {
         ActivityRepository repo = mock(ActivityRepository.class);
-        TaskEventListener listener = new TaskEventListener(repo);
+        TaskEventListener listener = listener(repo, 1);
 
-        ConsumerRecord<String, Object> record =
-                new ConsumerRecord<>("task.events", 0, 2L, "t-3", new Object());
+        TaskCreated ok = new TaskCreated("t-3", "p-1", "A", "TODO", OffsetDateTime.parse("2025-01-02T12:00:00Z"), List.of());
+        List<ConsumerRecord<String, Object>> records = List.of(
+                new ConsumerRecord<>("task.events", 0, 1L, "t-3", ok),
+                new ConsumerRecord<>("task.events", 0, 2L, "t-3", new Object()),
+                new ConsumerRecord<>("task.events", 0, 3L, "t-3", ok));
 
         Method m = listenerMethod();
         m.setAccessible(true);
-        m.invoke(listener, record);
+        assertThatThrownBy(() -> m.invoke(listener, records))
+                .cause()
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getIndex()).isEqualTo(1));
 
-        verify(repo, never()).save(any());
+        verify(repo, times(1)).saveAll(argThat(l -> l.size() == 1));
         verifyNoMoreInteractions(repo);
     }
+
+    @Test
+    @DisplayName("Map com type TaskCreated (JSON sem header de tipo) → vira Activity")
+    void maps_whenMapWithKnownType() throws Exception {
+        ActivityRepository repo = mock(ActivityRepository.class);
+        TaskEventListener listener = listener(repo, 1);
+
+        Activity a = listener.toActivity(Map.of(
+                "type", "TaskCreated", "taskId", "t-4", "projectId", "p-4", "title", "Legado",
+                "status", "TODO", "occurredAt", "2025-01-02T12:00:00Z", "sequence", 3));
+
+        assertThat(a.getType()).isEqualTo("TaskCreated");
+        assertThat(a.getTaskId()).isEqualTo("t-4");
+        assertThat(a.getProjectId()).isEqualTo("p-4");
+        assertThat(a.getAt()).isEqualTo(OffsetDateTime.parse("2025-01-02T12:00:00Z").toInstant());
+        assertThat(a.getSequence()).isEqualTo(3L);
+    }
 }
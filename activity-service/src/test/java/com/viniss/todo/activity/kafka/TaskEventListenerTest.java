@@ -4,6 +4,10 @@ import com.viniss.todo.activity.domain.Activity;
 import com.viniss.todo.activity.domain.ActivityRepository;
 import com.viniss.todo.common.events.TaskCreated;
 import com.viniss.todo.common.events.TaskUpdated;
+import com.viniss.todo.common.kafka.KeyOrderedProcessor;
+import com.viniss.todo.common.kafka.TaskEventConsumerMetrics;
+import com.viniss.todo.common.kafka.TaskEventRetryBackOff;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,6 +20,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Mockito.*;
 
 /**
@@ -24,10 +29,17 @@ import static org.mockito.Mockito.*;
  */
 class TaskEventListenerTest {
 
+    static TaskEventListener listener(ActivityRepository repo, int concurrency) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new TaskEventListener(repo, new KeyOrderedProcessor(concurrency, registry), new TaskEventConsumerMetrics(registry),
+                mock(TaskEventRetryBackOff.class));
+    }
+
     private Method listenerMethod() {
         // pick the first method annotated with @KafkaListener
         return Arrays.stream(TaskEventListener.class.getDeclaredMethods())
                 .filter(m -> m.isAnnotationPresent(KafkaListener.class))
+                .filter(m -> m.getParameterTypes()[0] == List.class) // o listener do lote, não o de retry
                 .findFirst()
                 .orElseThrow(() -> new AssertionError("No @KafkaListener method found in TaskEventListener"));
     }
@@ -36,7 +48,7 @@ class TaskEventListenerTest {
     @DisplayName("TaskCreated → salva Activity com type=created e campos do evento")
     void created_mapsAndSavesActivity() throws Exception {
         ActivityRepository repo = mock(ActivityRepository.class);
-        TaskEventListener listener = new TaskEventListener(repo);
+        TaskEventListener listener = listener(repo, 1);
 
         var occurred = OffsetDateTime.parse("2025-01-02T12:00:00Z");
         TaskCreated evt = new TaskCreated("t-1", "p-1", "New task", "TODO", occurred, List.of("a","b"));
@@ -45,12 +57,13 @@ class TaskEventListenerTest {
 
         Method m = listenerMethod();
         m.setAccessible(true);
-        m.invoke(listener, record);
+        m.invoke(listener, List.of(record));
 
-        ArgumentCaptor<Activity> cap = ArgumentCaptor.forClass(Activity.class);
-        verify(repo).save(cap.capture());
+        ArgumentCaptor<List<Activity>> cap = ArgumentCaptor.forClass(List.class);
+        verify(repo).saveAll(cap.capture());
 
-        Activity a = cap.getValue();
+        assertThat(cap.getValue()).hasSize(1);
+        Activity a = cap.getValue().get(0);
         assertThat(a.getTaskId()).isEqualTo("t-1");
         assertThat(a.getProjectId()).isEqualTo("p-1");
         assertThat(a.getTitle()).isEqualTo("New task");
@@ -63,7 +76,7 @@ class TaskEventListenerTest {
     @DisplayName("TaskUpdated → salva Activity com type=updated e campos do evento")
     void updated_mapsAndSavesActivity() throws Exception {
         ActivityRepository repo = mock(ActivityRepository.class);
-        TaskEventListener listener = new TaskEventListener(repo);
+        TaskEventListener listener = listener(repo, 1);
 
         var occurred = OffsetDateTime.parse("2025-03-04T00:00:00Z");
         TaskUpdated evt = new TaskUpdated("t-9", "p-9", "Edited", "DONE", occurred, List.of());
@@ -72,12 +85,13 @@ class TaskEventListenerTest {
 
         Method m = listenerMethod();
         m.setAccessible(true);
-        m.invoke(listener, record);
+        m.invoke(listener, List.of(record));
 
-        ArgumentCaptor<Activity> cap = ArgumentCaptor.forClass(Activity.class);
-        verify(repo).save(cap.capture());
+        ArgumentCaptor<List<Activity>> cap = ArgumentCaptor.forClass(List.class);
+        verify(repo).saveAll(cap.capture());
 
-        Activity a = cap.getValue();
+        assertThat(cap.getValue()).hasSize(1);
+        Activity a = cap.getValue().get(0);
         assertThat(a.getTaskId()).isEqualTo("t-9");
         assertThat(a.getProjectId()).isEqualTo("p-9");
         assertThat(a.getTitle()).isEqualTo("Edited");
@@ -85,4 +99,89 @@ class TaskEventListenerTest {
         assertThat(a.getType()).isEqualTo("TaskUpdated"); // conforme comentário na entidade
         assertThat(a.getAt()).isEqualTo(occurred.toInstant());
     }
+
+    @Test
+    @DisplayName("Lote do poll → um único saveAll, na ordem dos registros, sem os payloads inválidos")
+    void batch_singleSaveAll() throws Exception {
+        ActivityRepository repo = mock(ActivityRepository.class);
+        TaskEventListener listener = listener(repo, 1);
+
+        var occurred = OffsetDateTime.parse("2025-01-02T12:00:00Z");
+        List<ConsumerRecord<String, Object>> records = List.of(
+                new ConsumerRecord<>("task.events", 0, 0L, "t-1", new TaskCreated("t-1", "p-1", "A", "TODO", occurred, List.of())),
+                new ConsumerRecord<>("task.events", 0, 1L, "t-x", null),
+                new ConsumerRecord<>("task.events", 0, 2L, "t-1", new TaskUpdated("t-1", "p-1", "A", "DONE", occurred, List.of())),
+                new ConsumerRecord<>("task.events", 1, 0L, "t-2", new TaskCreated("t-2", "p-1", "B", "TODO", occurred, List.of())));
+
+        Method m = listenerMethod();
+        m.setAccessible(true);
+        m.invoke(listener, records);
+
+        ArgumentCaptor<List<Activity>> cap = ArgumentCaptor.forClass(List.class);
+        verify(repo, times(1)).saveAll(cap.capture());
+        verify(repo, never()).save(any());
+
+        assertThat(cap.getValue())
+                .extracting(Activity::getTaskId, Activity::getType)
+                .containsExactly(
+                        tuple("t-1", "TaskCreated"),
+                        tuple("t-1", "TaskUpdated"),
+                        tuple("t-2", "TaskCreated"));
+    }
+
+    @Test
+    @DisplayName("Evento repetido no mesmo lote (mesmo eventId) vira uma única Activity com eventId e sequence")
+    void batch_dedupesByEventId() throws Exception {
+        ActivityRepository repo = mock(ActivityRepository.class);
+        TaskEventListener listener = listener(repo, 1);
+
+        var occurred = OffsetDateTime.parse("2025-01-02T12:00:00Z");
+        String eventId = "6f1c2a4e-3b5d-3c7e-9f10-0a1b2c3d4e5f";
+        TaskUpdated evt = new TaskUpdated("t-1", "p-1", "A", "DONE", occurred, List.of(), eventId, 2L);
+        List<ConsumerRecord<String, Object>> records = List.of(
+                new ConsumerRecord<>("task.events", 0, 0L, "t-1", evt),
+                new ConsumerRecord<>("task.events", 0, 1L, "t-1", evt));
+
+        Method m = listenerMethod();
+        m.setAccessible(true);
+        m.invoke(listener, records);
+
+        ArgumentCaptor<List<Activity>> cap = ArgumentCaptor.forClass(List.class);
+        verify(repo).saveAll(cap.capture());
+        assertThat(cap.getValue()).singleElement().satisfies(a -> {
+            assertThat(a.getEventId()).isEqualTo(eventId);
+            assertThat(a.getSequence()).isEqualTo(2L);
+        });
+    }
+
+    @Test
+    @DisplayName("Lanes por taskId (concurrency=4) → eventos de cada task gravados juntos e em ordem")
+    void lanes_keepOrderPerTask() throws Exception {
+        ActivityRepository repo = mock(ActivityRepository.class);
+        TaskEventListener listener = listener(repo, 4);
+
+        var occurred = OffsetDateTime.parse("2025-01-02T12:00:00Z");
+        List<ConsumerRecord<String, Object>> records = new java.util.ArrayList<>();
+        for (int v = 0; v < 3; v++) {
+            for (String task : List.of("t-1", "t-2", "t-3", "t-4", "t-5")) {
+                records.add(new ConsumerRecord<>("task.events", 0, records.size(), task,
+                        new TaskUpdated(task, "p-1", "v" + v, "TODO", occurred, List.of())));
+            }
+        }
+
+        Method m = listenerMethod();
+        m.setAccessible(true);
+        m.invoke(listener, records);
+
+        ArgumentCaptor<List<Activity>> cap = ArgumentCaptor.forClass(List.class);
+        verify(repo, atLeast(1)).saveAll(cap.capture());
+        assertThat(cap.getAllValues()).flatExtracting(l -> l).hasSize(15);
+        for (List<Activity> lane : cap.getAllValues()) {
+            // cada task aparece numa única lane, com as versões na ordem do lote
+            for (String task : List.of("t-1", "t-2", "t-3", "t-4", "t-5")) {
+                List<String> titles = lane.stream().filter(a -> a.getTaskId().equals(task)).map(Activity::getTitle).toList();
+                assertThat(titles).isIn(List.of(), List.of("v0", "v1", "v2"));
+            }
+        }
+    }
 }
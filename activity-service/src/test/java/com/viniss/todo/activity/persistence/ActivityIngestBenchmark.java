@@ -0,0 +1,92 @@
+package com.viniss.todo.activity.persistence;
+
+import com.viniss.todo.activity.domain.Activity;
+import com.viniss.todo.activity.domain.ActivityRepository;
+import com.viniss.todo.activity.persistence.copy.CopyActivityRepository;
+import com.viniss.todo.activity.persistence.jpa.ActivityIdAllocator;
+import com.viniss.todo.activity.persistence.jpa.ActivityRepositoryJpaAdapter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compara saveAll do adapter padrão (batch JDBC com ON CONFLICT) com o COPY contra o Postgres configurado.
+ *
+ * Não roda no build (o nome não casa com os padrões do surefire). Executar com:
+ * <pre>
+ *   mvn -pl activity-service test -Dtest=ActivityIngestBenchmark -Dbench=true -Dbench.rows=200000
+ * </pre>
+ * Cada rodada é desfeita por rollback, mas o tempo medido inclui o envio ao banco.
+ */
+@SpringBootTest(properties = "spring.kafka.listener.auto-startup=false")
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class ActivityIngestBenchmark {
+
+    @Autowired ActivityRepositoryJpaAdapter jpa;
+    @Autowired DataSource dataSource;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired ActivityIdAllocator ids;
+    @Autowired TransactionTemplate tx;
+
+    @Test
+    void jpaVersusCopy() {
+        int rows = Integer.getInteger("bench.rows", 100_000);
+        int rounds = Integer.getInteger("bench.rounds", 3);
+        ActivityRepository copy = new CopyActivityRepository(jpa, dataSource, jdbc, ids);
+
+        // aquecimento (JIT, pool, planos)
+        run(jpa, Math.min(rows, 5_000));
+        run(copy, Math.min(rows, 5_000));
+
+        for (int r = 1; r <= rounds; r++) {
+            report("jpa", r, rows, run(jpa, rows));
+            report("copy", r, rows, run(copy, rows));
+        }
+    }
+
+    private Duration run(ActivityRepository repository, int rows) {
+        List<Activity> batch = activities(rows);
+        return tx.execute(status -> {
+            long start = System.nanoTime();
+            repository.saveAll(batch);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            status.setRollbackOnly();
+            return elapsed;
+        });
+    }
+
+    private static List<Activity> activities(int rows) {
+        String projectId = "bench-" + UUID.randomUUID();
+        Instant now = Instant.now();
+        List<Activity> out = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Activity a = new Activity();
+            a.setTaskId(UUID.randomUUID().toString());
+            a.setProjectId(projectId);
+            a.setType(i % 3 == 0 ? "TaskCreated" : "TaskUpdated");
+            a.setAt(now.plusMillis(i));
+            a.setTitle("Task " + i);
+            a.setStatus("TODO");
+            a.setEventId(UUID.randomUUID().toString());
+            a.setSequence((long) i);
+            out.add(a);
+        }
+        return out;
+    }
+
+    private static void report(String writer, int round, int rows, Duration elapsed) {
+        double perSecond = rows / Math.max(elapsed.toNanos() / 1e9, 1e-9);
+        System.out.printf("activity_ingest_bench writer=%s round=%d rows=%d elapsed_ms=%d rows_per_s=%.0f%n",
+                writer, round, rows, elapsed.toMillis(), perSecond);
+    }
+}
@@ -0,0 +1,50 @@
+package com.viniss.todo.activity.persistence.copy;
+
+import com.viniss.todo.activity.domain.Activity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Formato das linhas enviadas no COPY (o envio em si depende de um Postgres real,
+ * ver ActivityIngestBenchmark).
+ */
+class CopyActivityRepositoryTest {
+
+    @Test
+    @DisplayName("appendRow: colunas separadas por tab, null como \\N e caracteres de controle escapados")
+    void appendRow_escapes() {
+        Activity a = new Activity();
+        a.setId(101L);
+        a.setTaskId("0190A5A0-0000-7000-8000-000000000001");
+        a.setProjectId("p-1");
+        a.setType("TaskCreated");
+        a.setAt(Instant.parse("2025-01-02T12:00:00Z"));
+        a.setTitle("linha1\nlinha2\tcom\\barra");
+        a.setStatus(null);
+        a.setEventId("6f1c2a4e-3b5d-3c7e-9f10-0a1b2c3d4e5f");
+        a.setSequence(3L);
+
+        StringBuilder b = new StringBuilder();
+        CopyActivityRepository.appendRow(b, a);
+
+        assertThat(b.toString()).isEqualTo(
+                "101\t0190a5a0-0000-7000-8000-000000000001\tp-1\tTaskCreated\t2025-01-02T12:00:00Z\t"
+                        + "linha1\\nlinha2\\tcom\\\\barra\t\\N\t6f1c2a4e-3b5d-3c7e-9f10-0a1b2c3d4e5f\t3\n");
+    }
+
+    @Test
+    @DisplayName("appendRow: task_id que não é uuid falha antes do COPY, como no adapter JPA")
+    void appendRow_invalidTaskId() {
+        Activity a = new Activity();
+        a.setId(1L);
+        a.setTaskId("t-1");
+
+        assertThatThrownBy(() -> CopyActivityRepository.appendRow(new StringBuilder(), a))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
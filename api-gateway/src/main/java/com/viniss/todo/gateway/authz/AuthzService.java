@@ -1,11 +1,11 @@
 package com.viniss.todo.gateway.authz;// package com.viniss.todo.gateway.authz;
 
+import com.viniss.todo.common.security.ProjectGrants;
 import org.springframework.stereotype.Component;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
-import org.springframework.security.oauth2.jwt.Jwt;
 
-import java.util.*;
+import java.util.Optional;
 
 @Component("authz")
 public class AuthzService {
@@ -17,35 +17,22 @@ public class AuthzService {
         this.taskQuery = taskQuery.orElse(null);
     }
 
-    /** Checa se o JWT dá acesso ao projectId informado. */
+    /** Checa se o JWT dá acesso ao projectId informado (grants pré-calculados, ver {@link ProjectGrants}). */
     public boolean hasProjectAccess(Authentication authentication, String projectId) {
-        if (projectId == null || projectId.isBlank()) return false;
-        if (!(authentication instanceof JwtAuthenticationToken token)) return false;
-        Jwt jwt = token.getToken();
-
-        // 1) admin "global"
-        if (containsIgnoreCase(claimAsList(jwt, "roles"), "admin")) return true;
-
-        // 2) lista de projetos no claim "projects": ["project-123", ...]
-        if (claimAsList(jwt, "projects").contains(projectId)) return true;
+        return grants(authentication).canRead(projectId);
+    }
 
-        // 3) escopos do tipo "project:read" ou "project:{id}:read/write"
-        String scope = jwt.getClaimAsString("scope");
-        if (scope != null) {
-            Set<String> scopes = new HashSet<>(Arrays.asList(scope.split("\\s+")));
-            if (scopes.contains("project:read")) return true; // permissao ampla
-            if (scopes.contains("project:" + projectId + ":read")) return true;
-            if (scopes.contains("project:" + projectId + ":write")) return true;
-        }
+    /** Criação/alteração: exige grant de escrita no projeto (leitura não basta). */
+    public boolean canWriteProject(Authentication authentication, String projectId) {
+        return grants(authentication).canWrite(projectId);
+    }
 
-        // 4) map/objeto "project_roles": { "project-123": ["OWNER","WRITER"] }
-        Object pr = jwt.getClaims().get("project_roles");
-        if (pr instanceof Map<?,?> map) {
-            Object roles = map.get(projectId);
-            if (roles instanceof Collection<?> c && !c.isEmpty()) return true;
+    /** Grants pré-calculados pelo converter; um JwtAuthenticationToken comum (ex.: testes) é lido na hora. */
+    public static ProjectGrants grants(Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken token && !(token instanceof ProjectGrantsAuthentication)) {
+            return ProjectGrants.from(token.getTokenAttributes());
         }
-
-        return false;
+        return ProjectGrants.of(authentication);
     }
 
     /** Resolve projectId a partir da taskId e aplica a mesma checagem. */
@@ -55,20 +42,10 @@ public class AuthzService {
         return hasProjectAccess(authentication, projectId);
     }
 
-    // Helpers
-    private List<String> claimAsList(Jwt jwt, String name) {
-        Object v = jwt.getClaims().get(name);
-        if (v instanceof Collection<?> col) {
-            List<String> out = new ArrayList<>();
-            for (Object o : col) if (o != null) out.add(String.valueOf(o));
-            return out;
-        }
-        if (v instanceof String s) return Arrays.asList(s.split("\\s*,\\s*"));
-        return Collections.emptyList();
-    }
-
-    private boolean containsIgnoreCase(Collection<String> col, String value) {
-        for (String s : col) if (s.equalsIgnoreCase(value)) return true;
-        return false;
+    /** Mesma resolução de {@link #canAccessTask}, exigindo escrita (PUT/PATCH). */
+    public boolean canWriteTask(Authentication authentication, String taskId) {
+        if (taskQuery == null) return false;
+        String projectId = taskQuery.findProjectIdByTaskId(taskId).orElse(null);
+        return canWriteProject(authentication, projectId);
     }
 }
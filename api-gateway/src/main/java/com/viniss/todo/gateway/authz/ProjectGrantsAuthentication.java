@@ -0,0 +1,29 @@
+package com.viniss.todo.gateway.authz;
+
+import com.viniss.todo.common.security.ProjectGrants;
+import com.viniss.todo.common.security.ProjectGrantsHolder;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * {@link JwtAuthenticationToken} que já carrega os {@link ProjectGrants} do token: as checagens de
+ * {@code @authz}, o handshake do WebSocket e a identidade interna repassada via Feign leem daqui
+ * em vez de percorrer os claims de novo.
+ */
+public class ProjectGrantsAuthentication extends JwtAuthenticationToken implements ProjectGrantsHolder {
+  private final ProjectGrants grants;
+
+  public ProjectGrantsAuthentication(Jwt jwt, Collection<? extends GrantedAuthority> authorities, String name,
+                                     ProjectGrants grants) {
+    super(jwt, authorities, name);
+    this.grants = grants;
+  }
+
+  @Override
+  public ProjectGrants grants() {
+    return grants;
+  }
+}
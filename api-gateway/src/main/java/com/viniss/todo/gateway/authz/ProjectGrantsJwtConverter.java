@@ -0,0 +1,22 @@
+package com.viniss.todo.gateway.authz;
+
+import com.viniss.todo.common.security.ProjectGrants;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+/**
+ * Converter do resource server: mesmas authorities e nome do JwtAuthenticationConverter padrão
+ * (SCOPE_*, sub), mais os {@link ProjectGrants} calculados uma vez por token.
+ */
+public class ProjectGrantsJwtConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+  private final JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+
+  @Override
+  public AbstractAuthenticationToken convert(Jwt jwt) {
+    return new ProjectGrantsAuthentication(jwt, authorities.convert(jwt),
+        jwt.getClaimAsString(JwtClaimNames.SUB), ProjectGrants.from(jwt.getClaims()));
+  }
+}
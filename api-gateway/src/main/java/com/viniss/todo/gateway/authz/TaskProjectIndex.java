@@ -0,0 +1,353 @@
+package com.viniss.todo.gateway.authz;
+
+import com.viniss.todo.common.dto.TaskResponse;
+import com.viniss.todo.gateway.http.TaskClient;
+import com.viniss.todo.gateway.security.SnapshotFiles;
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link TaskQueryPort} local: mapa taskId → projectId materializado do tópico compactado
+ * task.index (publicado pelo task-service). A checagem de {@code @authz.canAccessTask} vira um
+ * lookup em memória em vez de uma chamada ao task-service.
+ *
+ * <ul>
+ *   <li>Startup: carrega o snapshot local ({@code app.task-index.snapshot}) e continua o tópico
+ *       dos offsets gravados nele — só a diferença é relida. Sem snapshot, lê desde o início.</li>
+ *   <li>Snapshot regravado a cada {@code app.task-index.snapshot-interval} (se mudou) e no stop,
+ *       num arquivo temporário + rename atômico, só para o dono ({@link SnapshotFiles}). Snapshot
+ *       de outro dono ou gravável por grupo/outros é ignorado: ele decide o acesso às tasks.</li>
+ *   <li>Miss (task recém-criada ainda não indexada, índice em carga): com
+ *       {@code app.task-index.miss-fallback=feign} (padrão), busca a task no task-service e guarda
+ *       o projectId; 404 ou qualquer outra falha do Feign (403, 5xx, timeout, circuito aberto)
+ *       → vazio (acesso negado). Com {@code none}, miss é vazio.</li>
+ * </ul>
+ *
+ * Os projectIds são internados: milhões de tasks dividem poucas strings de projeto.
+ * Métricas: task.index.size e task.index.lookups (result = hit | fallback | miss | fallback_error).
+ */
+@Component
+@ConditionalOnProperty(name = "app.task-index.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskProjectIndex implements TaskQueryPort, SmartLifecycle {
+  private static final Logger log = LoggerFactory.getLogger(TaskProjectIndex.class);
+  public static final String TOPIC = "task.index";
+  private static final int SNAPSHOT_MAGIC = 0x54494458; // "TIDX"
+  private static final int SNAPSHOT_VERSION = 1;
+  private static final Duration POLL = Duration.ofSeconds(1);
+
+  private final ConsumerFactory<?, ?> consumerFactory;
+  private final TaskClient tasks;
+  private final Path snapshotPath;
+  private final Duration snapshotInterval;
+  private final boolean feignFallback;
+  private final boolean autoStartup;
+
+  private final Map<String, String> projectByTask = new ConcurrentHashMap<>();
+  private final Map<String, String> projectIds = new ConcurrentHashMap<>();
+  private final Counter hits;
+  private final Counter fallbacks;
+  private final Counter misses;
+  private final Counter fallbackErrors;
+
+  private volatile boolean running;
+  private volatile boolean caughtUp;
+  private volatile Consumer<?, ?> consumer;
+  private Thread worker;
+
+  public TaskProjectIndex(ConsumerFactory<?, ?> consumerFactory,
+                          TaskClient tasks,
+                          MeterRegistry registry,
+                          @Value("${app.task-index.snapshot:${user.home}/.todo-gateway/task-index.snapshot}") Path snapshotPath,
+                          @Value("${app.task-index.snapshot-interval:60s}") Duration snapshotInterval,
+                          @Value("${app.task-index.miss-fallback:feign}") String missFallback,
+                          @Value("${spring.kafka.listener.auto-startup:true}") boolean autoStartup) {
+    this.consumerFactory = consumerFactory;
+    this.tasks = tasks;
+    this.snapshotPath = snapshotPath;
+    this.snapshotInterval = snapshotInterval;
+    this.feignFallback = "feign".equalsIgnoreCase(missFallback);
+    this.autoStartup = autoStartup;
+
+    Gauge.builder("task.index.size", projectByTask, Map::size)
+        .description("Tasks no índice local taskId → projectId")
+        .register(registry);
+    this.hits = lookups(registry, "hit");
+    this.fallbacks = lookups(registry, "fallback");
+    this.misses = lookups(registry, "miss");
+    this.fallbackErrors = lookups(registry, "fallback_error");
+  }
+
+  private static Counter lookups(MeterRegistry registry, String result) {
+    return Counter.builder("task.index.lookups")
+        .description("Consultas ao índice local de tasks")
+        .tag("result", result)
+        .register(registry);
+  }
+
+  @Override
+  public Optional<String> findProjectIdByTaskId(String taskId) {
+    if (taskId == null || taskId.isBlank()) return Optional.empty();
+    String projectId = projectByTask.get(taskId);
+    if (projectId != null) {
+      hits.increment();
+      return Optional.of(projectId);
+    }
+    if (!feignFallback) {
+      misses.increment();
+      return Optional.empty();
+    }
+
+    fallbacks.increment();
+    TaskResponse task;
+    try {
+      task = tasks.get(taskId, null).getBody();
+    } catch (FeignException.NotFound e) {
+      return Optional.empty();
+    } catch (FeignException | CallNotPermittedException e) {
+      // roda dentro da expressão do @PreAuthorize: falha do upstream nega, não vira 500
+      fallbackErrors.increment();
+      log.warn("task_index_fallback_failed taskId={} error={}", taskId, e.getClass().getSimpleName());
+      return Optional.empty();
+    }
+    if (task == null || task.projectId() == null) return Optional.empty();
+    put(taskId, task.projectId());
+    return Optional.of(task.projectId());
+  }
+
+  /** {@code true} depois que a carga inicial alcançou o fim do tópico. */
+  public boolean caughtUp() {
+    return caughtUp;
+  }
+
+  int size() {
+    return projectByTask.size();
+  }
+
+  void put(String taskId, String projectId) {
+    projectByTask.put(taskId, projectIds.computeIfAbsent(projectId, p -> p));
+  }
+
+  void apply(ConsumerRecord<String, String> record) {
+    if (record.key() == null) return;
+    if (record.value() == null) {
+      projectByTask.remove(record.key()); // tombstone
+    } else {
+      put(record.key(), record.value());
+    }
+  }
+
+  // ---- ciclo de vida -------------------------------------------------------
+
+  @Override
+  public void start() {
+    running = true;
+    worker = Thread.ofPlatform().daemon().name("task-index").start(this::loop);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    Consumer<?, ?> c = consumer;
+    if (c != null) c.wakeup();
+    Thread t = worker;
+    if (t != null) {
+      try {
+        t.join(POLL.multipliedBy(10).toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Segue os listeners: sem Kafka (testes), só o fallback responde. */
+  @Override
+  public boolean isAutoStartup() {
+    return autoStartup;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void loop() {
+    Map<Integer, Long> restored = restore();
+    Properties overrides = new Properties();
+    overrides.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+    overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "5000");
+
+    try (Consumer<?, ?> raw = consumerFactory.createConsumer(null, "task-index", null, overrides)) {
+      consumer = raw;
+      @SuppressWarnings("unchecked")
+      Consumer<String, String> c = (Consumer<String, String>) raw;
+      List<TopicPartition> partitions = awaitPartitions(c);
+      if (partitions.isEmpty()) return;
+      c.assign(partitions);
+      for (TopicPartition tp : partitions) {
+        Long offset = restored.get(tp.partition());
+        if (offset != null) c.seek(tp, offset);
+        else c.seekToBeginning(List.of(tp));
+      }
+      Map<TopicPartition, Long> initialEnd = c.endOffsets(partitions);
+
+      boolean dirty = false;
+      long lastSnapshot = System.nanoTime();
+      try {
+        while (running) {
+          ConsumerRecords<String, String> records = c.poll(POLL);
+          records.forEach(this::apply);
+          dirty |= !records.isEmpty();
+          if (!caughtUp && reached(c, initialEnd)) {
+            caughtUp = true;
+            log.info("task_index_ready size={}", projectByTask.size());
+          }
+          if (dirty && System.nanoTime() - lastSnapshot > snapshotInterval.toNanos()) {
+            snapshot(positions(c, partitions));
+            dirty = false;
+            lastSnapshot = System.nanoTime();
+          }
+        }
+      } catch (WakeupException e) {
+        // stop()
+      }
+      if (dirty) snapshot(positions(c, partitions));
+    } catch (Exception e) {
+      log.error("task_index_failed error={}", e.toString(), e);
+    } finally {
+      consumer = null;
+    }
+  }
+
+  /** O tópico é criado pelo task-service: espera ele existir. */
+  private List<TopicPartition> awaitPartitions(Consumer<String, String> c) {
+    while (running) {
+      var infos = c.partitionsFor(TOPIC);
+      if (infos != null && !infos.isEmpty()) {
+        return infos.stream().map(p -> new TopicPartition(p.topic(), p.partition())).toList();
+      }
+      try {
+        Thread.sleep(POLL.multipliedBy(5));
+      } catch (InterruptedException e) {
+        return List.of();
+      }
+    }
+    return List.of();
+  }
+
+  private static boolean reached(Consumer<String, String> c, Map<TopicPartition, Long> end) {
+    for (Map.Entry<TopicPartition, Long> e : end.entrySet()) {
+      if (c.position(e.getKey()) < e.getValue()) return false;
+    }
+    return true;
+  }
+
+  private static Map<Integer, Long> positions(Consumer<String, String> c, List<TopicPartition> partitions) {
+    Map<Integer, Long> positions = new HashMap<>();
+    for (TopicPartition tp : partitions) positions.put(tp.partition(), c.position(tp));
+    return positions;
+  }
+
+  // ---- snapshot ------------------------------------------------------------
+
+  /**
+   * Grava mapa e offsets por partição. Chamado pela thread do consumidor, então os offsets
+   * correspondem ao que já foi aplicado; entradas vindas do fallback também entram.
+   */
+  void snapshot(Map<Integer, Long> offsets) {
+    try {
+      Path tmp = SnapshotFiles.createTemp(snapshotPath);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(offsets.size());
+        for (Map.Entry<Integer, Long> e : offsets.entrySet()) {
+          out.writeInt(e.getKey());
+          out.writeLong(e.getValue());
+        }
+        // o mapa pode crescer durante a escrita (fallback): cada entrada vem marcada, sem contagem prévia
+        for (Map.Entry<String, String> e : projectByTask.entrySet()) {
+          out.writeBoolean(true);
+          out.writeUTF(e.getKey());
+          out.writeUTF(e.getValue());
+        }
+        out.writeBoolean(false);
+      }
+      Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      log.debug("task_index_snapshot size={} path={}", projectByTask.size(), snapshotPath);
+    } catch (IOException e) {
+      log.warn("task_index_snapshot_failed path={} error={}", snapshotPath, e.toString());
+    }
+  }
+
+  /** @return offsets por partição do snapshot; vazio (lê do início) se não há snapshot válido */
+  Map<Integer, Long> restore() {
+    long start = System.nanoTime();
+    try {
+      String untrusted = SnapshotFiles.untrusted(snapshotPath);
+      if (untrusted != null) {
+        log.warn("task_index_snapshot_ignored path={} reason={}", snapshotPath, untrusted);
+        return Map.of();
+      }
+    } catch (NoSuchFileException e) {
+      return Map.of();
+    } catch (IOException e) {
+      log.warn("task_index_snapshot_ignored path={} error={}", snapshotPath, e.toString());
+      return Map.of();
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), 1 << 16))) {
+      if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+        log.warn("task_index_snapshot_ignored path={} reason=format", snapshotPath);
+        return Map.of();
+      }
+      Map<Integer, Long> offsets = new HashMap<>();
+      int partitions = in.readInt();
+      for (int i = 0; i < partitions; i++) offsets.put(in.readInt(), in.readLong());
+      while (in.readBoolean()) put(in.readUTF(), in.readUTF());
+      log.info("task_index_restored size={} took_ms={}", projectByTask.size(), (System.nanoTime() - start) / 1_000_000);
+      return offsets;
+    } catch (NoSuchFileException e) {
+      return Map.of();
+    } catch (IOException e) {
+      // snapshot truncado/corrompido: recomeça do zero a partir do tópico
+      projectByTask.clear();
+      log.warn("task_index_snapshot_ignored path={} error={}", snapshotPath, e.toString());
+      return Map.of();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.viniss.todo.gateway.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.viniss.todo.gateway.security.CachingJwtDecoder;
+import com.viniss.todo.gateway.security.JwksSnapshotSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * JwtDecoder do resource server: verificação Nimbus (RS256, validação padrão de exp/nbf) sobre o
+ * {@link JwksSnapshotSource}, com o {@link CachingJwtDecoder} na frente.
+ *
+ * Com {@code app.security.jwt-cache.enabled=false} volta o decoder padrão da SecurityConfig
+ * (JWKS buscado do issuer, sem cache).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.security.jwt-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class JwtDecoderConfig {
+
+  @Bean
+  public JwksSnapshotSource jwksSnapshotSource(
+      @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri:}") String issuerUri,
+      @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:}") String jwkSetUri,
+      @Value("${app.security.jwks.snapshot:${user.home}/.todo-gateway/jwks.json}") Path snapshot,
+      @Value("${app.security.jwks.refresh-interval:5m}") Duration refreshInterval,
+      @Value("${app.security.jwks.min-refresh-interval:30s}") Duration minRefreshInterval,
+      @Value("${app.security.jwks.timeout:2s}") Duration timeout,
+      MeterRegistry registry) throws MalformedURLException {
+    // mesmo endpoint que a SecurityConfig usava (Keycloak), salvo jwk-set-uri explícito
+    String uri = jwkSetUri.isBlank() ? issuerUri + "/protocol/openid_connect/certs" : jwkSetUri;
+    return new JwksSnapshotSource(URI.create(uri).toURL(), snapshot, refreshInterval, minRefreshInterval, timeout, registry);
+  }
+
+  @Bean
+  public JwtDecoder jwtDecoder(JwksSnapshotSource keys,
+                               @Value("${app.security.jwt-cache.max-size:10000}") long maxSize,
+                               @Value("${app.security.jwt-cache.max-ttl:10m}") Duration maxTtl,
+                               MeterRegistry registry) {
+    DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+    processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, keys));
+    // claims validados pelo NimbusJwtDecoder (JwtValidators padrão), como no withJwkSetUri
+    processor.setJWTClaimsSetVerifier((claims, context) -> { });
+    return new CachingJwtDecoder(new NimbusJwtDecoder(processor), registry, maxSize, maxTtl);
+  }
+}
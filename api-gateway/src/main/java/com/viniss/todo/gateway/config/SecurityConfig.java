@@ -1,11 +1,14 @@
 package com.viniss.todo.gateway.config;
 
+import com.viniss.todo.gateway.authz.ProjectGrantsJwtConverter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -34,7 +37,7 @@ public class SecurityConfig {
     private String jwtIssuerUri;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, ObjectProvider<JwtDecoder> jwtDecoder) throws Exception {
         return http
             // Desabilitar CSRF para APIs stateless
             .csrf(csrf -> csrf.disable())
@@ -89,6 +92,9 @@ public class SecurityConfig {
                 .requestMatchers("/actuator/health", "/actuator/info").permitAll()
                 .requestMatchers("/ws/**").permitAll() // WebSocket público por enquanto
                 .requestMatchers("/api/v1/auth/**").permitAll() // Endpoints de auth se existirem
+
+                // Operação (redrive do DLT etc.): só com o scope admin
+                .requestMatchers("/admin/**").hasAuthority("SCOPE_admin")
                 
                 // Todos os outros endpoints requerem autenticação
                 .anyRequest().authenticated()
@@ -96,10 +102,15 @@ public class SecurityConfig {
             
             // Configurar JWT Resource Server
             .oauth2ResourceServer(oauth2 -> oauth2
-                .jwt(jwt -> jwt
-                    .jwkSetUri(jwtIssuerUri + "/protocol/openid_connect/certs") // Para Keycloak
+                .jwt(jwt -> {
+                    // JwtDecoderConfig: cache de tokens verificados + snapshot do JWKS
+                    JwtDecoder decoder = jwtDecoder.getIfAvailable();
+                    if (decoder != null) jwt.decoder(decoder);
+                    else jwt.jwkSetUri(jwtIssuerUri + "/protocol/openid_connect/certs"); // Para Keycloak
                     // Para outros provedores, usar: .issuerUri(jwtIssuerUri)
-                )
+                    // grants de projeto calculados uma vez por token (ProjectGrants)
+                    jwt.jwtAuthenticationConverter(new ProjectGrantsJwtConverter());
+                })
             )
             
             .build();
@@ -122,6 +133,8 @@ public class SecurityConfig {
             "Authorization",
             "Content-Type",
             "X-Correlation-ID",
+            "If-Match",
+            "If-None-Match",
             "Accept",
             "Origin",
             "Access-Control-Request-Method",
@@ -131,7 +144,8 @@ public class SecurityConfig {
         // Headers expostos para o cliente
         configuration.setExposedHeaders(List.of(
             "X-Correlation-ID",
-            "X-Total-Count"
+            "X-Total-Count",
+            "ETag"
         ));
         
         // Permitir credenciais
@@ -5,12 +5,14 @@ import com.viniss.todo.common.http.ApiError;
 import feign.FeignException;
 import feign.RetryableException;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Map;
 
 @RestControllerAdvice
@@ -26,6 +28,14 @@ public class FeignExceptionHandler {
   public ResponseEntity<?> handleFeign(FeignException ex) {
     int status = ex.status();
 
+    // 304 do If-None-Match não é erro: repassa vazio, só com o ETag
+    if (status == HttpStatus.NOT_MODIFIED.value()) {
+      ResponseEntity.HeadersBuilder<?> notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED);
+      String etag = header(ex, HttpHeaders.ETAG);
+      if (etag != null) notModified.eTag(etag);
+      return notModified.build();
+    }
+
     // RetryableException ou qualquer status inválido → 503
     if (ex instanceof RetryableException || status < 100 || status > 999) {
       status = HttpStatus.SERVICE_UNAVAILABLE.value();
@@ -65,4 +75,15 @@ public class FeignExceptionHandler {
     );
     return ResponseEntity.status(status).body(fallback);
   }
+
+  private static String header(FeignException ex, String name) {
+    Map<String, Collection<String>> headers = ex.responseHeaders();
+    if (headers == null) return null;
+    for (Map.Entry<String, Collection<String>> e : headers.entrySet()) {
+      if (name.equalsIgnoreCase(e.getKey()) && !e.getValue().isEmpty()) {
+        return e.getValue().iterator().next();
+      }
+    }
+    return null;
+  }
 }
@@ -0,0 +1,31 @@
+package com.viniss.todo.gateway.http;
+
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Transporte dos clientes Feign: {@link PooledFeignClient} (HttpClient do JDK, h2c, limite de
+ * streams e métricas). Com {@code app.feign.transport=default} volta o HttpURLConnection do Feign.
+ *
+ * O tamanho do pool HTTP/1.1 e o keep-alive são do HttpClient do JDK, via propriedades de sistema
+ * ({@code -Djdk.httpclient.connectionPoolSize}, {@code -Djdk.httpclient.keepalive.timeout}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.feign.transport", havingValue = "pooled", matchIfMissing = true)
+public class FeignTransportConfig {
+
+  @Bean(destroyMethod = "close")
+  public Client feignClient(MeterRegistry registry,
+                            @Value("${app.feign.version:HTTP_2}") HttpClient.Version version,
+                            @Value("${app.feign.max-streams:200}") int maxStreams,
+                            @Value("${app.feign.acquire-timeout:100ms}") Duration acquireTimeout) {
+    return new PooledFeignClient(registry, version, maxStreams, acquireTimeout);
+  }
+}
@@ -0,0 +1,194 @@
+package com.viniss.todo.gateway.http;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Target;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transporte dos clientes Feign (TaskClient, ActivityClient) sobre {@link HttpClient} do JDK, um
+ * por cliente ({@code @FeignClient(name)}), reaproveitando conexões entre chamadas.
+ *
+ * <ul>
+ *   <li>HTTP/2: com {@code version=HTTP_2} a primeira request sem corpo negocia h2c (Upgrade) e
+ *       as seguintes são streams multiplexados na mesma conexão; serviço sem h2c segue em
+ *       HTTP/1.1 com keep-alive.</li>
+ *   <li>Streams simultâneos por cliente limitados a {@code max-streams}. Com o limite cheio,
+ *       espera no máximo {@code acquire-timeout} e falha com IOException (RetryableException no
+ *       Feign, contada pelo retry/circuit breaker).</li>
+ *   <li>send() bloqueia num CompletableFuture, não em monitor: a virtual thread da request
+ *       desmonta enquanto espera.</li>
+ *   <li>Connect timeout vem do Request.Options da primeira chamada do cliente (config do
+ *       openfeign); read timeout vale por request.</li>
+ * </ul>
+ *
+ * Métricas (tag client): feign.client.requests (method, status, protocol),
+ * feign.client.streams.acquire, feign.client.streams.active, feign.client.streams.max e
+ * feign.client.streams.rejected.
+ */
+public class PooledFeignClient implements Client, AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(PooledFeignClient.class);
+
+  // gerenciados pelo HttpClient; setar aqui dá IllegalArgumentException
+  private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+  private final MeterRegistry registry;
+  private final HttpClient.Version version;
+  private final int maxStreams;
+  private final Duration acquireTimeout;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+  public PooledFeignClient(MeterRegistry registry, HttpClient.Version version, int maxStreams, Duration acquireTimeout) {
+    this.registry = registry;
+    this.version = version;
+    this.maxStreams = maxStreams;
+    this.acquireTimeout = acquireTimeout;
+  }
+
+  @Override
+  public Response execute(Request request, Request.Options options) throws IOException {
+    Pool pool = pools.computeIfAbsent(clientName(request), name -> new Pool(name, options));
+
+    long waitStart = System.nanoTime();
+    if (!acquire(pool)) {
+      pool.rejected.increment();
+      throw new IOException("Cliente " + pool.name + ": " + maxStreams + " streams em uso, request não enviada");
+    }
+    pool.acquire.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+
+    long start = System.nanoTime();
+    String status = "IO_ERROR";
+    String protocol = "NONE";
+    try {
+      HttpResponse<byte[]> response = pool.http.send(toHttpRequest(request, options), HttpResponse.BodyHandlers.ofByteArray());
+      status = Integer.toString(response.statusCode());
+      protocol = response.version().name();
+      return toResponse(request, response);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Request interrompida: " + request.httpMethod() + " " + request.url());
+    } finally {
+      pool.streams.release();
+      Timer.builder("feign.client.requests")
+          .description("Latência das chamadas Feign no transporte pooled")
+          .tags("client", pool.name, "method", request.httpMethod().name(), "status", status, "protocol", protocol)
+          .publishPercentileHistogram()
+          .register(registry)
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private boolean acquire(Pool pool) throws InterruptedIOException {
+    try {
+      return pool.streams.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrompido esperando stream do cliente " + pool.name);
+    }
+  }
+
+  private static String clientName(Request request) {
+    Target<?> target = request.requestTemplate() == null ? null : request.requestTemplate().feignTarget();
+    return target == null || target.name() == null ? "default" : target.name();
+  }
+
+  static HttpRequest toHttpRequest(Request request, Request.Options options) {
+    byte[] body = request.body();
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.url()))
+        .timeout(Duration.ofMillis(options.readTimeoutMillis()))
+        .method(request.httpMethod().name(), body == null || body.length == 0
+            ? HttpRequest.BodyPublishers.noBody()
+            : HttpRequest.BodyPublishers.ofByteArray(body));
+    for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+      if (RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) continue;
+      for (String value : header.getValue()) {
+        builder.header(header.getKey(), value);
+      }
+    }
+    return builder.build();
+  }
+
+  private static Response toResponse(Request request, HttpResponse<byte[]> response) {
+    // HTTP/2 não tem reason phrase; Feign só usa no texto das exceções
+    Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    response.headers().map().forEach((name, values) -> {
+      if (!name.startsWith(":")) headers.put(name, List.copyOf(values));
+    });
+    return Response.builder()
+        .request(request)
+        .status(response.statusCode())
+        .reason("")
+        .headers(headers)
+        .body(response.body())
+        .build();
+  }
+
+  @Override
+  public void close() {
+    pools.values().forEach(pool -> pool.http.close());
+    executor.close();
+  }
+
+  /** HttpClient (conexões) + janela de streams de um cliente Feign. */
+  private final class Pool {
+    final String name;
+    final HttpClient http;
+    final Semaphore streams = new Semaphore(maxStreams);
+    final Timer acquire;
+    final Counter rejected;
+
+    Pool(String name, Request.Options options) {
+      this.name = name;
+      this.http = HttpClient.newBuilder()
+          .version(version)
+          .connectTimeout(Duration.ofMillis(options.connectTimeoutMillis()))
+          .followRedirects(options.isFollowRedirects() ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER)
+          .executor(executor)
+          .build();
+      this.acquire = Timer.builder("feign.client.streams.acquire")
+          .description("Espera por um stream livre antes de enviar a request")
+          .tag("client", name)
+          .register(registry);
+      this.rejected = Counter.builder("feign.client.streams.rejected")
+          .description("Requests recusadas com o limite de streams cheio")
+          .tag("client", name)
+          .register(registry);
+      Gauge.builder("feign.client.streams.active", streams, s -> maxStreams - s.availablePermits())
+          .description("Requests em andamento no cliente")
+          .tag("client", name)
+          .register(registry);
+      Gauge.builder("feign.client.streams.max", () -> maxStreams)
+          .description("Limite de requests simultâneas do cliente")
+          .tag("client", name)
+          .register(registry);
+      log.info("feign_transport_ready client={} version={} maxStreams={} connectTimeoutMs={}",
+          name, version, maxStreams, options.connectTimeoutMillis());
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.viniss.todo.gateway.http;
+
+import com.viniss.todo.common.dto.ProjectTaskStats;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(path = "/projects", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ProjectController {
+  private final TaskClient client;
+
+  public ProjectController(TaskClient client) { this.client = client; }
+
+  @GetMapping(path = "/{projectId}/stats")
+  public ProjectTaskStats stats(@PathVariable("projectId") String projectId) {
+    return client.stats(projectId);
+  }
+}
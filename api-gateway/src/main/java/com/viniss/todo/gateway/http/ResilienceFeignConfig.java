@@ -1,6 +1,9 @@
 package com.viniss.todo.gateway.http;
 
 import feign.Feign;
+import feign.FeignException;
+import feign.Response;
+import feign.codec.ErrorDecoder;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.feign.FeignDecorators;
 import io.github.resilience4j.feign.Resilience4jFeign;
@@ -38,4 +41,22 @@ public class ResilienceFeignConfig {
 
     return Resilience4jFeign.builder(decorators);
   }
+
+  /**
+   * 304 (If-None-Match) vira {@link NotModified}, um FeignClientException: assim entra no
+   * ignoreExceptions do circuit breaker junto com os 4xx (412 etc.) em vez de contar como falha.
+   */
+  @Bean
+  public ErrorDecoder feignErrorDecoder() {
+    ErrorDecoder fallback = new ErrorDecoder.Default();
+    return (methodKey, response) -> response.status() == 304
+        ? new NotModified(response)
+        : fallback.decode(methodKey, response);
+  }
+
+  static class NotModified extends FeignException.FeignClientException {
+    NotModified(Response response) {
+      super(304, "Not Modified", response.request(), null, response.headers());
+    }
+  }
 }
@@ -0,0 +1,34 @@
+package com.viniss.todo.gateway.http;
+
+import com.viniss.todo.common.dto.TaskBatchCreateRequest;
+import com.viniss.todo.common.dto.TaskBatchPatchRequest;
+import com.viniss.todo.common.dto.TaskBatchResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+// Proxy de /tasks:batch: um único hop Feign para o lote inteiro, status repassado como veio.
+// Autorização por item no task-service (403 no item), com os grants da identidade interna que o Feign leva
+@RestController
+public class TaskBatchController {
+  private final TaskClient client;
+
+  public TaskBatchController(TaskClient client) { this.client = client; }
+
+  @PostMapping(path = "/tasks:batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<TaskBatchResponse> create(@RequestBody TaskBatchCreateRequest req) {
+    return relay(client.createBatch(req));
+  }
+
+  @PatchMapping(path = "/tasks:batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<TaskBatchResponse> patch(@RequestBody TaskBatchPatchRequest req) {
+    return relay(client.patchBatch(req));
+  }
+
+  private static ResponseEntity<TaskBatchResponse> relay(ResponseEntity<TaskBatchResponse> upstream) {
+    return ResponseEntity.status(upstream.getStatusCode()).body(upstream.getBody());
+  }
+}
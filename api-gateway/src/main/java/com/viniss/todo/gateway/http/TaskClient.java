@@ -1,24 +1,68 @@
 package com.viniss.todo.gateway.http;
 
 import com.viniss.todo.common.dto.CreateTaskRequest;
+import com.viniss.todo.common.dto.ProjectTaskStats;
+import com.viniss.todo.common.dto.TaskBatchCreateRequest;
+import com.viniss.todo.common.dto.TaskBatchPatchRequest;
+import com.viniss.todo.common.dto.TaskBatchResponse;
+import com.viniss.todo.common.dto.TaskPage;
 import com.viniss.todo.common.dto.TaskResponse;
+import com.viniss.todo.common.dto.TaskSuggestion;
 import com.viniss.todo.common.dto.UpdateTaskRequest;
 import com.viniss.todo.common.feign.FeignHeadersConfig;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 @FeignClient(name = "task", url = "${clients.task.url}", configuration = {FeignHeadersConfig.class, ResilienceFeignConfig.class})
 public interface TaskClient {
+    @GetMapping(path = "/tasks")
+    TaskPage list(@RequestParam("projectId") String projectId,
+                  @RequestParam(name = "status", required = false) String status,
+                  @RequestParam(name = "label", required = false) String label,
+                  @RequestParam(name = "after", required = false) String after,
+                  @RequestParam(name = "limit", required = false) Integer limit);
+
+    @GetMapping(path = "/tasks/suggest")
+    List<TaskSuggestion> suggest(@RequestParam("projectId") String projectId,
+                                 @RequestParam(name = "q", required = false) String q,
+                                 @RequestParam(name = "limit", required = false) Integer limit);
+
     @PostMapping(path = "/tasks")
     TaskResponse create(@RequestBody CreateTaskRequest req);
 
+    // ETag / If-Match / If-None-Match repassados sem alteração; 304 chega como FeignException (ver FeignExceptionHandler)
+    @GetMapping(path = "/tasks/{id}")
+    ResponseEntity<TaskResponse> get(@PathVariable("id") String id,
+                                     @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+
     @PutMapping(path = "/tasks/{id}")
-    TaskResponse update(@PathVariable("id") String id, @RequestBody UpdateTaskRequest req);
+    ResponseEntity<TaskResponse> update(@PathVariable("id") String id,
+                                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestBody UpdateTaskRequest req);
 
     @PatchMapping(path = "/tasks/{id}")
-    TaskResponse patch(@PathVariable("id") String id, @RequestBody UpdateTaskRequest req);
+    ResponseEntity<TaskResponse> patch(@PathVariable("id") String id,
+                                       @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                       @RequestBody UpdateTaskRequest req);
+
+    // ResponseEntity para repassar 201/200 vs 207 (falha parcial)
+    @PostMapping(path = "/tasks:batch")
+    ResponseEntity<TaskBatchResponse> createBatch(@RequestBody TaskBatchCreateRequest req);
+
+    @PatchMapping(path = "/tasks:batch")
+    ResponseEntity<TaskBatchResponse> patchBatch(@RequestBody TaskBatchPatchRequest req);
+
+    @GetMapping(path = "/projects/{projectId}/stats")
+    ProjectTaskStats stats(@PathVariable("projectId") String projectId);
 }
@@ -1,12 +1,20 @@
 package com.viniss.todo.gateway.http;
 
 import com.viniss.todo.common.dto.CreateTaskRequest;
+import com.viniss.todo.common.dto.TaskPage;
 import com.viniss.todo.common.dto.TaskResponse;
+import com.viniss.todo.common.dto.TaskSuggestion;
 
 import com.viniss.todo.common.dto.UpdateTaskRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.parameters.P;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping(path = "/tasks", produces = MediaType.APPLICATION_JSON_VALUE)
 public class TaskController {
@@ -14,12 +22,56 @@ public class TaskController {
 
   public TaskController(TaskClient client) { this.client = client; }
 
+  @GetMapping
+  public TaskPage list(@RequestParam("projectId") String projectId,
+                       @RequestParam(name = "status", required = false) String status,
+                       @RequestParam(name = "label", required = false) String label,
+                       @RequestParam(name = "after", required = false) String after,
+                       @RequestParam(name = "limit", required = false) Integer limit) {
+    return client.list(projectId, status, label, after, limit);
+  }
+
+  @GetMapping(path = "/suggest")
+  public List<TaskSuggestion> suggest(@RequestParam("projectId") String projectId,
+                                      @RequestParam(name = "q", required = false) String q,
+                                      @RequestParam(name = "limit", required = false) Integer limit) {
+    return client.suggest(projectId, q, limit);
+  }
+
+  @PreAuthorize("@authz.canWriteProject(authentication, #req.projectId())")
   @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
-  public TaskResponse create(@RequestBody CreateTaskRequest req) { return client.create(req); }
+  public TaskResponse create(@RequestBody @P("req") CreateTaskRequest req) { return client.create(req); }
 
+  @PreAuthorize("@authz.canAccessTask(authentication, #id)")
+  @GetMapping(path = "/{id}")
+  public ResponseEntity<TaskResponse> get(@PathVariable("id") @P("id") String id,
+                                          @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return relay(client.get(id, ifNoneMatch));
+  }
+
+  @PreAuthorize("@authz.canWriteTask(authentication, #id)")
   @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-  public TaskResponse update(@PathVariable("id") String id, @RequestBody UpdateTaskRequest req) { return client.update(id, req); }
+  public ResponseEntity<TaskResponse> update(@PathVariable("id") @P("id") String id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody UpdateTaskRequest req) {
+    return relay(client.update(id, ifMatch, req));
+  }
 
+  @PreAuthorize("@authz.canWriteTask(authentication, #id)")
   @PatchMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-  public TaskResponse patch(@PathVariable("id") String id, @RequestBody UpdateTaskRequest req) { return client.patch(id, req); }
+  public ResponseEntity<TaskResponse> patch(@PathVariable("id") @P("id") String id,
+                                            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                            @RequestBody UpdateTaskRequest req) {
+    return relay(client.patch(id, ifMatch, req));
+  }
+
+  // só status, ETag e corpo: os demais headers do upstream (Content-Length, Transfer-Encoding...) não valem aqui
+  private static ResponseEntity<TaskResponse> relay(ResponseEntity<TaskResponse> upstream) {
+    return ResponseEntity.status(upstream.getStatusCode())
+        .headers(h -> {
+          String etag = upstream.getHeaders().getETag();
+          if (etag != null) h.setETag(etag);
+        })
+        .body(upstream.getBody());
+  }
 }
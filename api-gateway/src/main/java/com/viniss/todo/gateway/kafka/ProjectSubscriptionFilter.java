@@ -0,0 +1,33 @@
+package com.viniss.todo.gateway.kafka;
+
+import com.viniss.todo.common.kafka.TaskEventHeaderFilter;
+import com.viniss.todo.common.kafka.TaskEventHeaders;
+import com.viniss.todo.gateway.ws.WsSessions;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.stereotype.Component;
+
+/**
+ * Descarta pelo header, sem decodificar o payload, eventos de projetos sem websocket conectado
+ * nesta réplica e os tipos que o {@link TaskEventConsumer} não repassa (TaskStatusChanged). Sem
+ * headers (produtores antigos), o registro segue para o consumer.
+ *
+ * Quem se inscreve num projeto recebe os eventos publicados a partir daí: o que foi descartado
+ * antes não volta — o mesmo que acontece hoje sem sessão no broadcast.
+ */
+@Component
+public class ProjectSubscriptionFilter implements TaskEventHeaderFilter {
+  private final WsSessions sessions;
+
+  public ProjectSubscriptionFilter(WsSessions sessions) {
+    this.sessions = sessions;
+  }
+
+  @Override
+  public boolean accept(String topic, Headers headers) {
+    String type = TaskEventHeaders.type(headers);
+    if (type == null) return true;
+    if (type.equals("TaskStatusChanged")) return false;
+    String projectId = TaskEventHeaders.projectId(headers);
+    return projectId == null || sessions.hasSubscribers(projectId);
+  }
+}
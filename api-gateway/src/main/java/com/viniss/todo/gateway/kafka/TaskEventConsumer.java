@@ -4,50 +4,106 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.viniss.todo.common.events.TaskCreated;
 import com.viniss.todo.common.events.TaskUpdated;
+import com.viniss.todo.common.kafka.KeyOrderedProcessor;
+import com.viniss.todo.common.kafka.TaskEventConsumerMetrics;
+import com.viniss.todo.common.kafka.TaskEventHeaders;
+import com.viniss.todo.common.kafka.TaskEventRetryBackOff;
 import com.viniss.todo.gateway.ws.WsSessions;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Repassa os eventos de task para os websockets do projeto. Lote do poll dividido em lanes por
+ * projectId ({@link KeyOrderedProcessor}): cada projeto recebe os eventos na ordem, e um
+ * broadcast lento não atrasa os demais projetos da partição. Falhas seguem para os tiers de
+ * retry e o task.events.DLT (TaskEventRetryConfig) em vez de travar a partição.
+ *
+ * Eventos de projetos sem websocket nesta réplica nem chegam a ser decodificados
+ * ({@link ProjectSubscriptionFilter}): o valor vem {@code null} e o registro é ignorado.
+ */
 @Component
 public class TaskEventConsumer {
+  static final String RETRY_LISTENER = "gateway-retry";
+
   private final WsSessions sessions;
   private final ObjectMapper mapper;
+  private final KeyOrderedProcessor processor;
+  private final TaskEventConsumerMetrics metrics;
+  private final TaskEventRetryBackOff retryBackOff;
 
-  public TaskEventConsumer(WsSessions sessions, ObjectMapper mapper) {
+  public TaskEventConsumer(WsSessions sessions, ObjectMapper mapper, KeyOrderedProcessor processor,
+                           TaskEventConsumerMetrics metrics, TaskEventRetryBackOff retryBackOff) {
     this.sessions = sessions;
     this.mapper = mapper;
+    this.processor = processor;
+    this.metrics = metrics;
+    this.retryBackOff = retryBackOff;
+  }
+
+  @KafkaListener(topics = "task.events", groupId = "gateway", batch = "true")
+  public void consume(List<ConsumerRecord<String, Object>> records) {
+    metrics.observe("gateway", records, () -> process(records));
+  }
+
+  /**
+   * Tiers de retry (TaskEventRetryConfig): um registro por vez, depois do atraso do tier (a
+   * partição fica pausada até lá, {@link TaskEventRetryBackOff}).
+   */
+  @KafkaListener(id = RETRY_LISTENER, topicPattern = "task\\.events\\.${app.kafka.retry.app}\\.retry-\\d+",
+      groupId = "gateway-retry", properties = "max.poll.records=50")
+  public void onRetry(ConsumerRecord<String, Object> record, Consumer<?, ?> consumer) {
+    retryBackOff.awaitDue(record, RETRY_LISTENER, consumer);
+    List<ConsumerRecord<String, Object>> records = List.of(record);
+    metrics.observe("gateway-retry", records, () -> process(records));
+  }
+
+  private void process(List<ConsumerRecord<String, Object>> records) {
+    processor.forEachRecord("gateway", records, TaskEventConsumer::laneKey, this::broadcast);
+  }
+
+  private static String laneKey(ConsumerRecord<String, Object> record) {
+    String projectId = TaskEventHeaders.projectId(record.headers());
+    return projectId != null ? projectId : projectId(record.value());
   }
 
-  @KafkaListener(topics = "task.events", groupId = "gateway")
-  public void consume(ConsumerRecord<String, Object> record) throws JsonProcessingException {
+  private void broadcast(ConsumerRecord<String, Object> record) {
     Object value = record.value();
-    String projectId = null;
-    String type = null;
-    if (value instanceof TaskCreated) {
-      TaskCreated tc = (TaskCreated) value;
-      projectId = tc.projectId();
-      type = "task.created";
-    } else if (value instanceof TaskUpdated) {
-      TaskUpdated tu = (TaskUpdated) value;
-      projectId = tu.projectId();
-      type = "task.updated";
-    } else if (value instanceof Map) {
-      Map<?,?> map = (Map<?,?>) value;
+    String projectId = projectId(value);
+    if (projectId == null) return;
+
+    Map<String, Object> msg = new HashMap<>();
+    msg.put("type", type(value));
+    msg.put("event", value);
+    try {
+      sessions.broadcast(projectId, mapper.writeValueAsString(msg));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Falha ao serializar evento do projeto " + projectId, e);
+    }
+  }
+
+  private static String projectId(Object value) {
+    if (value instanceof TaskCreated tc) return tc.projectId();
+    if (value instanceof TaskUpdated tu) return tu.projectId();
+    if (value instanceof Map<?, ?> map) {
       Object pid = map.get("projectId");
-      projectId = pid != null ? pid.toString() : null;
-      Object maybeType = map.get("@type");
-      type = maybeType != null ? maybeType.toString() : "task.event";
+      return pid != null ? pid.toString() : null;
     }
-    if (projectId != null) {
-      Map<String, Object> msg = new HashMap<>();
-      msg.put("type", type);
-      msg.put("event", value);
-      String json = mapper.writeValueAsString(msg);
-      sessions.broadcast(projectId, json);
+    return null;
+  }
+
+  private static String type(Object value) {
+    if (value instanceof TaskCreated) return "task.created";
+    if (value instanceof TaskUpdated) return "task.updated";
+    if (value instanceof Map<?, ?> map) {
+      Object maybeType = map.get("@type");
+      return maybeType != null ? maybeType.toString() : "task.event";
     }
+    return null;
   }
 }
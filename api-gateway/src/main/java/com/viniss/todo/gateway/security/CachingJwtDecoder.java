@@ -0,0 +1,119 @@
+package com.viniss.todo.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtDecoder} com cache de tokens já verificados: o mesmo bearer (SPA repetindo o token a
+ * cada request) só paga assinatura e conversão de claims uma vez.
+ *
+ * <ul>
+ *   <li>Chave: SHA-256 do token, o texto do bearer não vira chave.</li>
+ *   <li>Cada entrada vale até o {@code exp} do token, limitado a {@code maxTtl}; token sem exp
+ *       fica {@code maxTtl}. Tokens recusados não entram.</li>
+ *   <li>Limitado por tamanho ({@code app.security.jwt-cache.max-size}).</li>
+ * </ul>
+ *
+ * Métricas: cache.gets (hit/miss), cache.evictions e cache.size com tag cache=jwt;
+ * security.jwt.verify (result = valid | invalid) mede só as verificações de fato.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+  private final JwtDecoder delegate;
+  private final Cache<String, Jwt> cache;
+  private final Clock clock;
+  private final Duration maxTtl;
+  private final Timer valid;
+  private final Timer invalid;
+
+  public CachingJwtDecoder(JwtDecoder delegate, MeterRegistry registry, long maxSize, Duration maxTtl) {
+    this(delegate, registry, maxSize, maxTtl, Clock.systemUTC());
+  }
+
+  CachingJwtDecoder(JwtDecoder delegate, MeterRegistry registry, long maxSize, Duration maxTtl, Clock clock) {
+    this.delegate = delegate;
+    this.clock = clock;
+    this.maxTtl = maxTtl;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new Expiry<String, Jwt>() {
+          @Override
+          public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            return ttl(jwt).toNanos();
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return ttl(jwt).toNanos();
+          }
+
+          @Override
+          public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "jwt");
+    this.valid = verifyTimer(registry, "valid");
+    this.invalid = verifyTimer(registry, "invalid");
+  }
+
+  private static Timer verifyTimer(MeterRegistry registry, String result) {
+    return Timer.builder("security.jwt.verify")
+        .description("Verificação de JWT (assinatura + claims) fora do cache")
+        .tag("result", result)
+        .register(registry);
+  }
+
+  @Override
+  public Jwt decode(String token) throws JwtException {
+    String key = hash(token);
+    Jwt cached = cache.getIfPresent(key);
+    if (cached != null) return cached;
+
+    long start = System.nanoTime();
+    Jwt jwt;
+    try {
+      jwt = delegate.decode(token);
+    } catch (JwtException e) {
+      invalid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      throw e;
+    }
+    valid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    if (ttl(jwt).isPositive()) cache.put(key, jwt);
+    return jwt;
+  }
+
+  Duration ttl(Jwt jwt) {
+    Instant exp = jwt.getExpiresAt();
+    if (exp == null) return maxTtl;
+    Duration left = Duration.between(clock.instant(), exp);
+    if (left.isNegative()) return Duration.ZERO;
+    return left.compareTo(maxTtl) > 0 ? maxTtl : left;
+  }
+
+  static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 indisponível", e);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package com.viniss.todo.gateway.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Fonte de chaves (JWKS) do issuer com snapshot em disco, para o gateway subir e validar tokens
+ * sem depender do Keycloak estar respondendo.
+ *
+ * <ul>
+ *   <li>Startup: carrega o snapshot ({@code app.security.jwks.snapshot}); a busca no issuer vai
+ *       para a thread de refresh e não segura o boot. Snapshot que não é do usuário do processo ou
+ *       que grupo/outros podem escrever é ignorado: quem o trocasse escolheria as chaves aceitas.</li>
+ *   <li>Refresh em background a cada {@code app.security.jwks.refresh-interval}; cada busca bem
+ *       sucedida regrava o snapshot (arquivo temporário + rename atômico, diretório 700 e arquivo
+ *       600). Falha mantém as chaves atuais.</li>
+ *   <li>Rotação: token com {@code kid} desconhecido força uma busca na hora, no máximo uma a cada
+ *       {@code app.security.jwks.min-refresh-interval}. Sem snapshot, a primeira verificação
+ *       também busca na hora.</li>
+ * </ul>
+ *
+ * Métricas: security.jwks.refresh (result = success | failure) e security.jwks.keys.
+ */
+public class JwksSnapshotSource implements JWKSource<SecurityContext>, SmartLifecycle {
+  private static final Logger log = LoggerFactory.getLogger(JwksSnapshotSource.class);
+  private static final int SIZE_LIMIT = 512 * 1024;
+
+  private final URL jwksUri;
+  private final Path snapshotPath;
+  private final Duration refreshInterval;
+  private final Duration minRefreshInterval;
+  private final Duration timeout;
+  private final Counter refreshed;
+  private final Counter failed;
+
+  private volatile JWKSet keys;
+  private volatile long lastFetch = Long.MIN_VALUE;
+  private volatile boolean running;
+  private Thread worker;
+
+  public JwksSnapshotSource(URL jwksUri, Path snapshotPath, Duration refreshInterval, Duration minRefreshInterval,
+                            Duration timeout, MeterRegistry registry) {
+    this.jwksUri = jwksUri;
+    this.snapshotPath = snapshotPath;
+    this.refreshInterval = refreshInterval;
+    this.minRefreshInterval = minRefreshInterval;
+    this.timeout = timeout;
+    this.refreshed = Counter.builder("security.jwks.refresh").tag("result", "success")
+        .description("Buscas do JWKS no issuer").register(registry);
+    this.failed = Counter.builder("security.jwks.refresh").tag("result", "failure")
+        .description("Buscas do JWKS no issuer").register(registry);
+    Gauge.builder("security.jwks.keys", this, s -> s.keys == null ? 0 : s.keys.size())
+        .description("Chaves de verificação em uso")
+        .register(registry);
+    this.keys = restore();
+  }
+
+  @Override
+  public List<JWK> get(JWKSelector selector, SecurityContext context) throws KeySourceException {
+    JWKSet current = keys;
+    if (current != null) {
+      List<JWK> matches = selector.select(current);
+      if (!matches.isEmpty()) return matches;
+    }
+    // sem chave que case: primeira carga sem snapshot ou kid novo (rotação no issuer)
+    current = refreshIfStale();
+    if (current == null) throw new KeySourceException("JWKS indisponível: " + jwksUri);
+    return selector.select(current);
+  }
+
+  private synchronized JWKSet refreshIfStale() {
+    if (lastFetch != Long.MIN_VALUE && System.nanoTime() - lastFetch < minRefreshInterval.toNanos()) return keys;
+    return refresh();
+  }
+
+  /** Busca o JWKS no issuer; em falha mantém (e devolve) as chaves atuais. */
+  synchronized JWKSet refresh() {
+    lastFetch = System.nanoTime();
+    try {
+      int millis = (int) timeout.toMillis();
+      JWKSet loaded = JWKSet.load(jwksUri, millis, millis, SIZE_LIMIT);
+      keys = loaded;
+      refreshed.increment();
+      snapshot(loaded);
+    } catch (IOException | ParseException e) {
+      failed.increment();
+      log.warn("jwks_refresh_failed uri={} keys={} error={}", jwksUri, keys == null ? 0 : keys.size(), e.toString());
+    }
+    return keys;
+  }
+
+  // ---- ciclo de vida -------------------------------------------------------
+
+  @Override
+  public void start() {
+    running = true;
+    worker = Thread.ofPlatform().daemon().name("jwks-refresh").start(() -> {
+      while (running) {
+        refresh();
+        try {
+          Thread.sleep(refreshInterval);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    });
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    Thread t = worker;
+    if (t != null) t.interrupt();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // ---- snapshot ------------------------------------------------------------
+
+  private void snapshot(JWKSet set) {
+    try {
+      Path tmp = SnapshotFiles.createTemp(snapshotPath);
+      // só as chaves públicas (toString(true))
+      Files.writeString(tmp, set.toString(true), StandardCharsets.UTF_8);
+      Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("jwks_snapshot_failed path={} error={}", snapshotPath, e.toString());
+    }
+  }
+
+  JWKSet restore() {
+    try {
+      String untrusted = SnapshotFiles.untrusted(snapshotPath);
+      if (untrusted != null) {
+        log.warn("jwks_snapshot_ignored path={} error={}", snapshotPath, untrusted);
+        return null;
+      }
+      JWKSet set = JWKSet.parse(Files.readString(snapshotPath, StandardCharsets.UTF_8));
+      log.info("jwks_restored keys={} path={}", set.size(), snapshotPath);
+      return set;
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | ParseException e) {
+      log.warn("jwks_snapshot_ignored path={} error={}", snapshotPath, e.toString());
+      return null;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.viniss.todo.gateway.security;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+/**
+ * Snapshots em disco que alimentam decisões de segurança (JWKS, índice taskId → projectId): quem
+ * troca o arquivo escolhe as chaves aceitas ou o projeto de uma task. Gravados só para o dono
+ * (diretório 700, arquivo 600) e lidos só se forem do usuário do processo e não graváveis por
+ * grupo/outros. Sem visão POSIX (Windows) não há checagem.
+ */
+public final class SnapshotFiles {
+  private static final Set<PosixFilePermission> OWNER_DIR = PosixFilePermissions.fromString("rwx------");
+  private static final Set<PosixFilePermission> OWNER_FILE = PosixFilePermissions.fromString("rw-------");
+
+  private SnapshotFiles() {}
+
+  /**
+   * Cria o arquivo temporário ao lado de {@code target} (e o diretório, se faltar), só para o dono.
+   * O chamador escreve nele e faz o rename atômico para {@code target}.
+   */
+  public static Path createTemp(Path target) throws IOException {
+    Path dir = target.toAbsolutePath().getParent();
+    Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+    Files.deleteIfExists(tmp);
+    if (posix(dir)) {
+      if (Files.notExists(dir)) Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(OWNER_DIR));
+      Files.createFile(tmp, PosixFilePermissions.asFileAttribute(OWNER_FILE));
+    } else {
+      Files.createDirectories(dir);
+    }
+    return tmp;
+  }
+
+  /** Motivo para não confiar no arquivo, ou null. {@link java.nio.file.NoSuchFileException} se não existe. */
+  public static String untrusted(Path file) throws IOException {
+    if (!posix(file)) return null;
+    PosixFileAttributes attrs = Files.readAttributes(file, PosixFileAttributes.class);
+    String user = System.getProperty("user.name");
+    if (!attrs.owner().getName().equals(user)) {
+      return "dono " + attrs.owner().getName() + " em vez de " + user;
+    }
+    Set<PosixFilePermission> perms = attrs.permissions();
+    if (perms.contains(PosixFilePermission.GROUP_WRITE) || perms.contains(PosixFilePermission.OTHERS_WRITE)) {
+      return "gravável por grupo/outros (" + PosixFilePermissions.toString(perms) + ")";
+    }
+    return null;
+  }
+
+  private static boolean posix(Path path) {
+    return path.getFileSystem().supportedFileAttributeViews().contains("posix");
+  }
+}
@@ -0,0 +1,7 @@
+/**
+ * JWT verification for the api-gateway resource server.
+ *
+ * Caches verified tokens and keeps an on-disk JWKS snapshot refreshed in the background.
+ * Authorization rules live in the authz package, not here.
+ */
+package com.viniss.todo.gateway.security;
@@ -1,6 +1,8 @@
 
 package com.viniss.todo.gateway.ws;
 
+import com.viniss.todo.common.security.ProjectGrants;
+import com.viniss.todo.gateway.authz.AuthzService;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.security.core.context.SecurityContext;
@@ -50,7 +52,8 @@ public class WebSocketHandshakeInterceptor implements HandshakeInterceptor {
         }
 
         // 4. Validar acesso ao projeto (verificar se o usuário tem permissão)
-        if (!hasAccessToProject(jwt, projectId)) {
+        ProjectGrants grants = AuthzService.grants(jwtAuth);
+        if (!grants.canRead(projectId)) {
             response.setStatusCode(org.springframework.http.HttpStatus.FORBIDDEN);
             return false;
         }
@@ -59,6 +62,7 @@ public class WebSocketHandshakeInterceptor implements HandshakeInterceptor {
         attributes.put("userId", jwt.getSubject());
         attributes.put("projectId", projectId);
         attributes.put("jwt", jwt);
+        attributes.put("grants", grants);
 
         return true;
     }
@@ -68,27 +72,4 @@ public class WebSocketHandshakeInterceptor implements HandshakeInterceptor {
                                WebSocketHandler wsHandler, Exception exception) {
         // Implementação opcional para logging ou limpeza
     }
-
-    /**
-     * Valida se o usuário tem acesso ao projeto específico
-     */
-    private boolean hasAccessToProject(Jwt jwt, String projectId) {
-        // Opção 1: Verificar claims do JWT (se o projectId estiver no token)
-        Object projectsClaim = jwt.getClaims().get("projects");
-        if (projectsClaim instanceof java.util.List<?> projects) {
-            return projects.contains(projectId);
-        }
-
-        // Opção 2: Verificar roles/scopes para acesso geral
-        Object scopesClaim = jwt.getClaims().get("scope");
-        if (scopesClaim instanceof String scopes) {
-            return scopes.contains("project:read") || scopes.contains("admin");
-        }
-
-        // Opção 3: Validação customizada (ex: consultar serviço de autorização)
-        // return authorizationService.hasProjectAccess(jwt.getSubject(), projectId);
-
-        // Por padrão, negar acesso se não houver validação específica
-        return false;
-    }
-}
\ No newline at end of file
+}
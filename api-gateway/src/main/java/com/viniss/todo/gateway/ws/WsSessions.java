@@ -22,6 +22,16 @@ public class WsSessions {
     byProject.values().forEach(set -> set.remove(session));
   }
 
+  /** Há alguma sessão aberta inscrita no projeto (ProjectSubscriptionFilter). */
+  public boolean hasSubscribers(String projectId) {
+    Set<WebSocketSession> sessions = byProject.get(projectId);
+    if (sessions == null) return false;
+    for (WebSocketSession s : sessions) {
+      if (s.isOpen()) return true;
+    }
+    return false;
+  }
+
   public void broadcast(String projectId, String json) {
     Set<WebSocketSession> sessions = byProject.get(projectId);
     if (sessions == null) return;
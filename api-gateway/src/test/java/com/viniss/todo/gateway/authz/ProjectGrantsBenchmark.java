@@ -0,0 +1,121 @@
+package com.viniss.todo.gateway.authz;
+
+import com.viniss.todo.common.security.ProjectGrants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Custo por checagem de acesso a projeto: leitura dos claims a cada chamada (como o
+ * AuthzService fazia) contra os {@link ProjectGrants} pré-calculados no token.
+ *
+ * Não roda no build (o nome não casa com os padrões do surefire). Executar com:
+ * <pre>
+ *   mvn -pl api-gateway test -Dtest=ProjectGrantsBenchmark -Dbench=true -Dbench.checks=5000000
+ * </pre>
+ * O token tem 50 projetos, 20 scopes e 50 project_roles; metade das checagens nega.
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class ProjectGrantsBenchmark {
+
+    @Test
+    void perClaimParsingVersusPrecomputed() {
+        int checks = Integer.getInteger("bench.checks", 2_000_000);
+        int rounds = Integer.getInteger("bench.rounds", 3);
+        Jwt jwt = token();
+        JwtAuthenticationToken raw = new JwtAuthenticationToken(jwt);
+        Authentication converted = new ProjectGrantsJwtConverter().convert(jwt);
+        String[] projectIds = new String[64];
+        for (int i = 0; i < projectIds.length; i++) projectIds[i] = (i % 2 == 0 ? "p-" : "x-") + i;
+
+        // aquecimento (JIT)
+        run(raw, projectIds, Math.min(checks, 200_000), true);
+        run(converted, projectIds, Math.min(checks, 200_000), false);
+
+        for (int r = 1; r <= rounds; r++) {
+            report("claims", r, checks, run(raw, projectIds, checks, true));
+            report("grants", r, checks, run(converted, projectIds, checks, false));
+        }
+    }
+
+    private static long run(Authentication authentication, String[] projectIds, int checks, boolean legacy) {
+        int allowed = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < checks; i++) {
+            String projectId = projectIds[i & (projectIds.length - 1)];
+            boolean ok = legacy
+                    ? legacyHasProjectAccess((JwtAuthenticationToken) authentication, projectId)
+                    : ProjectGrants.of(authentication).canRead(projectId);
+            if (ok) allowed++;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (allowed == -1) System.out.println(allowed); // mantém o resultado vivo
+        return elapsed;
+    }
+
+    private static void report(String mode, int round, int checks, long elapsedNanos) {
+        System.out.printf("project_grants_bench mode=%s round=%d checks=%d ns_per_check=%.1f%n",
+                mode, round, checks, (double) elapsedNanos / checks);
+    }
+
+    private static Jwt token() {
+        List<String> projects = new ArrayList<>();
+        StringBuilder scope = new StringBuilder("openid profile email");
+        Map<String, Object> roles = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            projects.add("p-" + (i * 2 + 100));
+            roles.put("p-" + (i * 2 + 200), List.of("READER"));
+            if (i < 20) scope.append(" project:p-").append(i * 2 + 300).append(":read");
+        }
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("bench")
+                .claim("roles", List.of("user"))
+                .claim("projects", projects)
+                .claim("scope", scope.toString())
+                .claim("project_roles", roles)
+                .build();
+    }
+
+    /** Algoritmo anterior do AuthzService.hasProjectAccess, mantido só como base de comparação. */
+    private static boolean legacyHasProjectAccess(JwtAuthenticationToken token, String projectId) {
+        Jwt jwt = token.getToken();
+        for (String s : claimAsList(jwt, "roles")) if (s.equalsIgnoreCase("admin")) return true;
+        if (claimAsList(jwt, "projects").contains(projectId)) return true;
+        String scope = jwt.getClaimAsString("scope");
+        if (scope != null) {
+            Set<String> scopes = new HashSet<>(Arrays.asList(scope.split("\\s+")));
+            if (scopes.contains("project:read")) return true;
+            if (scopes.contains("project:" + projectId + ":read")) return true;
+            if (scopes.contains("project:" + projectId + ":write")) return true;
+        }
+        Object pr = jwt.getClaims().get("project_roles");
+        if (pr instanceof Map<?, ?> map) {
+            Object r = map.get(projectId);
+            if (r instanceof Collection<?> c && !c.isEmpty()) return true;
+        }
+        return false;
+    }
+
+    private static List<String> claimAsList(Jwt jwt, String name) {
+        Object v = jwt.getClaims().get(name);
+        if (v instanceof Collection<?> col) {
+            List<String> out = new ArrayList<>();
+            for (Object o : col) if (o != null) out.add(String.valueOf(o));
+            return out;
+        }
+        if (v instanceof String s) return Arrays.asList(s.split("\\s*,\\s*"));
+        return List.of();
+    }
+}
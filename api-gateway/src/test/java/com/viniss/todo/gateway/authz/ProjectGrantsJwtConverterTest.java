@@ -0,0 +1,46 @@
+package com.viniss.todo.gateway.authz;
+
+import com.viniss.todo.common.security.ProjectGrants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectGrantsJwtConverterTest {
+
+    private static Jwt jwt(Map<String, Object> claims) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("user-1")
+                .claims(c -> c.putAll(claims))
+                .build();
+    }
+
+    @Test
+    @DisplayName("converter: authorities e nome padrão, grants calculados uma vez")
+    void converts_with_grants() {
+        Jwt jwt = jwt(Map.of("projects", List.of("p1"), "scope", "project:p1:read"));
+        var converted = new ProjectGrantsJwtConverter().convert(jwt);
+
+        assertThat(converted).isInstanceOf(ProjectGrantsAuthentication.class);
+        assertThat(converted.getName()).isEqualTo("user-1");
+        assertThat(converted.getAuthorities()).extracting("authority").containsExactly("SCOPE_project:p1:read");
+        assertThat(AuthzService.grants(converted)).isSameAs(((ProjectGrantsAuthentication) converted).grants());
+        assertThat(AuthzService.grants(converted).canWrite("p1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("JwtAuthenticationToken comum é lido na hora; outras autenticações não têm acesso")
+    void fallback_for_plain_tokens() {
+        Jwt jwt = jwt(Map.of("projects", List.of("p1")));
+
+        assertThat(AuthzService.grants(new JwtAuthenticationToken(jwt)).canRead("p1")).isTrue();
+        assertThat(AuthzService.grants(new TestingAuthenticationToken("u", "p"))).isSameAs(ProjectGrants.NONE);
+    }
+}
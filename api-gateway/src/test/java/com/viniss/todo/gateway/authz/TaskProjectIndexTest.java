@@ -0,0 +1,139 @@
+package com.viniss.todo.gateway.authz;
+
+import com.viniss.todo.common.dto.TaskResponse;
+import com.viniss.todo.gateway.http.TaskClient;
+import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Índice local taskId → projectId: aplicação do task.index, snapshot em disco e fallback no miss.
+ * O consumo do tópico em si (thread + KafkaConsumer) não é exercitado aqui.
+ */
+class TaskProjectIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private final TaskClient tasks = mock(TaskClient.class);
+
+    private TaskProjectIndex index(Path snapshot, String missFallback) {
+        return new TaskProjectIndex(mock(ConsumerFactory.class), tasks, new SimpleMeterRegistry(),
+                snapshot, Duration.ofSeconds(60), missFallback, false);
+    }
+
+    private static ConsumerRecord<String, String> record(String taskId, String projectId) {
+        return new ConsumerRecord<>(TaskProjectIndex.TOPIC, 0, 0L, taskId, projectId);
+    }
+
+    @Test
+    @DisplayName("registro do task.index vira entrada; tombstone remove")
+    void apply_and_tombstone() {
+        TaskProjectIndex index = index(dir.resolve("idx"), "none");
+
+        index.apply(record("t1", "p1"));
+        index.apply(record("t2", "p1"));
+        index.apply(record("t1", null));
+
+        assertThat(index.findProjectIdByTaskId("t1")).isEmpty();
+        assertThat(index.findProjectIdByTaskId("t2")).contains("p1");
+        verifyNoInteractions(tasks);
+    }
+
+    @Test
+    @DisplayName("snapshot restaura mapa e offsets por partição")
+    void snapshot_roundtrip() {
+        Path snapshot = dir.resolve("sub/idx");
+        TaskProjectIndex writer = index(snapshot, "none");
+        writer.apply(record("t1", "p1"));
+        writer.apply(record("t2", "p2"));
+        writer.snapshot(Map.of(0, 42L, 1, 7L));
+
+        TaskProjectIndex reader = index(snapshot, "none");
+        Map<Integer, Long> offsets = reader.restore();
+
+        assertThat(offsets).containsExactlyInAnyOrderEntriesOf(Map.of(0, 42L, 1, 7L));
+        assertThat(reader.size()).isEqualTo(2);
+        assertThat(reader.findProjectIdByTaskId("t2")).contains("p2");
+    }
+
+    @Test
+    @DisplayName("snapshot gravado só para o dono; se grupo/outros podem escrever, é ignorado")
+    void snapshot_owner_only() throws Exception {
+        assumeTrue(dir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path snapshot = dir.resolve("sub/idx");
+        TaskProjectIndex writer = index(snapshot, "none");
+        writer.apply(record("t1", "p1"));
+        writer.snapshot(Map.of(0, 42L));
+
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(snapshot))).isEqualTo("rw-------");
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(snapshot.getParent()))).isEqualTo("rwx------");
+
+        Files.setPosixFilePermissions(snapshot, PosixFilePermissions.fromString("rw-rw-rw-"));
+        TaskProjectIndex reader = index(snapshot, "none");
+        assertThat(reader.restore()).isEmpty();
+        assertThat(reader.findProjectIdByTaskId("t1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("snapshot ausente ou corrompido: começa vazio e relê o tópico do início")
+    void restore_ignores_missing_or_corrupted() throws Exception {
+        Path snapshot = dir.resolve("idx");
+        assertThat(index(snapshot, "none").restore()).isEmpty();
+
+        Files.write(snapshot, new byte[]{1, 2, 3});
+        TaskProjectIndex index = index(snapshot, "none");
+        assertThat(index.restore()).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("miss com fallback feign: consulta o task-service uma vez e guarda o projectId")
+    void miss_falls_back_to_feign_and_caches() {
+        when(tasks.get("t9", null)).thenReturn(ResponseEntity.ok(
+                new TaskResponse("t9", "p9", "title", null, "OPEN", null, null, List.of())));
+        TaskProjectIndex index = index(dir.resolve("idx"), "feign");
+
+        assertThat(index.findProjectIdByTaskId("t9")).contains("p9");
+        assertThat(index.findProjectIdByTaskId("t9")).contains("p9");
+
+        verify(tasks, times(1)).get("t9", null);
+    }
+
+    @Test
+    @DisplayName("miss com fallback feign e task-service falhando: nega (vazio) e conta, sem propagar")
+    void fallback_failure_is_empty() {
+        when(tasks.get("t9", null)).thenThrow(mock(FeignException.ServiceUnavailable.class));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TaskProjectIndex index = new TaskProjectIndex(mock(ConsumerFactory.class), tasks, registry,
+                dir.resolve("idx"), Duration.ofSeconds(60), "feign", false);
+
+        assertThat(index.findProjectIdByTaskId("t9")).isEmpty();
+        assertThat(registry.get("task.index.lookups").tag("result", "fallback_error").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("miss com fallback none: nega sem chamar o task-service")
+    void miss_without_fallback_is_empty() {
+        TaskProjectIndex index = index(dir.resolve("idx"), "none");
+
+        assertThat(index.findProjectIdByTaskId("t9")).isEmpty();
+        verifyNoInteractions(tasks);
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
@@ -20,7 +21,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = SecurityConfigTest.PingController.class)
-@Import(SecurityConfig.class)
+@Import({ SecurityConfig.class, SecurityConfigTest.PingController.class })
 @TestPropertySource(properties = {
         "app.cors.allowed-origins=http://allowed.test"
 })
@@ -60,4 +61,22 @@ class SecurityConfigTest {
                 .andExpect(header().string("Access-Control-Allow-Origin", "http://allowed.test"))
                 .andExpect(header().exists("Access-Control-Allow-Methods"));
     }
+
+    @Test
+    @DisplayName("CORS: If-Match/If-None-Match aceitos no preflight e ETag exposto ao browser")
+    void corsConditionalHeaders() throws Exception {
+        mvc.perform(options("/test/ping")
+                        .header("Origin", "http://allowed.test")
+                        .header("Access-Control-Request-Method", "PATCH")
+                        .header("Access-Control-Request-Headers", "If-Match, If-None-Match"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Allow-Headers", containsString("If-Match")))
+                .andExpect(header().string("Access-Control-Allow-Headers", containsString("If-None-Match")));
+
+        mvc.perform(get("/test/ping")
+                        .with(jwt())
+                        .header("Origin", "http://allowed.test"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Expose-Headers", containsString("ETag")));
+    }
 }
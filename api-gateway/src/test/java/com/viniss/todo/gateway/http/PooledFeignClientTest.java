@@ -0,0 +1,121 @@
+package com.viniss.todo.gateway.http;
+
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Transporte Feign sobre o HttpClient do JDK: mapeamento request/response, métricas por cliente e
+ * limite de streams. O MockWebServer só fala HTTP/1.1, então o h2c não é exercitado aqui.
+ */
+class PooledFeignClientTest {
+
+    private static final Request.Options OPTIONS = new Request.Options(1, TimeUnit.SECONDS, 2, TimeUnit.SECONDS, true);
+
+    private MockWebServer server;
+    private SimpleMeterRegistry registry;
+    private PooledFeignClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        registry = new SimpleMeterRegistry();
+        client = new PooledFeignClient(registry, HttpClient.Version.HTTP_1_1, 1, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.shutdown();
+    }
+
+    private Request request(Request.HttpMethod method, String path, String body) {
+        RequestTemplate template = new RequestTemplate();
+        template.feignTarget(new Target.HardCodedTarget<>(TaskClient.class, "task", server.url("/").toString()));
+        return Request.create(method, server.url(path).toString(),
+                Map.of("X-Correlation-Id", List.of("cid-1"), "Content-Type", List.of("application/json")),
+                body == null ? null : body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, template);
+    }
+
+    @Test
+    @DisplayName("envia método, headers e corpo; devolve status, headers e corpo ao Feign")
+    void roundtrip() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(201).setHeader("ETag", "\"v1\"").setBody("{\"id\":\"t1\"}"));
+
+        Response response = client.execute(request(Request.HttpMethod.POST, "/tasks", "{\"title\":\"x\"}"), OPTIONS);
+
+        RecordedRequest recorded = server.takeRequest();
+        assertThat(recorded.getMethod()).isEqualTo("POST");
+        assertThat(recorded.getHeader("X-Correlation-Id")).isEqualTo("cid-1");
+        assertThat(recorded.getBody().readUtf8()).isEqualTo("{\"title\":\"x\"}");
+
+        assertThat(response.status()).isEqualTo(201);
+        assertThat(response.headers().get("etag")).containsExactly("\"v1\"");
+        assertThat(new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":\"t1\"}");
+    }
+
+    @Test
+    @DisplayName("latência por cliente com método, status e protocolo; conexão reaproveitada")
+    void records_metrics_and_reuses_connection() throws Exception {
+        server.enqueue(new MockResponse().setBody("[]"));
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        client.execute(request(Request.HttpMethod.GET, "/tasks?projectId=p1", null), OPTIONS);
+        client.execute(request(Request.HttpMethod.GET, "/tasks/t9", null), OPTIONS);
+
+        assertThat(registry.get("feign.client.requests")
+                .tags("client", "task", "method", "GET", "status", "200", "protocol", "HTTP_1_1").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("feign.client.requests").tags("client", "task", "status", "404").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("feign.client.streams.active").tag("client", "task").gauge().value()).isZero();
+
+        server.takeRequest();
+        assertThat(server.takeRequest().getSequenceNumber()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("limite de streams cheio: espera acquire-timeout e falha sem enviar")
+    void rejects_when_streams_exhausted() throws Exception {
+        server.enqueue(new MockResponse().setBody("[]").setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+        CompletableFuture<Response> slow = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.execute(request(Request.HttpMethod.GET, "/tasks", null), OPTIONS);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        server.takeRequest();
+
+        assertThatThrownBy(() -> client.execute(request(Request.HttpMethod.GET, "/tasks", null), OPTIONS))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("streams em uso");
+        assertThat(registry.get("feign.client.streams.rejected").tag("client", "task").counter().count()).isEqualTo(1);
+        assertThat(slow.get(2, TimeUnit.SECONDS).status()).isEqualTo(200);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+}
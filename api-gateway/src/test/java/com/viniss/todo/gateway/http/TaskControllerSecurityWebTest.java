@@ -0,0 +1,112 @@
+package com.viniss.todo.gateway.http;
+
+import com.viniss.todo.common.dto.TaskResponse;
+import com.viniss.todo.gateway.authz.AuthzService;
+import com.viniss.todo.gateway.authz.TaskQueryPort;
+import com.viniss.todo.gateway.config.MethodSecurityConfig;
+import com.viniss.todo.gateway.config.SecurityConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @PreAuthorize de /tasks/{id} avaliado de verdade (chain da SecurityConfig + method security):
+ * o #id chega ao {@code @authz.canAccessTask} e a negação vira 403, não 500.
+ */
+@WebMvcTest(controllers = TaskController.class)
+@Import({ SecurityConfig.class, MethodSecurityConfig.class, AuthzService.class,
+        TaskControllerSecurityWebTest.JwtStubConfig.class })
+class TaskControllerSecurityWebTest {
+
+    @Autowired MockMvc mvc;
+
+    @MockBean TaskClient client;
+    @MockBean TaskQueryPort taskQuery;
+
+    private static TaskResponse sample() {
+        return new TaskResponse("t-1", "proj-1", "Nova", "desc", "OPEN", null, null, List.of());
+    }
+
+    @Test
+    @DisplayName("GET /tasks/{id} com acesso ao projeto da task → 200")
+    void get_allowed() throws Exception {
+        when(taskQuery.findProjectIdByTaskId("t-1")).thenReturn(Optional.of("proj-1"));
+        when(client.get("t-1", null)).thenReturn(ResponseEntity.ok(sample()));
+
+        mvc.perform(get("/tasks/t-1")
+                        .with(jwt().jwt(j -> j.claim("projects", List.of("proj-1")))))
+                .andExpect(status().isOk());
+
+        verify(taskQuery).findProjectIdByTaskId("t-1");
+    }
+
+    @Test
+    @DisplayName("GET /tasks/{id} sem acesso ao projeto → 403 sem chamar o task-service")
+    void get_denied() throws Exception {
+        when(taskQuery.findProjectIdByTaskId("t-1")).thenReturn(Optional.of("proj-1"));
+
+        mvc.perform(get("/tasks/t-1")
+                        .with(jwt().jwt(j -> j.claim("projects", List.of("proj-2")))))
+                .andExpect(status().isForbidden());
+
+        verify(client, never()).get(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("PATCH /tasks/{id} sem acesso ao projeto → 403")
+    void patch_denied() throws Exception {
+        when(taskQuery.findProjectIdByTaskId("t-1")).thenReturn(Optional.empty());
+
+        mvc.perform(patch("/tasks/t-1")
+                        .with(jwt().jwt(j -> j.claim("projects", List.of("proj-1"))))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"x\"}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(client);
+    }
+
+    @Test
+    @DisplayName("PATCH /tasks/{id} com scope só de leitura no projeto → 403")
+    void patch_read_only_denied() throws Exception {
+        when(taskQuery.findProjectIdByTaskId("t-1")).thenReturn(Optional.of("proj-1"));
+
+        mvc.perform(patch("/tasks/t-1")
+                        .with(jwt().jwt(j -> j.claim("scope", "project:proj-1:read")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"x\"}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(client);
+    }
+
+    /** Stub de JwtDecoder para satisfazer oauth2ResourceServer().jwt() na SecurityConfig */
+    @TestConfiguration
+    static class JwtStubConfig {
+        @Bean
+        JwtDecoder jwtDecoder() {
+            return token -> Jwt.withTokenValue(token).header("alg", "none").claim("sub", "tester").build();
+        }
+    }
+}
@@ -9,7 +9,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -19,7 +21,9 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -77,7 +81,7 @@ class TaskControllerWebTest {
     @Test
     @DisplayName("PUT /tasks/{id} → 200 OK (proxy para TaskClient.update)")
     void update_returns200() throws Exception {
-        when(client.update(eq("t-2"), any())).thenReturn(sampleResponse("t-2", "Atualizada"));
+        when(client.update(eq("t-2"), isNull(), any())).thenReturn(ResponseEntity.ok(sampleResponse("t-2", "Atualizada")));
 
         var body = new UpdateTaskRequest("Atualizada", "desc", "OPEN", List.of("x"));
 
@@ -93,7 +97,7 @@ class TaskControllerWebTest {
     @Test
     @DisplayName("PATCH /tasks/{id} → 200 OK (proxy para TaskClient.patch)")
     void patch_returns200() throws Exception {
-        when(client.patch(eq("t-3"), any())).thenReturn(sampleResponse("t-3", "Parcial"));
+        when(client.patch(eq("t-3"), isNull(), any())).thenReturn(ResponseEntity.ok(sampleResponse("t-3", "Parcial")));
 
         var body = new UpdateTaskRequest("Parcial", null, null, null);
 
@@ -105,4 +109,29 @@ class TaskControllerWebTest {
                 .andExpect(jsonPath("$.id").value("t-3"))
                 .andExpect(jsonPath("$.title").value("Parcial"));
     }
+
+    @Test
+    @DisplayName("PATCH /tasks/{id} → repassa If-Match ao TaskClient e devolve o ETag do upstream")
+    void patch_passesIfMatchAndETag() throws Exception {
+        when(client.patch(eq("t-3"), eq("\"4\""), any()))
+                .thenReturn(ResponseEntity.ok().eTag("\"5\"").body(sampleResponse("t-3", "Parcial")));
+
+        mvc.perform(patch("/tasks/{id}", "t-3")
+                        .header("If-Match", "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new UpdateTaskRequest("Parcial", null, null, null))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""));
+    }
+
+    @Test
+    @DisplayName("GET /tasks/{id} → repassa If-None-Match e o 304 do upstream")
+    void get_relaysNotModified() throws Exception {
+        when(client.get(eq("t-4"), eq("\"7\"")))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"7\"").build());
+
+        mvc.perform(get("/tasks/{id}", "t-4").header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"7\""));
+    }
 }
@@ -91,7 +91,8 @@ class TaskCorrelationE2ETest {
     /** Post-processor que injeta um JWT com escopo/autoridade aceitos pela sua SecurityConfig. */
     private static RequestPostProcessor jwtWrite() {
         return jwt().jwt(j -> {
-            j.claim("scope", "todo.write");
+            // POST /tasks exige escrita no projeto do payload
+            j.claim("scope", "todo.write project:proj-1:write");
             j.claim("scp", java.util.List.of("todo.write"));
             j.subject("tester");
         }).authorities(new org.springframework.security.core.authority.SimpleGrantedAuthority("SCOPE_todo.write"));
@@ -0,0 +1,79 @@
+package com.viniss.todo.gateway.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final JwtDecoder delegate = mock(JwtDecoder.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, registry, 100,
+            Duration.ofMinutes(10), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    private static Jwt jwt(String token, Instant exp) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("user-1")
+                .issuedAt(NOW.minusSeconds(60))
+                .expiresAt(exp)
+                .build();
+    }
+
+    @Test
+    @DisplayName("mesmo token: verifica uma vez e reusa o Jwt")
+    void caches_verified_token() {
+        Jwt verified = jwt("t1", NOW.plusSeconds(300));
+        when(delegate.decode("t1")).thenReturn(verified);
+
+        assertThat(decoder.decode("t1")).isSameAs(verified);
+        assertThat(decoder.decode("t1")).isSameAs(verified);
+
+        verify(delegate, times(1)).decode("t1");
+        assertThat(registry.get("security.jwt.verify").tag("result", "valid").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("token recusado não entra no cache")
+    void does_not_cache_rejected_token() {
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("assinatura inválida"));
+
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("bad");
+        assertThat(registry.get("security.jwt.verify").tag("result", "invalid").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("validade da entrada: até o exp, limitada ao max-ttl")
+    void ttl_until_exp_capped() {
+        assertThat(decoder.ttl(jwt("a", NOW.plusSeconds(90)))).isEqualTo(Duration.ofSeconds(90));
+        assertThat(decoder.ttl(jwt("b", NOW.plus(Duration.ofHours(2))))).isEqualTo(Duration.ofMinutes(10));
+        assertThat(decoder.ttl(jwt("c", NOW.minusSeconds(1)))).isZero();
+    }
+
+    @Test
+    @DisplayName("chave do cache é o hash do token, não o token")
+    void key_is_token_hash() {
+        assertThat(CachingJwtDecoder.hash("t1"))
+                .isEqualTo(CachingJwtDecoder.hash("t1"))
+                .isNotEqualTo(CachingJwtDecoder.hash("t2"))
+                .doesNotContain("t1")
+                .hasSize(43);
+    }
+}
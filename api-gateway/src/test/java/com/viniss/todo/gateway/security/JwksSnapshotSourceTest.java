@@ -0,0 +1,100 @@
+package com.viniss.todo.gateway.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/** Issuer fora do ar (porta 1): tudo que funciona aqui vem do snapshot. */
+class JwksSnapshotSourceTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private JwksSnapshotSource source(Path snapshot) throws Exception {
+        return new JwksSnapshotSource(URI.create("http://127.0.0.1:1/certs").toURL(), snapshot,
+                Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofMillis(200), registry);
+    }
+
+    private static JWKSelector kid(String kid) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(kid).build());
+    }
+
+    @Test
+    @DisplayName("com snapshot em disco: valida sem buscar o issuer")
+    void serves_keys_from_snapshot() throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("k1").generate();
+        Path snapshot = dir.resolve("jwks.json");
+        Files.writeString(snapshot, new JWKSet(key).toString(true));
+
+        JwksSnapshotSource source = source(snapshot);
+
+        assertThat(source.get(kid("k1"), null)).singleElement()
+                .satisfies(jwk -> assertThat(jwk.isPrivate()).isFalse());
+        assertThat(registry.get("security.jwks.keys").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("kid desconhecido: tenta buscar o issuer e, falhando, mantém as chaves do snapshot")
+    void unknown_kid_refreshes_and_keeps_keys_on_failure() throws Exception {
+        Path snapshot = dir.resolve("jwks.json");
+        Files.writeString(snapshot, new JWKSet(new RSAKeyGenerator(2048).keyID("k1").generate()).toString(true));
+        JwksSnapshotSource source = source(snapshot);
+
+        assertThat(source.get(kid("k2"), null)).isEmpty();
+        assertThat(source.get(kid("k1"), null)).hasSize(1);
+        assertThat(registry.get("security.jwks.refresh").tag("result", "failure").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("sem snapshot e sem issuer: verificação falha com KeySourceException")
+    void no_snapshot_and_no_issuer() throws Exception {
+        JwksSnapshotSource source = source(dir.resolve("missing.json"));
+
+        assertThatThrownBy(() -> source.get(kid("k1"), null))
+                .isInstanceOf(KeySourceException.class);
+    }
+
+    @Test
+    @DisplayName("snapshot gravável por grupo/outros é ignorado (chaves poderiam ter sido trocadas)")
+    void ignores_group_writable_snapshot() throws Exception {
+        assumeTrue(dir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path snapshot = dir.resolve("jwks.json");
+        Files.writeString(snapshot, new JWKSet(new RSAKeyGenerator(2048).keyID("k1").generate()).toString(true));
+        Files.setPosixFilePermissions(snapshot, PosixFilePermissions.fromString("rw-rw-r--"));
+
+        JwksSnapshotSource source = source(snapshot);
+
+        assertThat(registry.get("security.jwks.keys").gauge().value()).isZero();
+        assertThatThrownBy(() -> source.get(kid("k1"), null)).isInstanceOf(KeySourceException.class);
+    }
+
+    @Test
+    @DisplayName("snapshot do próprio usuário e só gravável por ele é aceito")
+    void trusts_owner_only_snapshot() throws Exception {
+        assumeTrue(dir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path snapshot = dir.resolve("jwks.json");
+        Files.writeString(snapshot, "{\"keys\":[]}");
+        Files.setPosixFilePermissions(snapshot, PosixFilePermissions.fromString("rw-------"));
+
+        assertThat(SnapshotFiles.untrusted(snapshot)).isNull();
+    }
+}
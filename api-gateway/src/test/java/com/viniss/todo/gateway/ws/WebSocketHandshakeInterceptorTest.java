@@ -73,6 +73,18 @@ class WebSocketHandshakeInterceptorTest {
         assertThat(ok).isTrue();
     }
 
+    @Test
+    @DisplayName("Nega com só o scope admin (admin vem de roles, como nas rotas REST)")
+    void deny_whenOnlyScopeAdmin() throws Exception {
+        setJwtWithClaims(Map.of("scope", "profile admin"));
+        var req = mockReq("ws://localhost/ws?projectId=alpha");
+        var res = mockRes();
+
+        boolean ok = interceptor.beforeHandshake(req, res, mockHandler(), new HashMap<>());
+
+        assertThat(ok).isFalse();
+    }
+
     @Test
     @DisplayName("Nega quando não há acesso ao projectId")
     void deny_whenNoAccess() throws Exception {
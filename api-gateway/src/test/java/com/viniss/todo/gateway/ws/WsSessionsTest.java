@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
@@ -87,4 +88,25 @@ class WsSessionsTest {
         verify(open).sendMessage(any(TextMessage.class));
         verify(closed, never()).sendMessage(any(TextMessage.class));
     }
+
+    @Test
+    @DisplayName("hasSubscribers: só com sessão aberta inscrita no projeto")
+    void hasSubscribers_only_open_sessions() {
+        WsSessions sessions = new WsSessions();
+
+        WebSocketSession closed = mock(WebSocketSession.class);
+        when(closed.isOpen()).thenReturn(false);
+        sessions.subscribe("proj-X", closed);
+
+        assertThat(sessions.hasSubscribers("proj-X")).isFalse();
+        assertThat(sessions.hasSubscribers("proj-Y")).isFalse();
+
+        WebSocketSession open = mock(WebSocketSession.class);
+        when(open.isOpen()).thenReturn(true);
+        sessions.subscribe("proj-X", open);
+
+        assertThat(sessions.hasSubscribers("proj-X")).isTrue();
+        sessions.unsubscribeAll(open);
+        assertThat(sessions.hasSubscribers("proj-X")).isFalse();
+    }
 }
@@ -1,14 +1,20 @@
 package com.viniss.todo.common.feign;
 
 import com.viniss.todo.common.http.CorrelationFilter;
+import com.viniss.todo.common.security.InternalIdentityCodec;
+import com.viniss.todo.common.security.ProjectGrantsHolder;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 @Configuration
 public class FeignHeadersConfig {
+
   @Bean
   public RequestInterceptor correlationIdInterceptor() {
     return (RequestTemplate template) -> {
@@ -18,4 +24,17 @@ public class FeignHeadersConfig {
       }
     };
   }
+
+  /** Identidade interna assinada (subject + grants) quando o codec está habilitado. */
+  @Bean
+  public RequestInterceptor internalIdentityInterceptor(ObjectProvider<InternalIdentityCodec> codec) {
+    return (RequestTemplate template) -> {
+      InternalIdentityCodec c = codec.getIfAvailable();
+      if (c == null) return;
+      Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+      if (auth instanceof ProjectGrantsHolder holder) {
+        template.header(InternalIdentityCodec.HEADER, c.mint(auth.getName(), holder.grants()));
+      }
+    };
+  }
 }
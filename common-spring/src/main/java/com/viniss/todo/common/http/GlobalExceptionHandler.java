@@ -2,6 +2,8 @@ package com.viniss.todo.common.http;
 
 import org.slf4j.MDC;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.http.*;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -69,12 +71,24 @@ public class GlobalExceptionHandler {
     return response("conflict", "Violação de integridade de dados", Map.of("reason", ex.getMostSpecificCause().getClass().getSimpleName()), HttpStatus.CONFLICT);
   }
 
+  // 412 - If-Match divergente ou escrita concorrente detectada pelo @Version
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ApiError> handleOptimisticLock(OptimisticLockingFailureException ex) {
+    return response("precondition_failed", "O recurso foi alterado; releia e reenvie com o ETag atual", Map.of(), HttpStatus.PRECONDITION_FAILED);
+  }
+
   // 400 - uso indevido de argumentos
   @ExceptionHandler(IllegalArgumentException.class)
   public ResponseEntity<ApiError> handleIllegalArgument(IllegalArgumentException ex) {
     return response("invalid_argument", ex.getMessage(), Map.of(), HttpStatus.BAD_REQUEST);
   }
 
+  // 403 - @PreAuthorize negado (sem isso cairia no fallback 500)
+  @ExceptionHandler(AccessDeniedException.class)
+  public ResponseEntity<ApiError> handleAccessDenied(AccessDeniedException ex) {
+    return response("forbidden", "Acesso negado", Map.of(), HttpStatus.FORBIDDEN);
+  }
+
   // 500 - fallback
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ApiError> handleGeneric(Exception ex) {
@@ -0,0 +1,69 @@
+package com.viniss.todo.common.kafka;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/health → consumerLag: {@code DEGRADED} quando alguma partição de um grupo monitorado
+ * passa de {@code app.kafka.lag.degraded-threshold} registros; {@code UNKNOWN} antes da primeira
+ * leitura ou se a última falhou. Nunca {@code DOWN}: lag alto é atraso, não indisponibilidade —
+ * a réplica continua útil (http-mapping de DEGRADED = 200 no application.yml).
+ */
+@Component("consumerLag")
+@ConditionalOnProperty(name = "app.kafka.lag.groups")
+public class ConsumerLagHealthIndicator implements HealthIndicator {
+  public static final Status DEGRADED = new Status("DEGRADED", "Lag de consumo acima do limite");
+
+  private final ConsumerLagMonitor monitor;
+  private final long threshold;
+
+  public ConsumerLagHealthIndicator(ConsumerLagMonitor monitor,
+                                    @Value("${app.kafka.lag.degraded-threshold:10000}") long threshold) {
+    this.monitor = monitor;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public Health health() {
+    ConsumerLagMonitor.Snapshot snapshot = monitor.snapshot();
+    if (snapshot.refreshedAt() == null || snapshot.error() != null) {
+      Health.Builder unknown = Health.unknown().withDetail("threshold", threshold);
+      if (snapshot.error() != null) unknown.withDetail("error", snapshot.error());
+      return unknown.build();
+    }
+
+    boolean degraded = false;
+    Map<String, Object> groups = new LinkedHashMap<>();
+    for (Map.Entry<String, Map<TopicPartition, Long>> group : snapshot.lag().entrySet()) {
+      long max = 0;
+      long total = 0;
+      Map<String, Long> over = new LinkedHashMap<>();
+      for (Map.Entry<TopicPartition, Long> partition : group.getValue().entrySet()) {
+        long lag = partition.getValue();
+        max = Math.max(max, lag);
+        total += lag;
+        if (lag > threshold) over.put(partition.getKey().toString(), lag);
+      }
+      degraded |= !over.isEmpty();
+      Map<String, Object> detail = new LinkedHashMap<>();
+      detail.put("maxLag", max);
+      detail.put("totalLag", total);
+      if (!over.isEmpty()) detail.put("overThreshold", over);
+      groups.put(group.getKey(), detail);
+    }
+
+    return Health.status(degraded ? DEGRADED : Status.UP)
+        .withDetail("threshold", threshold)
+        .withDetail("refreshedAt", snapshot.refreshedAt().toString())
+        .withDetail("groups", groups)
+        .build();
+  }
+}
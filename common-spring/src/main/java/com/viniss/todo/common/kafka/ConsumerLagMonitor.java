@@ -0,0 +1,172 @@
+package com.viniss.todo.common.kafka;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lag dos grupos de consumo em {@code app.kafka.lag.groups}, por partição: offset final do
+ * tópico menos o offset commitado pelo grupo, lido pelo AdminClient a cada
+ * {@code app.kafka.lag.interval}. Vale para o grupo inteiro, não só para as partições desta
+ * réplica, e continua medindo quando o listener está parado — que é justamente quando importa.
+ *
+ * Gauge kafka.consumer.lag (tags group, topic, partition); o {@link ConsumerLagHealthIndicator}
+ * usa o último snapshot.
+ */
+@Component
+@ConditionalOnProperty(name = "app.kafka.lag.groups")
+public class ConsumerLagMonitor implements SmartLifecycle {
+  private static final Logger log = LoggerFactory.getLogger(ConsumerLagMonitor.class);
+
+  private final KafkaAdmin kafkaAdmin;
+  private final MeterRegistry registry;
+  private final List<String> groups;
+  private final Duration interval;
+  private final Duration timeout;
+
+  private final Map<GroupPartition, AtomicLong> gauges = new ConcurrentHashMap<>();
+  private volatile Snapshot snapshot = new Snapshot(Map.of(), null, null);
+
+  private volatile boolean running;
+  private Thread worker;
+
+  public ConsumerLagMonitor(KafkaAdmin kafkaAdmin,
+                            MeterRegistry registry,
+                            @Value("${app.kafka.lag.groups}") List<String> groups,
+                            @Value("${app.kafka.lag.interval:15s}") Duration interval,
+                            @Value("${app.kafka.lag.timeout:5s}") Duration timeout) {
+    this.kafkaAdmin = kafkaAdmin;
+    this.registry = registry;
+    this.groups = List.copyOf(groups);
+    this.interval = interval;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Lag por grupo e partição da última leitura.
+   *
+   * @param refreshedAt {@code null} antes da primeira leitura bem-sucedida
+   * @param error       mensagem da última falha de leitura, ou {@code null}
+   */
+  public record Snapshot(Map<String, Map<TopicPartition, Long>> lag, Instant refreshedAt, String error) {}
+
+  private record GroupPartition(String group, TopicPartition partition) {}
+
+  public Snapshot snapshot() {
+    return snapshot;
+  }
+
+  // ---- ciclo de vida -------------------------------------------------------
+
+  @Override
+  public void start() {
+    running = true;
+    worker = Thread.ofPlatform().daemon().name("kafka-consumer-lag").start(this::loop);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    Thread t = worker;
+    if (t != null) {
+      t.interrupt();
+      try {
+        t.join(timeout.plusSeconds(1).toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void loop() {
+    try (Admin admin = Admin.create(kafkaAdmin.getConfigurationProperties())) {
+      while (running) {
+        refresh(admin);
+        try {
+          Thread.sleep(interval);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+  }
+
+  // ---- leitura -------------------------------------------------------------
+
+  /** Lê o lag de todos os grupos e atualiza gauges e snapshot; falhas ficam no snapshot. */
+  public void refresh(Admin admin) {
+    try {
+      Map<String, Map<TopicPartition, Long>> lag = new LinkedHashMap<>();
+      for (String group : groups) {
+        lag.put(group, lag(admin, group));
+      }
+      lag.forEach((group, partitions) -> partitions.forEach((tp, value) -> gauge(group, tp).set(value)));
+      snapshot = new Snapshot(lag, Instant.now(), null);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.warn("consumer_lag_refresh_failed error={} msg={}", e.getClass().getSimpleName(), e.getMessage());
+      snapshot = new Snapshot(snapshot.lag(), snapshot.refreshedAt(), e.getClass().getSimpleName() + ": " + e.getMessage());
+    }
+  }
+
+  private Map<TopicPartition, Long> lag(Admin admin, String group) throws Exception {
+    Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(group)
+        .partitionsToOffsetAndMetadata()
+        .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    if (committed.isEmpty()) return Map.of();
+
+    Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+    committed.keySet().forEach(tp -> latest.put(tp, OffsetSpec.latest()));
+    Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = admin.listOffsets(latest)
+        .all()
+        .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+    Map<TopicPartition, Long> lag = new LinkedHashMap<>();
+    committed.forEach((tp, offset) -> {
+      ListOffsetsResult.ListOffsetsResultInfo end = ends.get(tp);
+      if (offset == null || end == null) return;
+      lag.put(tp, Math.max(0, end.offset() - offset.offset()));
+    });
+    return lag;
+  }
+
+  private AtomicLong gauge(String group, TopicPartition tp) {
+    return gauges.computeIfAbsent(new GroupPartition(group, tp), key -> {
+      AtomicLong value = new AtomicLong();
+      Gauge.builder("kafka.consumer.lag", value, AtomicLong::get)
+          .description("Registros ainda não commitados pelo grupo na partição")
+          .tag("group", group)
+          .tag("topic", tp.topic())
+          .tag("partition", String.valueOf(tp.partition()))
+          .register(registry);
+      return value;
+    });
+  }
+}
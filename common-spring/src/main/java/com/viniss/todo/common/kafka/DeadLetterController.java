@@ -0,0 +1,36 @@
+package com.viniss.todo.common.kafka;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin: reenvia ao retry os registros do task.events.DLT que falharam neste serviço.
+ *
+ * Não tem autenticação própria: só sobe com {@code app.kafka.retry.redrive-endpoint=true}, ligado
+ * apenas onde a cadeia de segurança protege /admin/** (gateway, scope admin).
+ */
+@RestController
+@RequestMapping(path = "/admin/dlt", produces = MediaType.APPLICATION_JSON_VALUE)
+@ConditionalOnProperty(name = "app.kafka.retry.app")
+@ConditionalOnProperty(name = "app.kafka.retry.redrive-endpoint", havingValue = "true")
+public class DeadLetterController {
+  private static final int MAX_REDRIVE = 10_000;
+
+  private final DeadLetterRedriver redriver;
+
+  public DeadLetterController(DeadLetterRedriver redriver) {
+    this.redriver = redriver;
+  }
+
+  @PostMapping("/redrive")
+  public DeadLetterRedriver.Result redrive(@RequestParam(name = "max", defaultValue = "100") int max) {
+    if (max < 1 || max > MAX_REDRIVE) {
+      throw new IllegalArgumentException("max deve estar entre 1 e " + MAX_REDRIVE);
+    }
+    return redriver.redrive(max);
+  }
+}
@@ -0,0 +1,135 @@
+package com.viniss.todo.common.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reenvia registros do task.events.DLT que falharam neste consumidor ({@link TaskEventRetryTopics#FAILED_APP})
+ * para o primeiro tier de retry, já vencidos: o listener de retry os processa em seguida.
+ *
+ * Lê o DLT com o grupo {@code {app}-dlt-redrive}, em bytes (o valor volta exatamente como foi
+ * gravado), e só commita depois que os reenvios tiveram ack. Registros de outros consumidores
+ * são pulados — cada consumidor tem o seu grupo de redrive, então não se perdem para eles.
+ */
+@Component
+@ConditionalOnProperty(name = "app.kafka.retry.app")
+public class DeadLetterRedriver {
+  private static final Logger log = LoggerFactory.getLogger(DeadLetterRedriver.class);
+  private static final Duration POLL = Duration.ofSeconds(1);
+
+  private final String app;
+  private final ConsumerFactory<?, ?> consumerFactory;
+  private final KafkaTemplate<String, byte[]> template;
+
+  @SuppressWarnings("unchecked")
+  public DeadLetterRedriver(@Value("${app.kafka.retry.app}") String app,
+                            ConsumerFactory<?, ?> consumerFactory,
+                            ProducerFactory<?, ?> producerFactory) {
+    this.app = app;
+    this.consumerFactory = consumerFactory;
+    this.template = new KafkaTemplate<>((ProducerFactory<String, byte[]>) producerFactory, Map.of(
+        ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+        ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+  }
+
+  public record Result(int redriven, int skipped) {}
+
+  /** Reenvia até {@code max} registros deste consumidor; para no fim do DLT. */
+  public synchronized Result redrive(int max) {
+    Properties overrides = new Properties();
+    overrides.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+    overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+    overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(Math.min(max, 500)));
+
+    int redriven = 0;
+    int skipped = 0;
+    try (Consumer<?, ?> raw = consumerFactory.createConsumer(app + "-dlt-redrive", null, null, overrides)) {
+      @SuppressWarnings("unchecked")
+      Consumer<String, byte[]> consumer = (Consumer<String, byte[]>) raw;
+      consumer.assign(consumer.partitionsFor(TaskEventRetryTopics.DLT).stream()
+          .map(p -> new TopicPartition(p.topic(), p.partition()))
+          .toList());
+
+      while (redriven < max) {
+        var records = consumer.poll(POLL);
+        if (records.isEmpty()) break;
+
+        Map<TopicPartition, OffsetAndMetadata> commit = new HashMap<>();
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+          if (redriven >= max) break;
+          if (app.equals(TaskEventRetryTopics.header(record.headers(), TaskEventRetryTopics.FAILED_APP))) {
+            sends.add(template.send(toRetry(record)));
+            redriven++;
+          } else {
+            skipped++;
+          }
+          commit.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+        }
+        await(sends);
+        consumer.commitSync(commit);
+      }
+    }
+    log.info("dlt_redrive app={} redriven={} skipped={}", app, redriven, skipped);
+    return new Result(redriven, skipped);
+  }
+
+  private ProducerRecord<String, byte[]> toRetry(ConsumerRecord<String, byte[]> record) {
+    ProducerRecord<String, byte[]> out =
+        new ProducerRecord<>(TaskEventRetryTopics.retryTopic(app, 0), record.key(), record.value());
+    for (Header h : record.headers()) {
+      String key = h.key();
+      // o histórico da falha (kafka_dlt-*) fica; tier, prazo e motivo recomeçam
+      if (key.equals(TaskEventRetryTopics.ATTEMPT) || key.equals(TaskEventRetryTopics.DUE_AT)
+          || key.equals(TaskEventRetryTopics.FAILURE_REASON)) {
+        continue;
+      }
+      out.headers().add(h);
+    }
+    out.headers().add(TaskEventRetryTopics.ATTEMPT, TaskEventRetryTopics.bytes(0));
+    return out;
+  }
+
+  private static void await(List<CompletableFuture<?>> sends) {
+    try {
+      CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Redrive interrompido", e);
+    } catch (ExecutionException | TimeoutException e) {
+      // nada commitado: o próximo redrive relê o lote (o consumidor é idempotente)
+      throw new IllegalStateException("Falha ao reenviar registros do DLT", e);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package com.viniss.todo.common.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Processa o lote de um listener Kafka (batch) em paralelo sem perder a ordem por chave.
+ *
+ * <ul>
+ *   <li>Cada registro vai para a lane {@code hash(chave) % app.kafka.key-ordered.concurrency};
+ *       cada lane roda numa virtual thread e processa os seus registros na ordem do lote, então
+ *       eventos da mesma chave (taskId, projectId...) nunca se cruzam e uma chave lenta só
+ *       atrasa a própria lane.</li>
+ *   <li>Concorrência 1 (ou lote de um registro) roda na própria thread do listener, preservando
+ *       a transação dele.</li>
+ *   <li>Falha: a lane para no registro que falhou; depois que todas terminam, lança
+ *       {@link BatchListenerFailedException} com o menor índice que falhou. O error handler
+ *       commita só os offsets anteriores (todos concluídos) e reentrega a partir dele — os
+ *       handlers precisam ser idempotentes para o que outras lanes já tinham processado.</li>
+ * </ul>
+ *
+ * Métricas (tag listener): kafka.consumer.keyed.lane (duração por lane),
+ * kafka.consumer.keyed.failed, kafka.consumer.keyed.in-flight e kafka.consumer.keyed.concurrency.
+ */
+@Component
+public class KeyOrderedProcessor implements AutoCloseable {
+  private final int concurrency;
+  private final MeterRegistry registry;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  public KeyOrderedProcessor(@Value("${app.kafka.key-ordered.concurrency:1}") int concurrency, MeterRegistry registry) {
+    this.concurrency = Math.max(1, concurrency);
+    this.registry = registry;
+    Gauge.builder("kafka.consumer.keyed.in-flight", inFlight, AtomicInteger::get)
+        .description("Registros sendo processados pelas lanes")
+        .register(registry);
+    Gauge.builder("kafka.consumer.keyed.concurrency", () -> this.concurrency)
+        .description("Lanes por lote (app.kafka.key-ordered.concurrency)")
+        .register(registry);
+  }
+
+  public int concurrency() {
+    return concurrency;
+  }
+
+  /** Um handler por registro; a falha aponta exatamente o registro. */
+  public <R> void forEachRecord(String listener, List<R> records, Function<? super R, ?> keyOf,
+                                Consumer<? super R> handler) {
+    run(listener, records, keyOf, (lane, indexes) -> {
+      for (int i : indexes) {
+        try {
+          handler.accept(records.get(i));
+        } catch (RuntimeException e) {
+          return new Failure(i, e);
+        }
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Um handler por lane (ex.: um saveAll por lane). Se ele falha, a falha é atribuída ao
+   * primeiro registro da lane: o trecho inteiro é reentregue. Para apontar o registro exato, o
+   * handler lança {@link BatchListenerFailedException} com o registro — e tem que ter concluído
+   * os registros anteriores a ele na lane, porque os offsets deles podem ser commitados.
+   */
+  public <R> void forEachLane(String listener, List<R> records, Function<? super R, ?> keyOf,
+                              Consumer<List<R>> handler) {
+    run(listener, records, keyOf, (lane, indexes) -> {
+      try {
+        handler.accept(lane);
+        return null;
+      } catch (BatchListenerFailedException e) {
+        int pos = indexOf(lane, e.getRecord());
+        return new Failure(indexes.get(Math.max(pos, 0)), e.getCause() != null ? e.getCause() : e);
+      } catch (RuntimeException e) {
+        return new Failure(indexes.get(0), e);
+      }
+    });
+  }
+
+  private static int indexOf(List<?> lane, Object record) {
+    for (int i = 0; i < lane.size(); i++) {
+      if (lane.get(i) == record) return i;
+    }
+    return -1;
+  }
+
+  private <R> void run(String listener, List<R> records, Function<? super R, ?> keyOf, LaneTask<R> task) {
+    if (records.isEmpty()) return;
+
+    int lanes = Math.min(concurrency, records.size());
+    List<List<Integer>> indexes = new ArrayList<>(lanes);
+    for (int l = 0; l < lanes; l++) indexes.add(new ArrayList<>());
+    for (int i = 0; i < records.size(); i++) {
+      indexes.get(Math.floorMod(Objects.hashCode(keyOf.apply(records.get(i))), lanes)).add(i);
+    }
+
+    Timer laneTimer = Timer.builder("kafka.consumer.keyed.lane")
+        .description("Duração do processamento de uma lane")
+        .tag("listener", listener)
+        .register(registry);
+
+    indexes.removeIf(List::isEmpty);
+    List<Failure> failures = new ArrayList<>();
+    if (indexes.size() == 1) {
+      Failure f = timed(laneTimer, records, indexes.get(0), task);
+      if (f != null) failures.add(f);
+    } else {
+      List<Future<Failure>> futures = new ArrayList<>(indexes.size());
+      for (List<Integer> laneIndexes : indexes) {
+        futures.add(executor.submit(() -> timed(laneTimer, records, laneIndexes, task)));
+      }
+      for (int l = 0; l < futures.size(); l++) {
+        Failure failure = join(futures.get(l), indexes.get(l));
+        if (failure != null) failures.add(failure);
+      }
+    }
+
+    if (failures.isEmpty()) return;
+    Failure first = failures.stream().min(Comparator.comparingInt(Failure::index)).orElseThrow();
+    Counter.builder("kafka.consumer.keyed.failed")
+        .description("Lotes interrompidos por falha em algum registro")
+        .tag("listener", listener)
+        .register(registry)
+        .increment();
+    throw new BatchListenerFailedException(
+        listener + ": falha no registro " + first.index() + " do lote", first.cause(), first.index());
+  }
+
+  private <R> Failure timed(Timer timer, List<R> records, List<Integer> laneIndexes, LaneTask<R> task) {
+    List<R> lane = new ArrayList<>(laneIndexes.size());
+    for (int i : laneIndexes) lane.add(records.get(i));
+    inFlight.addAndGet(lane.size());
+    try {
+      return timer.record(() -> task.process(lane, laneIndexes));
+    } finally {
+      inFlight.addAndGet(-lane.size());
+    }
+  }
+
+  private static Failure join(Future<Failure> f, List<Integer> laneIndexes) {
+    try {
+      return f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new Failure(laneIndexes.get(0), new IllegalStateException("Listener interrompido", e));
+    } catch (Exception e) {
+      return new Failure(laneIndexes.get(0), e.getCause() != null ? e.getCause() : e);
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.close();
+  }
+
+  @FunctionalInterface
+  private interface LaneTask<R> {
+    /** @return a falha da lane (índice no lote original) ou {@code null} */
+    Failure process(List<R> lane, List<Integer> indexes);
+  }
+
+  private record Failure(int index, Throwable cause) {}
+}
@@ -0,0 +1,75 @@
+package com.viniss.todo.common.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas dos listeners de task.events (tag listener):
+ *
+ * <ul>
+ *   <li>kafka.consumer.records — registros processados (rate = records/s);</li>
+ *   <li>kafka.consumer.process — duração de cada chamada do listener (lote ou registro), com percentis;</li>
+ *   <li>kafka.consumer.end-to-end — do timestamp do registro (produção) até o fim do processamento;</li>
+ *   <li>kafka.consumer.errors — chamadas que terminaram em exceção (o lote volta ao error handler).</li>
+ * </ul>
+ *
+ * O lag por partição fica no {@link ConsumerLagMonitor}.
+ */
+@Component
+public class TaskEventConsumerMetrics {
+  private final MeterRegistry registry;
+
+  public TaskEventConsumerMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  public void observe(String listener, List<? extends ConsumerRecord<?, ?>> records, Runnable body) {
+    long start = System.nanoTime();
+    try {
+      body.run();
+    } catch (RuntimeException e) {
+      Counter.builder("kafka.consumer.errors")
+          .description("Chamadas do listener que falharam")
+          .tag("listener", listener)
+          .tag("exception", e.getClass().getSimpleName())
+          .register(registry)
+          .increment();
+      throw e;
+    } finally {
+      processTimer(listener).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    Counter.builder("kafka.consumer.records")
+        .description("Registros processados pelo listener")
+        .tag("listener", listener)
+        .register(registry)
+        .increment(records.size());
+    Timer endToEnd = Timer.builder("kafka.consumer.end-to-end")
+        .description("Do timestamp do registro até o fim do processamento")
+        .tag("listener", listener)
+        .publishPercentileHistogram()
+        .register(registry);
+    long now = System.currentTimeMillis();
+    for (ConsumerRecord<?, ?> record : records) {
+      if (record.timestamp() > 0) {
+        endToEnd.record(Duration.ofMillis(Math.max(0, now - record.timestamp())));
+      }
+    }
+  }
+
+  private Timer processTimer(String listener) {
+    return Timer.builder("kafka.consumer.process")
+        .description("Duração de uma chamada do listener")
+        .tag("listener", listener)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+}
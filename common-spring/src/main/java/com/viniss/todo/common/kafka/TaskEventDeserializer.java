@@ -0,0 +1,51 @@
+package com.viniss.todo.common.kafka;
+
+import com.viniss.todo.common.events.TaskEventCodec;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Deserializer de valor para task.events que lê os dois formatos lado a lado:
+ * registros que começam com {@link TaskEventCodec#MAGIC} são binários; o resto é o JSON legado,
+ * repassado ao {@link JsonDeserializer} do Spring com a mesma configuração
+ * (spring.json.trusted.packages, headers de tipo).
+ *
+ * Tipo binário desconhecido (writer mais novo) vira {@code null}, que os listeners já ignoram.
+ * O mesmo vale para registros recusados pelo {@link TaskEventHeaderFilter} em
+ * {@link #FILTER_CONFIG}: o filtro só olha os headers e o payload nem é lido.
+ */
+public class TaskEventDeserializer implements Deserializer<Object> {
+  public static final String FILTER_CONFIG = "task.events.header-filter";
+
+  private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+  private TaskEventHeaderFilter filter;
+
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    filter = configs.get(FILTER_CONFIG) instanceof TaskEventHeaderFilter f ? f : null;
+    json.configure(configs, isKey);
+  }
+
+  @Override
+  public Object deserialize(String topic, byte[] data) {
+    return deserialize(topic, null, data);
+  }
+
+  @Override
+  public Object deserialize(String topic, Headers headers, byte[] data) {
+    if (data == null) return null;
+    if (filter != null && headers != null && !filter.accept(topic, headers)) return null;
+    if (TaskEventCodec.isBinary(data)) {
+      return TaskEventCodec.decode(data);
+    }
+    return headers == null ? json.deserialize(topic, data) : json.deserialize(topic, headers, data);
+  }
+
+  @Override
+  public void close() {
+    json.close();
+  }
+}
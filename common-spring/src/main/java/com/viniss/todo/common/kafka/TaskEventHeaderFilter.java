@@ -0,0 +1,19 @@
+package com.viniss.todo.common.kafka;
+
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Filtro de task.events por header ({@link TaskEventHeaders}), aplicado pelo
+ * {@link TaskEventDeserializer} antes de qualquer parsing: registro recusado chega ao listener
+ * com valor {@code null}, que os listeners já ignoram (como um tombstone), e o offset segue o
+ * lote normalmente.
+ *
+ * Um bean por serviço; {@link TaskEventHeaderFilterConfig} o registra no consumer factory.
+ * Vale para todos os consumidores com o TaskEventDeserializer (principal, retry, rebuild).
+ */
+@FunctionalInterface
+public interface TaskEventHeaderFilter {
+
+  /** @return {@code false} para descartar o registro sem desserializar o payload */
+  boolean accept(String topic, Headers headers);
+}
@@ -0,0 +1,39 @@
+package com.viniss.todo.common.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Entrega o {@link TaskEventHeaderFilter} do serviço (se houver) ao {@link TaskEventDeserializer}
+ * pela config do consumer factory ({@link TaskEventDeserializer#FILTER_CONFIG}), do mesmo jeito
+ * que o formato chega ao serializer. Consumidores que trocam o value-deserializer (redrive do DLT,
+ * cache do task-service) não são afetados.
+ *
+ * Métrica: kafka.consumer.filtered (tags topic, type) — registros descartados sem parsing.
+ */
+@Configuration
+public class TaskEventHeaderFilterConfig {
+
+  @Bean
+  public DefaultKafkaConsumerFactoryCustomizer taskEventHeaderFilterCustomizer(ObjectProvider<TaskEventHeaderFilter> filter,
+                                                                               MeterRegistry registry) {
+    return factory -> filter.ifAvailable(f -> factory.updateConfigs(Map.of(TaskEventDeserializer.FILTER_CONFIG,
+        (TaskEventHeaderFilter) (topic, headers) -> {
+          if (f.accept(topic, headers)) return true;
+          String type = TaskEventHeaders.type(headers);
+          Counter.builder("kafka.consumer.filtered")
+              .description("Registros descartados pelos headers, sem desserializar")
+              .tag("topic", topic)
+              .tag("type", type == null ? "unknown" : type)
+              .register(registry)
+              .increment();
+          return false;
+        })));
+  }
+}
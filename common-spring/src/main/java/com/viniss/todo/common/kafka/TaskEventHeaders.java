@@ -0,0 +1,55 @@
+package com.viniss.todo.common.kafka;
+
+import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.events.TaskEvent;
+import com.viniss.todo.common.events.TaskUpdated;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Headers de roteamento de task.events, gravados pelo {@link TaskEventSerializer} em todo evento
+ * publicado (producer direto e outbox). Consumidores decidem por eles — via
+ * {@link TaskEventHeaderFilter} — sem desserializar o payload.
+ *
+ * Registros sem esses headers (produtores anteriores) sempre seguem para o payload.
+ */
+public final class TaskEventHeaders {
+  /** Nome simples do tipo: TaskCreated, TaskUpdated, TaskStatusChanged. */
+  public static final String TYPE = "x-task-event-type";
+  /** projectId da task; ausente em eventos que não o carregam (TaskStatusChanged). */
+  public static final String PROJECT_ID = "x-task-project-id";
+  /** Formato do payload: {@code binary-v{TaskEventCodec.VERSION}} ou {@code json}. */
+  public static final String SCHEMA = "x-task-schema";
+  /** occurredAt do evento, epoch millis. */
+  public static final String OCCURRED_AT = "x-task-occurred-at";
+
+  private TaskEventHeaders() {}
+
+  /** Grava (ou substitui, em republicações) os headers do evento. */
+  public static void stamp(Headers headers, TaskEvent event, String schema) {
+    put(headers, TYPE, event.getClass().getSimpleName());
+    put(headers, PROJECT_ID, projectId(event));
+    put(headers, SCHEMA, schema);
+    put(headers, OCCURRED_AT, event.occurredAt() == null ? null : event.occurredAt().toInstant().toEpochMilli());
+  }
+
+  /** @return o tipo do evento, ou {@code null} em registros sem headers */
+  public static String type(Headers headers) {
+    return headers == null ? null : TaskEventRetryTopics.header(headers, TYPE);
+  }
+
+  /** @return o projectId do evento, ou {@code null} em registros sem headers ou eventos sem projeto */
+  public static String projectId(Headers headers) {
+    return headers == null ? null : TaskEventRetryTopics.header(headers, PROJECT_ID);
+  }
+
+  private static String projectId(TaskEvent event) {
+    if (event instanceof TaskCreated e) return e.projectId();
+    if (event instanceof TaskUpdated e) return e.projectId();
+    return null;
+  }
+
+  private static void put(Headers headers, String name, Object value) {
+    headers.remove(name);
+    if (value != null) headers.add(name, TaskEventRetryTopics.bytes(value));
+  }
+}
@@ -0,0 +1,55 @@
+package com.viniss.todo.common.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.listener.ContainerPartitionPausingBackOffManager;
+import org.springframework.kafka.listener.ContainerPausingBackOffHandler;
+import org.springframework.kafka.listener.KafkaConsumerBackoffManager;
+import org.springframework.kafka.listener.ListenerContainerPauseService;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Atraso dos tiers de retry sem segurar a thread do consumidor (mesmo mecanismo do
+ * {@code @RetryableTopic} do Spring Kafka): um registro que ainda não venceu o
+ * {@link TaskEventRetryTopics#DUE_AT} pausa a própria partição até o vencimento e lança
+ * {@link org.springframework.kafka.listener.KafkaBackoffException}; o error handler
+ * (TaskEventRetryConfig) faz o seek de volta para ele sem passar pelo recoverer.
+ *
+ * O poll continua rodando durante a pausa, então atrasos maiores que max.poll.interval.ms não
+ * tiram o consumidor do grupo, e as demais partições do tier seguem sendo consumidas.
+ */
+public class TaskEventRetryBackOff implements DisposableBean {
+  private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+  private final KafkaConsumerBackoffManager backOffManager;
+
+  public TaskEventRetryBackOff(ListenerContainerRegistry registry) {
+    // só retoma partições pausadas; não é exposto como bean para não virar o TaskScheduler da aplicação
+    scheduler.setThreadNamePrefix("task-retry-resume-");
+    scheduler.setDaemon(true);
+    scheduler.initialize();
+    this.backOffManager = new ContainerPartitionPausingBackOffManager(registry,
+        new ContainerPausingBackOffHandler(new ListenerContainerPauseService(registry, scheduler)));
+  }
+
+  /**
+   * Retorna se o registro já venceu o atraso do tier; senão pausa a partição e lança
+   * KafkaBackoffException. Os registros de um tier têm todos o mesmo atraso e chegam em ordem,
+   * então barrar o primeiro da partição é o mesmo que uma fila com atraso.
+   *
+   * @param listenerId {@code id} do @KafkaListener do tier (é o container que pausa a partição)
+   */
+  public void awaitDue(ConsumerRecord<?, ?> record, String listenerId, Consumer<?, ?> consumer) {
+    Long dueAt = TaskEventRetryTopics.dueAt(record);
+    if (dueAt == null) return;
+    backOffManager.backOffIfNecessary(backOffManager.createContext(dueAt, listenerId,
+        new TopicPartition(record.topic(), record.partition()), consumer));
+  }
+
+  @Override
+  public void destroy() {
+    scheduler.shutdown();
+  }
+}
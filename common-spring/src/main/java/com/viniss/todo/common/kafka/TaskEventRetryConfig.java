@@ -0,0 +1,150 @@
+package com.viniss.todo.common.kafka;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerAwareRecordRecoverer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.SeekUtils;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tratamento de falhas dos consumidores de task.events (só onde {@code app.kafka.retry.app}
+ * está definido; o nome entra nos tópicos de retry e no header {@link TaskEventRetryTopics#FAILED_APP}).
+ *
+ * <ul>
+ *   <li>Payload inválido ({@link UnsupportedTaskEventException}, conversão, ClassCast...): direto ao
+ *       task.events.DLT, sem nenhuma tentativa — um registro envenenado não atrasa os de trás.</li>
+ *   <li>Demais falhas: até {@code app.kafka.retry.in-place} de retries no lugar (absorve um
+ *       soluço do banco), depois o registro sai da partição para
+ *       task.events.{app}.retry-0..N, um tier por atraso de {@code app.kafka.retry.delays},
+ *       e por fim o DLT.</li>
+ *   <li>Registro de tier que ainda não venceu o atraso ({@link TaskEventRetryBackOff}): a
+ *       partição fica pausada e o offset volta para ele; não é falha nem vai a lugar algum.</li>
+ * </ul>
+ *
+ * O DLT leva os headers kafka_dlt-* do Spring (exceção, stacktrace, tópico/partição/offset de
+ * origem) mais os de {@link TaskEventRetryTopics}. Métrica: kafka.consumer.dead-letter
+ * (tags app, destination = retry|dlt, reason).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.kafka.retry.app")
+public class TaskEventRetryConfig {
+  /** Falhas do próprio payload: repetir dá o mesmo resultado. */
+  @SuppressWarnings("unchecked")
+  static final Class<? extends Exception>[] NON_RETRYABLE = new Class[] {
+      UnsupportedTaskEventException.class,
+      DeserializationException.class,
+      MessageConversionException.class,
+      ClassCastException.class,
+      IllegalArgumentException.class};
+
+  private final String app;
+  private final List<Duration> delays;
+  private final int partitions;
+
+  public TaskEventRetryConfig(@Value("${app.kafka.retry.app}") String app,
+                              @Value("${app.kafka.retry.delays:5s,30s,2m}") List<Duration> delays,
+                              @Value("${app.kafka.retry.partitions:3}") int partitions) {
+    this.app = app;
+    this.delays = List.copyOf(delays);
+    this.partitions = partitions;
+  }
+
+  @Bean
+  public KafkaAdmin.NewTopics taskEventRetryTopics() {
+    List<NewTopic> topics = new ArrayList<>();
+    for (int tier = 0; tier < delays.size(); tier++) {
+      topics.add(TopicBuilder.name(TaskEventRetryTopics.retryTopic(app, tier)).partitions(partitions).build());
+    }
+    topics.add(TopicBuilder.name(TaskEventRetryTopics.DLT).partitions(partitions).build());
+    return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+  }
+
+  @Bean
+  public DeadLetterPublishingRecoverer taskEventDeadLetterRecoverer(KafkaTemplate<Object, Object> template,
+                                                                    MeterRegistry registry) {
+    // partição -1: o producer particiona pela key (taskId), mantendo a ordem por task nos tiers
+    DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(template, (record, ex) -> {
+      Route route = route(record, ex);
+      registry.counter("kafka.consumer.dead-letter",
+          "app", app, "destination", route.dlt() ? "dlt" : "retry", "reason", route.reason()).increment();
+      return new TopicPartition(route.topic(), -1);
+    });
+    recoverer.addHeadersFunction((record, ex) -> {
+      Route route = route(record, ex);
+      RecordHeaders headers = new RecordHeaders();
+      headers.add(TaskEventRetryTopics.ATTEMPT, TaskEventRetryTopics.bytes(route.tier()));
+      headers.add(TaskEventRetryTopics.FAILED_APP, TaskEventRetryTopics.bytes(app));
+      if (route.dlt()) {
+        headers.add(TaskEventRetryTopics.FAILURE_REASON, TaskEventRetryTopics.bytes(route.reason()));
+      } else {
+        long dueAt = System.currentTimeMillis() + delays.get(route.tier()).toMillis();
+        headers.add(TaskEventRetryTopics.DUE_AT, TaskEventRetryTopics.bytes(dueAt));
+      }
+      return headers;
+    });
+    return recoverer;
+  }
+
+  /** Vira o CommonErrorHandler de todos os containers do factory padrão do Boot. */
+  @Bean
+  public DefaultErrorHandler taskEventErrorHandler(DeadLetterPublishingRecoverer recoverer,
+                                                   @Value("${app.kafka.retry.in-place:1s}") Duration inPlace) {
+    ExponentialBackOff backOff = new ExponentialBackOff(100, 2.0);
+    backOff.setMaxElapsedTime(inPlace.toMillis());
+    // KafkaBackoffException já sai sem retry no lugar; relançada pelo recoverer, o handler só faz o seek
+    ConsumerAwareRecordRecoverer backOffAware = (record, consumer, ex) -> {
+      if (SeekUtils.isBackoffException(ex)) throw (NestedRuntimeException) ex;
+      recoverer.accept(record, consumer, ex);
+    };
+    DefaultErrorHandler handler = new DefaultErrorHandler(backOffAware, backOff);
+    handler.addNotRetryableExceptions(NON_RETRYABLE);
+    return handler;
+  }
+
+  @Bean
+  public TaskEventRetryBackOff taskEventRetryBackOff(ListenerContainerRegistry registry) {
+    return new TaskEventRetryBackOff(registry);
+  }
+
+  Route route(ConsumerRecord<?, ?> record, Exception ex) {
+    int tier = TaskEventRetryTopics.attempt(record) + 1;
+    if (isNonRetryable(ex)) {
+      return new Route(TaskEventRetryTopics.DLT, tier, true, "non-retryable");
+    }
+    if (tier >= delays.size()) {
+      return new Route(TaskEventRetryTopics.DLT, tier, true, "exhausted");
+    }
+    return new Route(TaskEventRetryTopics.retryTopic(app, tier), tier, false, "failed");
+  }
+
+  private static boolean isNonRetryable(Throwable ex) {
+    for (Throwable t = ex; t != null; t = t.getCause() == t ? null : t.getCause()) {
+      for (Class<? extends Exception> type : NON_RETRYABLE) {
+        if (type.isInstance(t)) return true;
+      }
+    }
+    return false;
+  }
+
+  record Route(String topic, int tier, boolean dlt, String reason) {}
+}
@@ -0,0 +1,68 @@
+package com.viniss.todo.common.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Nomes e headers da trilha de falhas dos consumidores de task.events.
+ *
+ * <pre>
+ * task.events ──falha──▶ task.events.{app}.retry-0 ──▶ ... ──▶ task.events.{app}.retry-N ──▶ task.events.DLT
+ *             └─payload inválido (não retentável)─────────────────────────────────────────▶ task.events.DLT
+ * </pre>
+ *
+ * Cada consumidor ({app} = app.kafka.retry.app) tem os seus tópicos de retry; o DLT é único e
+ * o header {@link #FAILED_APP} diz de quem é o registro.
+ */
+public final class TaskEventRetryTopics {
+  public static final String TOPIC = "task.events";
+  public static final String DLT = "task.events.DLT";
+
+  /** Tier em que o registro está (0, 1, ...); no DLT, quantos tiers ele percorreu. */
+  public static final String ATTEMPT = "x-task-retry-attempt";
+  /** Epoch millis a partir do qual o tier pode reprocessar o registro. */
+  public static final String DUE_AT = "x-task-retry-due-at";
+  /** Consumidor (app.kafka.retry.app) em que o registro falhou. */
+  public static final String FAILED_APP = "x-task-failed-app";
+  /** {@code non-retryable} (payload inválido, direto ao DLT) ou {@code exhausted} (tiers esgotados). */
+  public static final String FAILURE_REASON = "x-task-failure-reason";
+
+  private TaskEventRetryTopics() {}
+
+  public static String retryTopic(String app, int tier) {
+    return TOPIC + "." + app + ".retry-" + tier;
+  }
+
+  /** Padrão para {@code @KafkaListener(topicPattern = ...)}: todos os tiers do consumidor. */
+  public static String retryTopicPattern(String app) {
+    return TOPIC.replace(".", "\\.") + "\\." + app.replace(".", "\\.") + "\\.retry-\\d+";
+  }
+
+  /** @return o tier do registro, ou -1 se ele veio do tópico principal */
+  public static int attempt(ConsumerRecord<?, ?> record) {
+    String value = header(record.headers(), ATTEMPT);
+    return value == null ? -1 : Integer.parseInt(value);
+  }
+
+  /**
+   * @return epoch millis em que o registro pode ser reprocessado pelo tier ({@link #DUE_AT}), ou
+   *         {@code null} se ele não veio de um tier de retry
+   * @see TaskEventRetryBackOff
+   */
+  public static Long dueAt(ConsumerRecord<?, ?> record) {
+    String value = header(record.headers(), DUE_AT);
+    return value == null ? null : Long.parseLong(value);
+  }
+
+  static String header(Headers headers, String name) {
+    Header h = headers.lastHeader(name);
+    return h == null ? null : new String(h.value(), StandardCharsets.UTF_8);
+  }
+
+  static byte[] bytes(Object value) {
+    return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+  }
+}
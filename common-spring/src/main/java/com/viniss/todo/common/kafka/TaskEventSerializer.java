@@ -0,0 +1,55 @@
+package com.viniss.todo.common.kafka;
+
+import com.viniss.todo.common.events.TaskEvent;
+import com.viniss.todo.common.events.TaskEventCodec;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Serializer de valor para task.events: {@link TaskEventCodec} (binário) por padrão.
+ *
+ * {@code task.events.format=json} (em spring.kafka.producer.properties) volta ao JSON do
+ * Spring com headers de tipo — é a alavanca de rollback da janela de migração. Valores que
+ * não são {@link TaskEvent} sempre saem em JSON.
+ *
+ * Todo {@link TaskEvent} sai com os headers de roteamento de {@link TaskEventHeaders} (tipo,
+ * projectId, formato, occurredAt), para os consumidores filtrarem sem ler o payload.
+ */
+public class TaskEventSerializer implements Serializer<Object> {
+  public static final String FORMAT_CONFIG = "task.events.format";
+
+  private final JsonSerializer<Object> json = new JsonSerializer<>();
+  private boolean binary = true;
+
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    Object format = configs.get(FORMAT_CONFIG);
+    binary = format == null || !"json".equalsIgnoreCase(format.toString());
+    json.configure(configs, isKey);
+  }
+
+  @Override
+  public byte[] serialize(String topic, Object data) {
+    return serialize(topic, null, data);
+  }
+
+  @Override
+  public byte[] serialize(String topic, Headers headers, Object data) {
+    if (data == null) return null;
+    if (data instanceof TaskEvent event && headers != null) {
+      TaskEventHeaders.stamp(headers, event, binary ? "binary-v" + TaskEventCodec.VERSION : "json");
+    }
+    if (binary && data instanceof TaskEvent event) {
+      return TaskEventCodec.encode(event);
+    }
+    return headers == null ? json.serialize(topic, data) : json.serialize(topic, headers, data);
+  }
+
+  @Override
+  public void close() {
+    json.close();
+  }
+}
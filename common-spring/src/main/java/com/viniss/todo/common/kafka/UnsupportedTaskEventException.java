@@ -0,0 +1,11 @@
+package com.viniss.todo.common.kafka;
+
+/**
+ * Payload de task.events que o consumidor não sabe interpretar. Não adianta tentar de novo:
+ * o registro vai direto para o task.events.DLT.
+ */
+public class UnsupportedTaskEventException extends RuntimeException {
+  public UnsupportedTaskEventException(String message) {
+    super(message);
+  }
+}
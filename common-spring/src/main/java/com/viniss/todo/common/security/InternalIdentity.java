@@ -0,0 +1,7 @@
+package com.viniss.todo.common.security;
+
+import java.time.Instant;
+
+/** Identidade que o gateway repassa aos serviços: usuário, grants já calculados e validade. */
+public record InternalIdentity(String subject, ProjectGrants grants, Instant expiresAt) {
+}
@@ -0,0 +1,35 @@
+package com.viniss.todo.common.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+import java.util.List;
+
+/** Autenticação reconstruída da identidade interna: principal = subject do JWT original. */
+public class InternalIdentityAuthentication extends AbstractAuthenticationToken implements ProjectGrantsHolder {
+  private final InternalIdentity identity;
+
+  public InternalIdentityAuthentication(InternalIdentity identity) {
+    super(List.of());
+    this.identity = identity;
+    setAuthenticated(true);
+  }
+
+  @Override
+  public Object getCredentials() {
+    return "";
+  }
+
+  @Override
+  public Object getPrincipal() {
+    return identity.subject();
+  }
+
+  @Override
+  public ProjectGrants grants() {
+    return identity.grants();
+  }
+
+  public InternalIdentity identity() {
+    return identity;
+  }
+}
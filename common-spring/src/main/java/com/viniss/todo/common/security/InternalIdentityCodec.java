@@ -0,0 +1,127 @@
+package com.viniss.todo.common.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Identidade interna assinada (header {@link #HEADER}): o gateway valida o JWT, calcula os
+ * {@link ProjectGrants} e repassa {@code v1.<payload>.<hmac>} aos serviços, que verificam com um
+ * único HMAC-SHA256 em vez de JWKS + parsing do JWT.
+ *
+ * Payload binário (base64url): expiração em epoch seconds, subject, flags (admin, leitura ampla) e
+ * os pares projectId → bits. Vida curta ({@code app.security.internal-identity.ttl}): vale só para
+ * as chamadas de uma request do gateway. Segredo compartilhado em
+ * {@code app.security.internal-identity.secret} (no mínimo 32 bytes).
+ */
+public class InternalIdentityCodec {
+  public static final String HEADER = "X-Internal-Identity";
+  private static final String VERSION = "v1";
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final int MAX_LENGTH = 16 * 1024;
+  private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+
+  private final SecretKeySpec key;
+  private final Duration ttl;
+  private final Clock clock;
+  private final ThreadLocal<Mac> macs;
+
+  public InternalIdentityCodec(String secret, Duration ttl) {
+    this(secret, ttl, Clock.systemUTC());
+  }
+
+  InternalIdentityCodec(String secret, Duration ttl, Clock clock) {
+    byte[] bytes = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length < 32) {
+      throw new IllegalStateException("app.security.internal-identity.secret precisa de pelo menos 32 bytes");
+    }
+    this.key = new SecretKeySpec(bytes, ALGORITHM);
+    this.ttl = ttl;
+    this.clock = clock;
+    this.macs = ThreadLocal.withInitial(() -> {
+      try {
+        Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(key);
+        return mac;
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException(ALGORITHM + " indisponível", e);
+      }
+    });
+  }
+
+  public String mint(String subject, ProjectGrants grants) {
+    byte[] payload = encode(subject, grants, clock.instant().plus(ttl));
+    return VERSION + "." + B64.encodeToString(payload) + "." + B64.encodeToString(mac(payload));
+  }
+
+  /** @throws IllegalArgumentException header malformado, assinatura inválida ou expirado */
+  public InternalIdentity verify(String header) {
+    if (header == null || header.length() > MAX_LENGTH || !header.startsWith(VERSION + ".")) {
+      throw new IllegalArgumentException("identidade interna malformada");
+    }
+    int dot = header.indexOf('.', VERSION.length() + 1);
+    if (dot < 0) throw new IllegalArgumentException("identidade interna malformada");
+    byte[] payload = B64D.decode(header.substring(VERSION.length() + 1, dot));
+    byte[] signature = B64D.decode(header.substring(dot + 1));
+    if (!MessageDigest.isEqual(mac(payload), signature)) {
+      throw new IllegalArgumentException("assinatura da identidade interna inválida");
+    }
+    InternalIdentity identity = decode(payload);
+    if (!identity.expiresAt().isAfter(clock.instant())) {
+      throw new IllegalArgumentException("identidade interna expirada");
+    }
+    return identity;
+  }
+
+  private byte[] mac(byte[] payload) {
+    return macs.get().doFinal(payload);
+  }
+
+  private static byte[] encode(String subject, ProjectGrants grants, Instant expiresAt) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + grants.projects().size() * 24);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeLong(expiresAt.getEpochSecond());
+      out.writeUTF(subject == null ? "" : subject);
+      out.writeByte((grants.admin() ? 2 : 0) | (grants.readAll() ? 1 : 0));
+      out.writeInt(grants.projects().size());
+      for (Map.Entry<String, Integer> e : grants.projects().entrySet()) {
+        out.writeUTF(e.getKey());
+        out.writeByte(e.getValue());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e); // ByteArrayOutputStream não falha
+    }
+    return bytes.toByteArray();
+  }
+
+  private static InternalIdentity decode(byte[] payload) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      Instant expiresAt = Instant.ofEpochSecond(in.readLong());
+      String subject = in.readUTF();
+      int flags = in.readByte();
+      int count = in.readInt();
+      if (count < 0 || count > payload.length) throw new IllegalArgumentException("identidade interna malformada");
+      Map<String, Integer> projects = new HashMap<>(count * 2);
+      for (int i = 0; i < count; i++) projects.put(in.readUTF(), (int) in.readByte());
+      ProjectGrants grants = ProjectGrants.of((flags & 2) != 0, (flags & 1) != 0, projects);
+      return new InternalIdentity(subject.isEmpty() ? null : subject, grants, expiresAt);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("identidade interna malformada", e);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.viniss.todo.common.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * {@link InternalIdentityCodec} com o segredo compartilhado entre gateway e serviços. No gateway
+ * o {@code FeignHeadersConfig} assina a identidade em cada chamada; nos serviços o
+ * {@link InternalIdentityFilter} a verifica ({@code app.security.internal-identity.verify}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.security.internal-identity.enabled", havingValue = "true")
+public class InternalIdentityConfig {
+
+  @Bean
+  public InternalIdentityCodec internalIdentityCodec(@Value("${app.security.internal-identity.secret:}") String secret,
+                                                     @Value("${app.security.internal-identity.ttl:30s}") Duration ttl) {
+    return new InternalIdentityCodec(secret, ttl);
+  }
+}
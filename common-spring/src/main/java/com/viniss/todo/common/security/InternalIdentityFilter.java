@@ -0,0 +1,88 @@
+package com.viniss.todo.common.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Nos serviços atrás do gateway: verifica o header {@link InternalIdentityCodec#HEADER} (um HMAC)
+ * e monta a {@link InternalIdentityAuthentication} com os grants que vieram nele. O
+ * {@code @PreAuthorize} do serviço usa esses grants sem JWKS nem parsing de JWT.
+ *
+ * Roda antes da cadeia do Spring Security e grava o contexto também no atributo da request
+ * ({@link RequestAttributeSecurityContextRepository}), de onde a cadeia o carrega. Sem header a
+ * request segue anônima; header inválido ou expirado → 401.
+ *
+ * Ativo com {@code app.security.internal-identity.verify=true}. Métrica:
+ * security.internal-identity (result = accepted | rejected).
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@ConditionalOnProperty(name = "app.security.internal-identity.verify", havingValue = "true")
+public class InternalIdentityFilter extends OncePerRequestFilter {
+  private static final Logger log = LoggerFactory.getLogger(InternalIdentityFilter.class);
+
+  private final InternalIdentityCodec codec;
+  private final RequestAttributeSecurityContextRepository repository = new RequestAttributeSecurityContextRepository();
+  private final Counter accepted;
+  private final Counter rejected;
+
+  public InternalIdentityFilter(InternalIdentityCodec codec, MeterRegistry registry) {
+    this.codec = codec;
+    this.accepted = counter(registry, "accepted");
+    this.rejected = counter(registry, "rejected");
+  }
+
+  private static Counter counter(MeterRegistry registry, String result) {
+    return Counter.builder("security.internal-identity")
+        .description("Identidades internas verificadas")
+        .tag("result", result)
+        .register(registry);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String header = request.getHeader(InternalIdentityCodec.HEADER);
+    if (header == null) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    InternalIdentity identity;
+    try {
+      identity = codec.verify(header);
+    } catch (IllegalArgumentException e) {
+      rejected.increment();
+      log.debug("internal_identity_rejected reason={}", e.getMessage());
+      response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+      return;
+    }
+    accepted.increment();
+
+    SecurityContext context = SecurityContextHolder.createEmptyContext();
+    context.setAuthentication(new InternalIdentityAuthentication(identity));
+    SecurityContextHolder.setContext(context);
+    repository.saveContext(context, request, response);
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.viniss.todo.common.security;
+
+import org.springframework.security.core.Authentication;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Permissões de projeto de um usuário, lidas uma vez e imutáveis: flag de admin, flag de leitura
+ * ampla e projectId → bits {@link #READ}/{@link #WRITE}. Cada checagem vira um lookup num mapa.
+ *
+ * No gateway vêm dos claims do JWT ({@link #from(Map)}); nos serviços, da identidade interna
+ * assinada pelo gateway ({@link InternalIdentityCodec}). Claims reconhecidos:
+ * <ul>
+ *   <li>{@code roles} com "admin" → admin (o scope {@code admin} só libera /admin/** no gateway)</li>
+ *   <li>{@code projects}: ["p1", ...] ou "p1,p2" → leitura e escrita</li>
+ *   <li>scope {@code project:read} → leitura em qualquer projeto</li>
+ *   <li>scope {@code project:{id}:read} / {@code project:{id}:write}</li>
+ *   <li>{@code project_roles}: {"p1": ["OWNER", ...]} → leitura; OWNER/WRITER/ADMIN também escrita</li>
+ * </ul>
+ */
+public final class ProjectGrants {
+  public static final int READ = 1;
+  public static final int WRITE = 2;
+
+  public static final ProjectGrants NONE = new ProjectGrants(false, false, Map.of());
+
+  private final boolean admin;
+  private final boolean readAll;
+  private final Map<String, Integer> projects;
+
+  private ProjectGrants(boolean admin, boolean readAll, Map<String, Integer> projects) {
+    this.admin = admin;
+    this.readAll = readAll;
+    this.projects = projects;
+  }
+
+  public static ProjectGrants of(boolean admin, boolean readAll, Map<String, Integer> projects) {
+    if (!admin && !readAll && projects.isEmpty()) return NONE;
+    return new ProjectGrants(admin, readAll, Map.copyOf(projects));
+  }
+
+  /** Grants pré-calculados da autenticação ({@link ProjectGrantsHolder}); {@link #NONE} se não houver. */
+  public static ProjectGrants of(Authentication authentication) {
+    return authentication instanceof ProjectGrantsHolder holder ? holder.grants() : NONE;
+  }
+
+  /** Lê os claims de um JWT (mapa de claims já convertido). */
+  public static ProjectGrants from(Map<String, Object> claims) {
+    boolean admin = false;
+    for (String role : strings(claims.get("roles"))) {
+      if (role.equalsIgnoreCase("admin")) admin = true;
+    }
+
+    Map<String, Integer> projects = new HashMap<>();
+    for (String projectId : strings(claims.get("projects"))) {
+      projects.merge(projectId, READ | WRITE, (a, b) -> a | b);
+    }
+
+    boolean readAll = false;
+    Object scope = claims.get("scope");
+    Collection<String> scopes = scope instanceof String s ? List.of(s.split("\\s+")) : strings(scope);
+    for (String s : scopes) {
+      if (s.equals("project:read")) readAll = true;
+      else if (s.startsWith("project:") && s.endsWith(":read") && s.length() > 13) {
+        projects.merge(s.substring(8, s.length() - 5), READ, (a, b) -> a | b);
+      } else if (s.startsWith("project:") && s.endsWith(":write") && s.length() > 14) {
+        projects.merge(s.substring(8, s.length() - 6), READ | WRITE, (a, b) -> a | b);
+      }
+    }
+
+    if (claims.get("project_roles") instanceof Map<?, ?> map) {
+      for (Map.Entry<?, ?> e : map.entrySet()) {
+        if (e.getKey() == null || !(e.getValue() instanceof Collection<?> roles) || roles.isEmpty()) continue;
+        int bits = READ;
+        for (Object role : roles) {
+          String r = String.valueOf(role);
+          if (r.equalsIgnoreCase("OWNER") || r.equalsIgnoreCase("WRITER") || r.equalsIgnoreCase("ADMIN")) bits |= WRITE;
+        }
+        projects.merge(String.valueOf(e.getKey()), bits, (a, b) -> a | b);
+      }
+    }
+
+    return of(admin, readAll, projects);
+  }
+
+  public boolean canRead(String projectId) {
+    if (projectId == null || projectId.isBlank()) return false;
+    return admin || readAll || (bits(projectId) & READ) != 0;
+  }
+
+  public boolean canWrite(String projectId) {
+    if (projectId == null || projectId.isBlank()) return false;
+    return admin || (bits(projectId) & WRITE) != 0;
+  }
+
+  public boolean admin() {
+    return admin;
+  }
+
+  public boolean readAll() {
+    return readAll;
+  }
+
+  /** @return bits {@link #READ}/{@link #WRITE} concedidos explicitamente ao projeto (0 se nenhum) */
+  public int bits(String projectId) {
+    return projects.getOrDefault(projectId, 0);
+  }
+
+  /** projectId → bits, só os concedidos explicitamente. */
+  public Map<String, Integer> projects() {
+    return projects;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof ProjectGrants g && admin == g.admin && readAll == g.readAll && projects.equals(g.projects);
+  }
+
+  @Override
+  public int hashCode() {
+    return projects.hashCode() * 31 + (admin ? 2 : 0) + (readAll ? 1 : 0);
+  }
+
+  @Override
+  public String toString() {
+    return "ProjectGrants[admin=" + admin + ", readAll=" + readAll + ", projects=" + projects.size() + "]";
+  }
+
+  private static Collection<String> strings(Object claim) {
+    if (claim instanceof Collection<?> col) {
+      return col.stream().filter(o -> o != null).map(String::valueOf).toList();
+    }
+    if (claim instanceof String s && !s.isBlank()) return List.of(s.split("\\s*,\\s*"));
+    return List.of();
+  }
+}
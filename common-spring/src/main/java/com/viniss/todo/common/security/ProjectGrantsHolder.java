@@ -0,0 +1,11 @@
+package com.viniss.todo.common.security;
+
+/**
+ * Autenticação que já carrega os {@link ProjectGrants} do usuário (JWT no gateway, identidade
+ * interna nos serviços). {@link ProjectGrants#of(org.springframework.security.core.Authentication)}
+ * lê daqui sem reprocessar nada.
+ */
+public interface ProjectGrantsHolder {
+
+  ProjectGrants grants();
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
@@ -86,6 +87,11 @@ class GlobalExceptionHandlerTest {
             throw new DataIntegrityViolationException("dup");
         }
 
+        @GetMapping("/412")
+        public String stale() {
+            throw new OptimisticLockingFailureException("stale");
+        }
+
         @GetMapping("/timeout")
         public String timeout() throws Exception {
             throw new TimeoutException("slow");
@@ -153,6 +159,15 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.code").value("conflict"));
     }
 
+    @Test
+    @DisplayName("OptimisticLockingFailure → 412 precondition_failed")
+    void optimisticLock_returns412() throws Exception {
+        mvc.perform(get("/test-ex/412")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code").value("precondition_failed"));
+    }
+
     @Test
     @DisplayName("TimeoutException → 504 upstream_timeout")
     void timeout_returns504() throws Exception {
@@ -0,0 +1,85 @@
+package com.viniss.todo.common.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Lag contra um broker embutido: 5 registros produzidos na partição 0, grupo commitado no offset 2.
+ */
+@EmbeddedKafka(partitions = 2, topics = ConsumerLagMonitorTest.TOPIC)
+class ConsumerLagMonitorTest {
+
+    static final String TOPIC = "task.events";
+    static final String GROUP = "activity-service";
+
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Lag = offset final - commitado, por partição; gauge e health refletem o snapshot")
+    void lagPorParticao(EmbeddedKafkaBroker broker) throws Exception {
+        produce(broker, 5);
+        commit(broker, 2);
+
+        Map<String, Object> adminProps = Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        ConsumerLagMonitor monitor = new ConsumerLagMonitor(new KafkaAdmin(adminProps), registry,
+                List.of(GROUP), Duration.ofSeconds(15), Duration.ofSeconds(10));
+
+        assertThat(new ConsumerLagHealthIndicator(monitor, 10).health().getStatus()).isEqualTo(Status.UNKNOWN);
+
+        try (Admin admin = Admin.create(adminProps)) {
+            monitor.refresh(admin);
+        }
+
+        assertThat(monitor.snapshot().lag().get(GROUP)).containsEntry(new TopicPartition(TOPIC, 0), 3L);
+        assertThat(registry.get("kafka.consumer.lag")
+                .tags("group", GROUP, "topic", TOPIC, "partition", "0")
+                .gauge().value()).isEqualTo(3.0);
+
+        assertThat(new ConsumerLagHealthIndicator(monitor, 10).health().getStatus()).isEqualTo(Status.UP);
+        Health degraded = new ConsumerLagHealthIndicator(monitor, 2).health();
+        assertThat(degraded.getStatus()).isEqualTo(ConsumerLagHealthIndicator.DEGRADED);
+        assertThat(degraded.getDetails()).containsKey("groups");
+    }
+
+    static void produce(EmbeddedKafkaBroker broker, int count) throws Exception {
+        Map<String, Object> props = KafkaTestUtils.producerProps(broker);
+        try (KafkaProducer<String, String> producer =
+                     new KafkaProducer<>(props, new StringSerializer(), new StringSerializer())) {
+            for (int i = 0; i < count; i++) {
+                producer.send(new ProducerRecord<>(TOPIC, 0, "t-" + i, "v" + i)).get();
+            }
+        }
+    }
+
+    static void commit(EmbeddedKafkaBroker broker, long offset) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps(GROUP, "false", broker);
+        try (KafkaConsumer<String, String> consumer =
+                     new KafkaConsumer<>(props, new StringDeserializer(), new StringDeserializer())) {
+            TopicPartition tp = new TopicPartition(TOPIC, 0);
+            consumer.assign(List.of(tp));
+            consumer.commitSync(Map.of(tp, new OffsetAndMetadata(offset)));
+        }
+    }
+}
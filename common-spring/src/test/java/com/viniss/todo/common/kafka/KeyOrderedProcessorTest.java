@@ -0,0 +1,128 @@
+package com.viniss.todo.common.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class KeyOrderedProcessorTest {
+
+    record Rec(String key, int seq) {}
+
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final KeyOrderedProcessor processor = new KeyOrderedProcessor(4, registry);
+
+    @AfterEach
+    void close() {
+        processor.close();
+    }
+
+    static List<Rec> batch(int perKey, String... keys) {
+        List<Rec> records = new ArrayList<>();
+        for (int s = 0; s < perKey; s++) {
+            for (String k : keys) records.add(new Rec(k, s));
+        }
+        return records;
+    }
+
+    @Test
+    @DisplayName("Registros da mesma chave são processados em ordem; todos são processados")
+    void ordemPorChave() {
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+
+        processor.forEachRecord("test", batch(20, "a", "b", "c", "d", "e"), Rec::key,
+                r -> seen.computeIfAbsent(r.key(), k -> Collections.synchronizedList(new ArrayList<>())).add(r.seq()));
+
+        assertThat(seen).hasSize(5);
+        seen.values().forEach(seqs -> assertThat(seqs).isSorted().hasSize(20));
+        assertThat(registry.get("kafka.consumer.keyed.lane").tag("listener", "test").timer().count()).isEqualTo(4);
+        assertThat(registry.get("kafka.consumer.keyed.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Uma chave lenta não segura as outras lanes")
+    void chaveLentaNaoBloqueia() throws Exception {
+        CountDownLatch others = new CountDownLatch(1);
+        List<Rec> records = List.of(new Rec("slow", 0), new Rec("fast", 0));
+        assertThat(Math.floorMod("slow".hashCode(), 2)).isNotEqualTo(Math.floorMod("fast".hashCode(), 2));
+        KeyOrderedProcessor two = new KeyOrderedProcessor(2, registry);
+
+        // a lane "slow" só termina depois que a "fast" rodou: com processamento sequencial travaria
+        two.forEachRecord("test", records, Rec::key, r -> {
+            if (r.key().equals("fast")) {
+                others.countDown();
+                return;
+            }
+            try {
+                assertThat(others.await(5, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        two.close();
+    }
+
+    @Test
+    @DisplayName("Falha: lança BatchListenerFailedException com o menor índice que falhou e para a lane")
+    void falhaApontaMenorIndice() {
+        List<Rec> records = batch(3, "a", "b", "c", "d");
+        List<Rec> processed = Collections.synchronizedList(new ArrayList<>());
+
+        assertThatThrownBy(() -> processor.forEachRecord("test", records, Rec::key, r -> {
+            if (r.key().equals("b") && r.seq() == 1) throw new IllegalStateException("boom");
+            processed.add(r);
+        }))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .hasRootCauseMessage("boom")
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getIndex())
+                        .isEqualTo(records.indexOf(new Rec("b", 1))));
+
+        assertThat(processed).doesNotContain(new Rec("b", 2));
+        assertThat(registry.get("kafka.consumer.keyed.failed").tag("listener", "test").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("forEachLane: falha é atribuída ao primeiro registro da lane")
+    void laneFalhaNoPrimeiroRegistro() {
+        KeyOrderedProcessor one = new KeyOrderedProcessor(1, registry);
+        List<Rec> records = batch(2, "a", "b");
+
+        assertThatThrownBy(() -> one.forEachLane("test", records, Rec::key, lane -> {
+            assertThat(lane).containsExactlyElementsOf(records);
+            throw new IllegalStateException("db down");
+        }))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getIndex()).isZero());
+        one.close();
+    }
+
+    @Test
+    @DisplayName("forEachLane: BatchListenerFailedException com o registro aponta o índice exato no lote")
+    void laneApontaRegistro() {
+        KeyOrderedProcessor one = new KeyOrderedProcessor(1, registry);
+        List<ConsumerRecord<String, String>> records = List.of(
+                new ConsumerRecord<>("task.events", 0, 0L, "a", "ok"),
+                new ConsumerRecord<>("task.events", 0, 1L, "a", "poison"),
+                new ConsumerRecord<>("task.events", 0, 2L, "a", "ok"));
+
+        assertThatThrownBy(() -> one.forEachLane("test", records, ConsumerRecord::key, lane -> {
+            throw new BatchListenerFailedException("poison", new UnsupportedTaskEventException("x"), lane.get(1));
+        }))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .hasCauseInstanceOf(UnsupportedTaskEventException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getIndex()).isEqualTo(1));
+        one.close();
+    }
+}
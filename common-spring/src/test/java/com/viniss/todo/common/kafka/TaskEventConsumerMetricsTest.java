@@ -0,0 +1,51 @@
+package com.viniss.todo.common.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TaskEventConsumerMetricsTest {
+
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final TaskEventConsumerMetrics metrics = new TaskEventConsumerMetrics(registry);
+
+    static ConsumerRecord<String, String> record(long timestamp) {
+        return new ConsumerRecord<>("task.events", 0, 0L, timestamp, TimestampType.CREATE_TIME,
+                0, 0, "t-1", "v", new RecordHeaders(), Optional.empty());
+    }
+
+    @Test
+    @DisplayName("Lote ok: conta registros, mede a chamada e o atraso ponta a ponta de cada registro")
+    void sucesso() {
+        long produced = System.currentTimeMillis() - 1_000;
+
+        metrics.observe("activity-service", List.of(record(produced), record(produced)), () -> {});
+
+        assertThat(registry.get("kafka.consumer.records").tag("listener", "activity-service").counter().count()).isEqualTo(2.0);
+        assertThat(registry.get("kafka.consumer.process").tag("listener", "activity-service").timer().count()).isEqualTo(1);
+        var e2e = registry.get("kafka.consumer.end-to-end").tag("listener", "activity-service").timer();
+        assertThat(e2e.count()).isEqualTo(2);
+        assertThat(e2e.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(1_000);
+    }
+
+    @Test
+    @DisplayName("Falha: conta o erro, mede a chamada e propaga a exceção sem contar registros")
+    void falha() {
+        assertThatThrownBy(() -> metrics.observe("gateway", List.of(record(System.currentTimeMillis())), () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.get("kafka.consumer.errors").tag("listener", "gateway").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("kafka.consumer.process").tag("listener", "gateway").timer().count()).isEqualTo(1);
+        assertThat(registry.find("kafka.consumer.records").counter()).isNull();
+    }
+}
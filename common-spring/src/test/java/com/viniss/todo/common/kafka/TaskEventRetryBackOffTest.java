@@ -0,0 +1,88 @@
+package com.viniss.todo.common.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.KafkaBackoffException;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TaskEventRetryBackOffTest {
+
+    static final String LISTENER = "activity-service-retry";
+    static final String TOPIC = "task.events.activity-service.retry-0";
+
+    final ListenerContainerRegistry registry = mock(ListenerContainerRegistry.class);
+    final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    final Consumer<?, ?> consumer = mock(Consumer.class);
+    final TaskEventRetryBackOff backOff = new TaskEventRetryBackOff(registry);
+
+    TaskEventRetryBackOffTest() {
+        when(registry.getListenerContainer(LISTENER)).thenReturn(container);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(TOPIC));
+    }
+
+    @AfterEach
+    void shutdown() {
+        backOff.destroy();
+    }
+
+    static ConsumerRecord<String, Object> record(Long dueAt) {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>(TOPIC, 1, 7L, "t-1", "payload");
+        record.headers().add(TaskEventRetryTopics.ATTEMPT, TaskEventRetryTopics.bytes(0));
+        if (dueAt != null) record.headers().add(TaskEventRetryTopics.DUE_AT, TaskEventRetryTopics.bytes(dueAt));
+        return record;
+    }
+
+    @Test
+    @DisplayName("Registro ainda não vencido → pausa a partição e lança KafkaBackoffException, sem dormir")
+    void naoVencido_pausaAParticao() {
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> backOff.awaitDue(record(System.currentTimeMillis() + 60_000), LISTENER, consumer))
+                .isInstanceOf(KafkaBackoffException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        verify(container, atLeastOnce()).pausePartition(new TopicPartition(TOPIC, 1));
+    }
+
+    @Test
+    @DisplayName("Registro vencido ou sem DUE_AT → segue direto para o processamento")
+    void vencido_naoPausa() {
+        backOff.awaitDue(record(System.currentTimeMillis() - 1), LISTENER, consumer);
+        backOff.awaitDue(record(null), LISTENER, consumer);
+
+        verify(container, never()).pausePartition(any());
+    }
+
+    @Test
+    @DisplayName("Error handler: backoff volta o offset para o registro e não passa pelo recoverer")
+    void errorHandler_backoffFazSeekSemRecoverer() {
+        DeadLetterPublishingRecoverer recoverer = mock(DeadLetterPublishingRecoverer.class);
+        var handler = new TaskEventRetryConfig("activity-service", List.of(Duration.ofSeconds(5)), 3)
+                .taskEventErrorHandler(recoverer, Duration.ofSeconds(1));
+        ConsumerRecord<String, Object> record = record(System.currentTimeMillis() + 60_000);
+        Exception ex = new ListenerExecutionFailedException("listener",
+                new KafkaBackoffException("not due", new TopicPartition(TOPIC, 1), LISTENER, Long.MAX_VALUE));
+
+        // o handler sinaliza "registro em retry" para o container não commitar o offset
+        assertThatThrownBy(() -> handler.handleRemaining(ex, List.of(record), consumer, container))
+                .hasMessageContaining("Record in retry");
+
+        verify(consumer).seek(new TopicPartition(TOPIC, 1), 7L);
+        verifyNoInteractions(recoverer);
+    }
+}
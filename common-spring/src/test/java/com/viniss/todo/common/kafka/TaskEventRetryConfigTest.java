@@ -0,0 +1,67 @@
+package com.viniss.todo.common.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TaskEventRetryConfigTest {
+
+    final TaskEventRetryConfig config = new TaskEventRetryConfig(
+            "activity-service", List.of(Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(2)), 3);
+
+    static ConsumerRecord<String, Object> record(String topic, Integer attempt) {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>(topic, 0, 0L, "t-1", "payload");
+        if (attempt != null) record.headers().add(TaskEventRetryTopics.ATTEMPT, TaskEventRetryTopics.bytes(attempt));
+        return record;
+    }
+
+    @Test
+    @DisplayName("Falha no tópico principal → primeiro tier de retry do consumidor")
+    void primeiraFalha_vaiParaRetry0() {
+        var route = config.route(record("task.events", null), new IllegalStateException("db"));
+
+        assertThat(route.topic()).isEqualTo("task.events.activity-service.retry-0");
+        assertThat(route.tier()).isZero();
+        assertThat(route.dlt()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Falha no último tier → DLT com reason=exhausted")
+    void ultimoTier_vaiParaDlt() {
+        var route = config.route(record("task.events.activity-service.retry-2", 2), new IllegalStateException("db"));
+
+        assertThat(route.topic()).isEqualTo(TaskEventRetryTopics.DLT);
+        assertThat(route.reason()).isEqualTo("exhausted");
+    }
+
+    @Test
+    @DisplayName("Payload inválido (mesmo embrulhado pelo container) → direto ao DLT, sem tiers")
+    void naoRetentavel_vaiDiretoAoDlt() {
+        Exception ex = new ListenerExecutionFailedException("listener",
+                new BatchListenerFailedException("x", new UnsupportedTaskEventException("Map sem type"), 0));
+
+        var route = config.route(record("task.events", null), ex);
+
+        assertThat(route.topic()).isEqualTo(TaskEventRetryTopics.DLT);
+        assertThat(route.dlt()).isTrue();
+        assertThat(route.reason()).isEqualTo("non-retryable");
+    }
+
+    @Test
+    @DisplayName("Padrão do listener de retry casa só os tiers do próprio consumidor")
+    void padraoDosTiers() {
+        String pattern = TaskEventRetryTopics.retryTopicPattern("activity-service");
+
+        assertThat("task.events.activity-service.retry-0").matches(pattern);
+        assertThat("task.events.activity-service.retry-12").matches(pattern);
+        assertThat("task.events.gateway.retry-0").doesNotMatch(pattern);
+        assertThat("task.events.DLT").doesNotMatch(pattern);
+    }
+}
@@ -0,0 +1,152 @@
+package com.viniss.todo.common.kafka;
+
+import com.viniss.todo.common.dto.TaskStatus;
+import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.events.TaskEventCodec;
+import com.viniss.todo.common.events.TaskStatusChanged;
+import com.viniss.todo.common.events.TaskUpdated;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TaskEventSerdeTest {
+
+    static final String TOPIC = "task.events";
+    static final OffsetDateTime AT = OffsetDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000, ZoneOffset.ofHours(-3));
+    static final String EVENT_ID = "6f1c2a4e-3b5d-3c7e-9f10-0a1b2c3d4e5f";
+    static final TaskCreated CREATED = new TaskCreated(
+            "0190a5a0-0000-7000-8000-000000000001", "p1", "Revisar PR", "TODO", AT, List.of("review", "backend"),
+            EVENT_ID, 3L);
+
+    final TaskEventSerializer serializer = new TaskEventSerializer();
+    final TaskEventDeserializer deserializer = new TaskEventDeserializer();
+
+    TaskEventSerdeTest() {
+        serializer.configure(Map.of(), false);
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.viniss.todo.common.events"), false);
+    }
+
+    @Test
+    @DisplayName("Binário: ida e volta preserva todos os campos dos três tipos, inclusive nulls")
+    void binario_idaEVolta() {
+        TaskUpdated updated = new TaskUpdated("t2", "p1", null, "DONE", AT, null);
+        TaskStatusChanged changed = new TaskStatusChanged("t3", TaskStatus.TODO, TaskStatus.DONE, AT, EVENT_ID, 0L);
+
+        for (Object event : List.of(CREATED, updated, changed)) {
+            byte[] bytes = serializer.serialize(TOPIC, new RecordHeaders(), event);
+            assertThat(bytes[0]).isEqualTo(TaskEventCodec.MAGIC);
+            assertThat(bytes[1]).isEqualTo(TaskEventCodec.VERSION);
+            assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), bytes)).isEqualTo(event);
+        }
+    }
+
+    @Test
+    @DisplayName("Migração: JSON legado (com headers de tipo) continua sendo lido")
+    void jsonLegado_continuaLegivel() {
+        TaskEventSerializer legacy = new TaskEventSerializer();
+        legacy.configure(Map.of(TaskEventSerializer.FORMAT_CONFIG, "json"), false);
+
+        // Jackson normaliza OffsetDateTime para UTC na leitura; o binário preserva o offset original
+        TaskCreated utc = new TaskCreated(CREATED.taskId(), CREATED.projectId(), CREATED.title(), CREATED.status(),
+                AT.withOffsetSameInstant(ZoneOffset.UTC), CREATED.labels(), CREATED.eventId(), CREATED.sequence());
+        RecordHeaders headers = new RecordHeaders();
+        byte[] json = legacy.serialize(TOPIC, headers, utc);
+
+        assertThat(json[0]).isEqualTo((byte) '{');
+        assertThat(deserializer.deserialize(TOPIC, headers, json)).isEqualTo(utc);
+    }
+
+    @Test
+    @DisplayName("Binário ocupa bem menos bytes que o JSON equivalente")
+    void binario_menorQueJson() {
+        TaskEventSerializer legacy = new TaskEventSerializer();
+        legacy.configure(Map.of(TaskEventSerializer.FORMAT_CONFIG, "json"), false);
+
+        int json = legacy.serialize(TOPIC, new RecordHeaders(), CREATED).length;
+        int binary = serializer.serialize(TOPIC, new RecordHeaders(), CREATED).length;
+
+        assertThat(binary).isLessThan(json / 2);
+    }
+
+    @Test
+    @DisplayName("Compatibilidade: campos ausentes no fim viram null e bytes extras no fim são ignorados")
+    void compatibilidade_campos() {
+        byte[] full = TaskEventCodec.encode(CREATED);
+
+        // layout da revisão 1 (sem eventId/sequence no fim): leitor atual devolve os dois como null
+        int v2Bytes = 1 + 16 + 1;
+        byte[] older = Arrays.copyOf(full, full.length - v2Bytes);
+        older[1] = 1;
+        TaskCreated decoded = (TaskCreated) TaskEventCodec.decode(older);
+        assertThat(decoded.eventId()).isNull();
+        assertThat(decoded.sequence()).isNull();
+        assertThat(decoded.labels()).containsExactly("review", "backend");
+        assertThat(decoded.occurredAt()).isEqualTo(AT);
+
+        // writer mais novo com um campo a mais no fim: leitor atual ignora
+        byte[] newer = Arrays.copyOf(full, full.length + 3);
+        newer[full.length] = 3;
+        newer[full.length + 1] = 'x';
+        newer[full.length + 2] = 'y';
+        assertThat(TaskEventCodec.decode(newer)).isEqualTo(CREATED);
+    }
+
+    @Test
+    @DisplayName("Tipo binário desconhecido vira null; payload truncado no meio de um campo é rejeitado")
+    void tipoDesconhecido_eTruncado() {
+        byte[] unknown = {TaskEventCodec.MAGIC, TaskEventCodec.VERSION, 99, 0};
+        assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), unknown)).isNull();
+
+        byte[] full = TaskEventCodec.encode(CREATED);
+        byte[] cut = Arrays.copyOf(full, 10);
+        assertThatThrownBy(() -> TaskEventCodec.decode(cut)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Headers: tipo, projectId, formato e occurredAt gravados; republicação não duplica")
+    void headers_gravados() {
+        RecordHeaders headers = new RecordHeaders();
+        serializer.serialize(TOPIC, headers, CREATED);
+        serializer.serialize(TOPIC, headers, CREATED);
+
+        assertThat(TaskEventHeaders.type(headers)).isEqualTo("TaskCreated");
+        assertThat(TaskEventHeaders.projectId(headers)).isEqualTo("p1");
+        assertThat(TaskEventRetryTopics.header(headers, TaskEventHeaders.SCHEMA)).isEqualTo("binary-v" + TaskEventCodec.VERSION);
+        assertThat(TaskEventRetryTopics.header(headers, TaskEventHeaders.OCCURRED_AT))
+                .isEqualTo(String.valueOf(AT.toInstant().toEpochMilli()));
+        assertThat(headers.headers(TaskEventHeaders.TYPE)).hasSize(1);
+
+        RecordHeaders changed = new RecordHeaders();
+        serializer.serialize(TOPIC, changed, new TaskStatusChanged("t3", TaskStatus.TODO, TaskStatus.DONE, AT));
+        assertThat(TaskEventHeaders.type(changed)).isEqualTo("TaskStatusChanged");
+        assertThat(TaskEventHeaders.projectId(changed)).isNull();
+    }
+
+    @Test
+    @DisplayName("Filtro por header: recusado vira null sem ler o payload; sem headers segue para o parsing")
+    void filtro_antesDoParsing() {
+        TaskEventDeserializer filtered = new TaskEventDeserializer();
+        TaskEventHeaderFilter onlyP2 = (topic, h) -> "p2".equals(TaskEventHeaders.projectId(h));
+        filtered.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.viniss.todo.common.events",
+                TaskEventDeserializer.FILTER_CONFIG, onlyP2), false);
+
+        RecordHeaders headers = new RecordHeaders();
+        byte[] bytes = serializer.serialize(TOPIC, headers, CREATED);
+        assertThat(filtered.deserialize(TOPIC, headers, bytes)).isNull();
+        // payload inválido: o filtro decide antes de qualquer parsing
+        assertThat(filtered.deserialize(TOPIC, headers, new byte[] {TaskEventCodec.MAGIC, 1, 1})).isNull();
+
+        TaskEventDeserializer acceptAll = new TaskEventDeserializer();
+        acceptAll.configure(Map.of(TaskEventDeserializer.FILTER_CONFIG, (TaskEventHeaderFilter) (t, h) -> true), false);
+        assertThat(acceptAll.deserialize(TOPIC, headers, bytes)).isEqualTo(CREATED);
+    }
+}
@@ -0,0 +1,69 @@
+package com.viniss.todo.common.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InternalIdentityCodecTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static InternalIdentityCodec codec(Instant now) {
+        return new InternalIdentityCodec(SECRET, Duration.ofSeconds(30), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static final ProjectGrants GRANTS = ProjectGrants.of(false, true,
+            Map.of("p1", ProjectGrants.READ | ProjectGrants.WRITE, "p2", ProjectGrants.READ));
+
+    @Test
+    @DisplayName("mint → verify devolve subject, grants e expiração")
+    void roundtrip() {
+        InternalIdentity identity = codec(NOW).verify(codec(NOW).mint("user-1", GRANTS));
+
+        assertThat(identity.subject()).isEqualTo("user-1");
+        assertThat(identity.grants()).isEqualTo(GRANTS);
+        assertThat(identity.expiresAt()).isEqualTo(NOW.plusSeconds(30));
+    }
+
+    @Test
+    @DisplayName("payload alterado ou segredo diferente → assinatura inválida")
+    void rejects_tampered_or_foreign() {
+        String header = codec(NOW).mint("user-1", GRANTS);
+        String other = codec(NOW).mint("admin", ProjectGrants.of(true, false, Map.of()));
+        // payload de outro usuário com a assinatura deste
+        String[] h = header.split("\\.");
+        String forged = h[0] + "." + other.split("\\.")[1] + "." + h[2];
+
+        assertThatThrownBy(() -> codec(NOW).verify(forged)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new InternalIdentityCodec(SECRET.replace('0', 'x'), Duration.ofSeconds(30)).verify(header))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec(NOW).verify("v1.nope")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("expirada depois do ttl")
+    void rejects_expired() {
+        String header = codec(NOW).mint("user-1", GRANTS);
+
+        assertThat(codec(NOW.plusSeconds(29)).verify(header)).isNotNull();
+        assertThatThrownBy(() -> codec(NOW.plusSeconds(30)).verify(header))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expirada");
+    }
+
+    @Test
+    @DisplayName("segredo curto não sobe")
+    void requires_strong_secret() {
+        assertThatThrownBy(() -> new InternalIdentityCodec("curto", Duration.ofSeconds(30)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,65 @@
+package com.viniss.todo.common.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InternalIdentityFilterTest {
+
+    private final InternalIdentityCodec codec =
+            new InternalIdentityCodec("0123456789abcdef0123456789abcdef", Duration.ofSeconds(30));
+    private final InternalIdentityFilter filter = new InternalIdentityFilter(codec, new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("header válido: autenticação com os grants durante a request e no atributo da request")
+    void authenticates_from_header() throws Exception {
+        ProjectGrants grants = ProjectGrants.of(false, false, Map.of("p1", ProjectGrants.READ));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.addHeader(InternalIdentityCodec.HEADER, codec.mint("user-1", grants));
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                seen.set(SecurityContextHolder.getContext().getAuthentication());
+            }
+        });
+
+        assertThat(seen.get().getName()).isEqualTo("user-1");
+        assertThat(ProjectGrants.of(seen.get())).isEqualTo(grants);
+        assertThat(new RequestAttributeSecurityContextRepository().containsContext(request)).isTrue();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    @DisplayName("header inválido → 401 sem seguir a cadeia; sem header segue anônima")
+    void rejects_invalid_and_passes_missing() throws Exception {
+        MockHttpServletRequest bad = new MockHttpServletRequest("GET", "/tasks");
+        bad.addHeader(InternalIdentityCodec.HEADER, "v1.abc.def");
+        MockHttpServletResponse badResponse = new MockHttpServletResponse();
+        MockFilterChain badChain = new MockFilterChain();
+
+        filter.doFilter(bad, badResponse, badChain);
+
+        assertThat(badResponse.getStatus()).isEqualTo(401);
+        assertThat(badChain.getRequest()).isNull();
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/tasks"), new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+}
@@ -0,0 +1,83 @@
+package com.viniss.todo.common.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectGrantsTest {
+
+    @Test
+    @DisplayName("roles admin: acesso a qualquer projeto")
+    void admin() {
+        assertThat(ProjectGrants.from(Map.of("roles", List.of("ADMIN"))).canWrite("p1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("scope admin não é admin de projetos (só roles), como nas checagens REST")
+    void admin_scope_is_not_admin() {
+        ProjectGrants grants = ProjectGrants.from(Map.of("scope", "profile admin"));
+
+        assertThat(grants.admin()).isFalse();
+        assertThat(grants.canRead("p1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("projects (lista ou string) dá leitura e escrita só nos projetos listados")
+    void projects_claim() {
+        ProjectGrants list = ProjectGrants.from(Map.of("projects", List.of("p1", "p2")));
+        ProjectGrants csv = ProjectGrants.from(Map.of("projects", "p1, p2"));
+
+        assertThat(list.canWrite("p2")).isTrue();
+        assertThat(csv.canRead("p1")).isTrue();
+        assertThat(list.canRead("p3")).isFalse();
+    }
+
+    @Test
+    @DisplayName("scopes project:read, project:{id}:read e project:{id}:write (string ou lista)")
+    void scopes() {
+        ProjectGrants wide = ProjectGrants.from(Map.of("scope", "email project:read"));
+        assertThat(wide.canRead("any")).isTrue();
+        assertThat(wide.canWrite("any")).isFalse();
+
+        ProjectGrants scoped = ProjectGrants.from(Map.of("scope", List.of("project:p1:read", "project:p2:write")));
+        assertThat(scoped.canRead("p1")).isTrue();
+        assertThat(scoped.canWrite("p1")).isFalse();
+        assertThat(scoped.canWrite("p2")).isTrue();
+        assertThat(scoped.canRead("p3")).isFalse();
+    }
+
+    @Test
+    @DisplayName("project_roles: papel não vazio dá leitura; OWNER/WRITER também escrita")
+    void project_roles() {
+        ProjectGrants grants = ProjectGrants.from(Map.of("project_roles", Map.of(
+                "p1", List.of("READER"),
+                "p2", List.of("WRITER"),
+                "p3", List.of())));
+
+        assertThat(grants.bits("p1")).isEqualTo(ProjectGrants.READ);
+        assertThat(grants.bits("p2")).isEqualTo(ProjectGrants.READ | ProjectGrants.WRITE);
+        assertThat(grants.canRead("p3")).isFalse();
+    }
+
+    @Test
+    @DisplayName("sem claims de projeto → NONE; projectId vazio sempre negado")
+    void none() {
+        assertThat(ProjectGrants.from(Map.of("scope", "profile"))).isSameAs(ProjectGrants.NONE);
+        assertThat(ProjectGrants.from(Map.of("roles", List.of("admin"))).canRead(" ")).isFalse();
+    }
+
+    @Test
+    @DisplayName("of(Authentication): grants do holder; outras autenticações não têm acesso")
+    void of_authentication() {
+        ProjectGrants grants = ProjectGrants.of(false, false, Map.of("p1", ProjectGrants.READ));
+        var identity = new InternalIdentityAuthentication(new InternalIdentity("u", grants, null));
+
+        assertThat(ProjectGrants.of(identity)).isSameAs(grants);
+        assertThat(ProjectGrants.of(new TestingAuthenticationToken("u", "p"))).isSameAs(ProjectGrants.NONE);
+    }
+}
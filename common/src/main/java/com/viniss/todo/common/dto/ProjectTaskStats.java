@@ -0,0 +1,12 @@
+package com.viniss.todo.common.dto;
+
+import java.util.Map;
+
+/**
+ * Contagem de tasks de um projeto por status (todas as chaves de {@link TaskStatus}, zero quando vazio).
+ */
+public record ProjectTaskStats(
+        String projectId,
+        Map<TaskStatus, Long> byStatus,
+        long total
+) {}
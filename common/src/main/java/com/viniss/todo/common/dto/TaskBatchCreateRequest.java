@@ -0,0 +1,15 @@
+package com.viniss.todo.common.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Criação em lote. Os itens são validados um a um pelo serviço (sem {@code @Valid} na lista),
+ * para que um item inválido vire falha parcial em vez de rejeitar o lote inteiro.
+ */
+public record TaskBatchCreateRequest(
+        @NotEmpty @Size(max = TaskBatchCreateRequest.MAX_ITEMS) List<CreateTaskRequest> items
+) {
+    public static final int MAX_ITEMS = 1000;
+}
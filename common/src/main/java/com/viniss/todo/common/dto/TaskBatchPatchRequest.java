@@ -0,0 +1,15 @@
+package com.viniss.todo.common.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * PATCH em lote: cada item é o id da task + os campos a alterar (mesma semântica de
+ * {@link UpdateTaskRequest}, campos nulos ficam como estão).
+ */
+public record TaskBatchPatchRequest(
+        @NotEmpty @Size(max = TaskBatchCreateRequest.MAX_ITEMS) List<Item> items
+) {
+    public record Item(String id, UpdateTaskRequest changes) {}
+}
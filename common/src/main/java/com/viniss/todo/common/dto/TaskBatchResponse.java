@@ -0,0 +1,17 @@
+package com.viniss.todo.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * Resultado de uma operação em lote, um item por entrada da requisição (mesma ordem).
+ * {@code status} segue a semântica HTTP do endpoint unitário (201/200/400/403/404).
+ */
+public record TaskBatchResponse(
+        int succeeded,
+        int failed,
+        List<Item> items
+) {
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(int index, int status, TaskResponse task, String error) {}
+}
@@ -0,0 +1,14 @@
+package com.viniss.todo.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * Página de tasks paginada por keyset.
+ * {@code nextCursor} é opaco para o cliente e vem nulo na última página.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskPage(
+        List<TaskResponse> items,
+        String nextCursor
+) {}
@@ -13,5 +13,12 @@ public record TaskResponse(
         String status,
         OffsetDateTime createdAt,
         OffsetDateTime updatedAt,
-        List<String> labels
-) {}
\ No newline at end of file
+        List<String> labels,
+        Long version
+) {
+    /** Sem {@code version} (respostas montadas fora do task-service, ex.: testes e fixtures). */
+    public TaskResponse(String id, String projectId, String title, String description, String status,
+                        OffsetDateTime createdAt, OffsetDateTime updatedAt, List<String> labels) {
+        this(id, projectId, title, description, status, createdAt, updatedAt, labels, null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.viniss.todo.common.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Item do typeahead: só o necessário para exibir e abrir a task (sem descrição).
+ */
+public record TaskSuggestion(
+        String id,
+        String title,
+        String status,
+        List<String> labels,
+        OffsetDateTime updatedAt
+) {}
@@ -5,4 +5,13 @@ import java.time.OffsetDateTime;
 public sealed interface TaskEvent permits TaskCreated, TaskUpdated, TaskStatusChanged {
   String taskId();
   OffsetDateTime occurredAt();
+
+  /**
+   * Identidade do evento (UUID em texto): a mesma em toda reentrega, base da deduplicação dos consumidores.
+   * {@code null} em eventos de produtores anteriores a este campo.
+   */
+  String eventId();
+
+  /** Versão da task que o evento descreve (cresce a cada escrita); {@code null} em eventos antigos. */
+  Long sequence();
 }
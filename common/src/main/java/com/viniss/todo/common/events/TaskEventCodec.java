@@ -0,0 +1,287 @@
+package com.viniss.todo.common.events;
+
+import com.viniss.todo.common.dto.TaskStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Formato binário compacto dos eventos de task.events.
+ *
+ * <pre>
+ *   [MAGIC][VERSION][TYPE][campos do tipo, na ordem de declaração...]
+ *
+ *   string          varint(len + 1) + UTF-8        (0 = null)
+ *   lista de string varint(size + 1) + strings     (0 = null)
+ *   OffsetDateTime  byte presença (0/1) + zigzag(epochSecond) + varint(nano) + zigzag(offsetSeconds)
+ *   TaskStatus      string com o name()
+ *   Long            varint(valor + 1)                 (0 = null; só valores >= 0)
+ *   uuid            byte presença (0/1) + 16 bytes    (eventId)
+ * </pre>
+ *
+ * Revisões: 1 = layout original; 2 = + eventId (uuid) e sequence (Long) no fim de todos os tipos.
+ *
+ * Regras de compatibilidade (VERSION = revisão do layout que o writer conhecia):
+ * <ul>
+ *   <li>Campos novos só entram no FIM do layout de um tipo, com VERSION incrementada; nada é
+ *       removido, reordenado ou muda de codificação.</li>
+ *   <li>Leitor novo, dado antigo: campos ausentes no fim do buffer viram {@code null}.</li>
+ *   <li>Leitor antigo, dado novo: bytes além dos campos conhecidos são ignorados.</li>
+ *   <li>TYPE desconhecido decodifica como {@code null} (o consumidor ignora, como já faz com payload nulo).</li>
+ *   <li>Mudança incompatível exige outro MAGIC, nunca reaproveitar VERSION.</li>
+ * </ul>
+ *
+ * MAGIC nunca é o primeiro byte de um JSON, então o consumidor distingue binário de JSON
+ * legado pelo primeiro byte (ver {@link #isBinary(byte[])}).
+ */
+public final class TaskEventCodec {
+  public static final byte MAGIC = (byte) 0xB1;
+  public static final byte VERSION = 2;
+
+  static final byte TYPE_CREATED = 1;
+  static final byte TYPE_UPDATED = 2;
+  static final byte TYPE_STATUS_CHANGED = 3;
+
+  private TaskEventCodec() {}
+
+  public static boolean isBinary(byte[] data) {
+    return data != null && data.length >= 3 && data[0] == MAGIC;
+  }
+
+  public static byte[] encode(TaskEvent event) {
+    Writer w = new Writer();
+    w.raw(MAGIC);
+    w.raw(VERSION);
+    switch (event) {
+      case TaskCreated e -> {
+        w.raw(TYPE_CREATED);
+        w.string(e.taskId());
+        w.string(e.projectId());
+        w.string(e.title());
+        w.string(e.status());
+        w.timestamp(e.occurredAt());
+        w.strings(e.labels());
+        w.uuid(e.eventId());
+        w.optionalLong(e.sequence());
+      }
+      case TaskUpdated e -> {
+        w.raw(TYPE_UPDATED);
+        w.string(e.taskId());
+        w.string(e.projectId());
+        w.string(e.title());
+        w.string(e.status());
+        w.timestamp(e.occurredAt());
+        w.strings(e.labels());
+        w.uuid(e.eventId());
+        w.optionalLong(e.sequence());
+      }
+      case TaskStatusChanged e -> {
+        w.raw(TYPE_STATUS_CHANGED);
+        w.string(e.taskId());
+        w.string(e.oldStatus() == null ? null : e.oldStatus().name());
+        w.string(e.newStatus() == null ? null : e.newStatus().name());
+        w.timestamp(e.occurredAt());
+        w.uuid(e.eventId());
+        w.optionalLong(e.sequence());
+      }
+    }
+    return w.toByteArray();
+  }
+
+  /**
+   * @return o evento, ou {@code null} se o TYPE não é conhecido por esta versão
+   * @throws IllegalArgumentException se {@code data} não começa com MAGIC ou está truncado no meio de um campo
+   */
+  public static TaskEvent decode(byte[] data) {
+    if (!isBinary(data)) {
+      throw new IllegalArgumentException("Payload não está no formato binário de task.events");
+    }
+    Reader r = new Reader(data, 2); // VERSION não muda a leitura: campos faltantes no fim viram null
+    byte type = r.raw();
+    return switch (type) {
+      case TYPE_CREATED -> new TaskCreated(
+          r.string(), r.string(), r.string(), r.string(), r.timestamp(), r.strings(), r.uuid(), r.optionalLong());
+      case TYPE_UPDATED -> new TaskUpdated(
+          r.string(), r.string(), r.string(), r.string(), r.timestamp(), r.strings(), r.uuid(), r.optionalLong());
+      case TYPE_STATUS_CHANGED -> new TaskStatusChanged(
+          r.string(), status(r.string()), status(r.string()), r.timestamp(), r.uuid(), r.optionalLong());
+      default -> null;
+    };
+  }
+
+  // constante criada por um writer mais novo não derruba o leitor
+  private static TaskStatus status(String name) {
+    if (name == null) return null;
+    try {
+      return TaskStatus.valueOf(name);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  // ---- primitivas ----------------------------------------------------------
+
+  private static final class Writer {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+
+    void raw(byte b) {
+      out.write(b);
+    }
+
+    void varlong(long v) {
+      while ((v & ~0x7FL) != 0) {
+        out.write((int) ((v & 0x7F) | 0x80));
+        v >>>= 7;
+      }
+      out.write((int) v);
+    }
+
+    void zigzag(long v) {
+      varlong((v << 1) ^ (v >> 63));
+    }
+
+    void string(String s) {
+      if (s == null) {
+        varlong(0);
+        return;
+      }
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      varlong(bytes.length + 1L);
+      out.writeBytes(bytes);
+    }
+
+    void strings(List<String> values) {
+      if (values == null) {
+        varlong(0);
+        return;
+      }
+      varlong(values.size() + 1L);
+      for (String v : values) string(v);
+    }
+
+    void uuid(String id) {
+      if (id == null) {
+        raw((byte) 0);
+        return;
+      }
+      UUID u = UUID.fromString(id);
+      raw((byte) 1);
+      for (int i = 56; i >= 0; i -= 8) out.write((int) (u.getMostSignificantBits() >>> i));
+      for (int i = 56; i >= 0; i -= 8) out.write((int) (u.getLeastSignificantBits() >>> i));
+    }
+
+    void optionalLong(Long v) {
+      varlong(v == null ? 0 : v + 1);
+    }
+
+    void timestamp(OffsetDateTime t) {
+      if (t == null) {
+        raw((byte) 0);
+        return;
+      }
+      raw((byte) 1);
+      zigzag(t.toEpochSecond());
+      varlong(t.getNano());
+      zigzag(t.getOffset().getTotalSeconds());
+    }
+
+    byte[] toByteArray() {
+      return out.toByteArray();
+    }
+  }
+
+  private static final class Reader {
+    private final byte[] data;
+    private int pos;
+
+    Reader(byte[] data, int pos) {
+      this.data = data;
+      this.pos = pos;
+    }
+
+    boolean exhausted() {
+      return pos >= data.length;
+    }
+
+    byte raw() {
+      if (exhausted()) throw truncated();
+      return data[pos++];
+    }
+
+    long varlong() {
+      long result = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = raw();
+        result |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) return result;
+      }
+      throw new IllegalArgumentException("varint malformado na posição " + pos);
+    }
+
+    long zigzag() {
+      long v = varlong();
+      return (v >>> 1) ^ -(v & 1);
+    }
+
+    int length() {
+      long n = varlong();
+      if (n < 0 || n > data.length - pos + 1L) throw truncated();
+      return (int) n;
+    }
+
+    String string() {
+      if (exhausted()) return null;
+      int n = length();
+      if (n == 0) return null;
+      String s = new String(data, pos, n - 1, StandardCharsets.UTF_8);
+      pos += n - 1;
+      return s;
+    }
+
+    List<String> strings() {
+      if (exhausted()) return null;
+      int n = length();
+      if (n == 0) return null;
+      List<String> values = new ArrayList<>(n - 1);
+      for (int i = 1; i < n; i++) {
+        if (exhausted()) throw truncated();
+        values.add(string());
+      }
+      return Collections.unmodifiableList(values);
+    }
+
+    String uuid() {
+      if (exhausted() || raw() == 0) return null;
+      if (data.length - pos < 16) throw truncated();
+      long msb = 0, lsb = 0;
+      for (int i = 0; i < 8; i++) msb = (msb << 8) | (data[pos++] & 0xFF);
+      for (int i = 0; i < 8; i++) lsb = (lsb << 8) | (data[pos++] & 0xFF);
+      return new UUID(msb, lsb).toString();
+    }
+
+    Long optionalLong() {
+      if (exhausted()) return null;
+      long v = varlong();
+      return v == 0 ? null : v - 1;
+    }
+
+    OffsetDateTime timestamp() {
+      if (exhausted() || raw() == 0) return null;
+      long seconds = zigzag();
+      int nanos = (int) varlong();
+      int offset = (int) zigzag();
+      return OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), ZoneOffset.ofTotalSeconds(offset));
+    }
+
+    private IllegalArgumentException truncated() {
+      return new IllegalArgumentException("Payload binário truncado na posição " + pos);
+    }
+  }
+}
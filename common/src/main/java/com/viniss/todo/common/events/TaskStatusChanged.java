@@ -8,5 +8,12 @@ public record TaskStatusChanged(
     String taskId,
     TaskStatus oldStatus,
     TaskStatus newStatus,
-    OffsetDateTime occurredAt
-) implements TaskEvent {}
+    OffsetDateTime occurredAt,
+    String eventId,
+    Long sequence
+) implements TaskEvent {
+  /** Sem {@code eventId}/{@code sequence} (eventos legados, testes e fixtures). */
+  public TaskStatusChanged(String taskId, TaskStatus oldStatus, TaskStatus newStatus, OffsetDateTime occurredAt) {
+    this(taskId, oldStatus, newStatus, occurredAt, null, null);
+  }
+}
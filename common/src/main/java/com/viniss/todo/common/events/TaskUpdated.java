@@ -13,5 +13,13 @@ public record TaskUpdated(
         String title,
         String status,
         OffsetDateTime occurredAt,
-        List<String> labels
-) implements TaskEvent { }
\ No newline at end of file
+        List<String> labels,
+        String eventId,
+        Long sequence
+) implements TaskEvent {
+    /** Sem {@code eventId}/{@code sequence} (eventos legados, testes e fixtures). */
+    public TaskUpdated(String taskId, String projectId, String title, String status,
+                       OffsetDateTime occurredAt, List<String> labels) {
+        this(taskId, projectId, title, status, occurredAt, labels, null, null);
+    }
+}
@@ -0,0 +1,44 @@
+package com.viniss.todo.common.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de UUIDv7 (RFC 9562): 48 bits de unix_ts_ms + versão + 12 bits de contador + 62 bits aleatórios.
+ *
+ * <ul>
+ *   <li>Monotônico por processo: o contador de 12 bits em rand_a (método 1 da RFC) ordena
+ *       ids gerados no mesmo milissegundo; se estourar, avança o timestamp em 1ms em vez de
+ *       repetir ou voltar. Um relógio que anda para trás também não faz o id regredir.</li>
+ *   <li>Ids novos caem sempre no fim do índice B-tree (inserts sequenciais, sem page split aleatório).</li>
+ *   <li>Sem lock nem {@code SecureRandom}: um CAS num {@link AtomicLong} + {@link ThreadLocalRandom}.
+ *       Os bits aleatórios não são criptográficos — não use o id como segredo/token.</li>
+ * </ul>
+ */
+public final class UuidV7 {
+  // (unix_ts_ms << 12) | contador — os 60 bits que ocupam timestamp + rand_a
+  private static final AtomicLong LAST = new AtomicLong();
+
+  private UuidV7() {}
+
+  public static UUID next() {
+    long now = System.currentTimeMillis() << 12;
+    long state = LAST.updateAndGet(prev -> Math.max(prev + 1, now));
+
+    long msb = ((state >>> 12) << 16)   // unix_ts_ms (48)
+        | 0x7000L                        // versão 7
+        | (state & 0xFFFL);              // contador (12)
+    long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL)
+        | 0x8000000000000000L;           // variante IETF (10)
+    return new UUID(msb, lsb);
+  }
+
+  /** Milissegundo (epoch) embutido num UUIDv7. */
+  public static long timestamp(UUID uuid) {
+    if (uuid.version() != 7) {
+      throw new IllegalArgumentException("Não é um UUIDv7: " + uuid);
+    }
+    return uuid.getMostSignificantBits() >>> 16;
+  }
+}
@@ -1,15 +1,32 @@
 package com.viniss.todo.task.application.port.out;
 
 import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.events.TaskEvent;
 import com.viniss.todo.common.events.TaskUpdated;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Outbound port for publishing task domain events.
  *
  * This abstraction allows the application layer to remain independent
  * from any specific messaging technology (Kafka, RabbitMQ, etc.).
+ *
+ * Every method returns a completion handle: it completes when the implementation has taken
+ * responsibility for the event (broker ack, or a durable write the caller's transaction owns)
+ * and fails if the event was not accepted. Implementations must never block the caller
+ * indefinitely; when they cannot accept more work they fail the handle with
+ * {@link java.util.concurrent.RejectedExecutionException}.
  */
 public interface TaskEventPublisher {
-    void publishCreated(TaskCreated event);
-    void publishUpdated(TaskUpdated event);
+    CompletableFuture<Void> publishCreated(TaskCreated event);
+    CompletableFuture<Void> publishUpdated(TaskUpdated event);
+
+    /**
+     * Publishes a batch of events (e.g. from the bulk endpoints) in one go,
+     * preserving list order. Implementations should avoid one round-trip per event.
+     * The handle completes when every event is accepted and fails on the first failure.
+     */
+    CompletableFuture<Void> publishAll(List<? extends TaskEvent> events);
 }
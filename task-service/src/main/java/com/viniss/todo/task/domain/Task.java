@@ -1,21 +1,31 @@
 package com.viniss.todo.task.domain;
 
 import com.viniss.todo.common.dto.TaskStatus;
-import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+    // listagem keyset por projeto: (projectId, updatedAt desc, id desc)
+    @Index(name = "idx_tasks_project_updated", columnList = "projectId, updatedAt, id"),
+    @Index(name = "idx_tasks_project_status_updated", columnList = "projectId, status, updatedAt, id")
+})
 public class Task {
+  // UUIDv7 (TaskIds.next) em coluna uuid nativa: ordenado no tempo, 16 bytes no índice
   @Id
-  private String id;
+  private UUID id;
   private String projectId;
   private String title;
   private String description;
@@ -24,11 +34,18 @@ public class Task {
   private Instant createdAt;
   private Instant updatedAt;
 
-  @ElementCollection
+  // text[] inline na própria linha (índice GIN idx_tasks_labels, ver V2__inline_task_labels.sql)
+  @JdbcTypeCode(SqlTypes.ARRAY)
+  @Column(columnDefinition = "text[]", nullable = false)
   private List<String> labels = new ArrayList<>();
 
-  public String getId() { return id; }
-  public void setId(String id) { this.id = id; }
+  // lock otimista: UPDATE ... where version = ?; também é o ETag exposto pela API.
+  // Wrapper para que versão nula marque a entidade como nova (persist sem SELECT prévio).
+  @Version
+  private Long version;
+
+  public UUID getId() { return id; }
+  public void setId(UUID id) { this.id = id; }
   public String getProjectId() { return projectId; }
   public void setProjectId(String projectId) { this.projectId = projectId; }
   public String getTitle() { return title; }
@@ -43,4 +60,6 @@ public class Task {
   public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
   public List<String> getLabels() { return labels; }
   public void setLabels(List<String> labels) { this.labels = labels; }
+  public Long getVersion() { return version; }
+  public void setVersion(Long version) { this.version = version; }
 }
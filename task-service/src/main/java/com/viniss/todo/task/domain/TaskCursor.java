@@ -0,0 +1,39 @@
+package com.viniss.todo.task.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posição de keyset na listagem de tasks: última linha vista em (updatedAt desc, id desc).
+ *
+ * O formato serializado é opaco para o cliente (base64url) e não deve ser
+ * interpretado fora deste tipo.
+ */
+public record TaskCursor(Instant updatedAt, UUID id) {
+  private static final char SEPARATOR = '|';
+
+  public static TaskCursor of(Task task) {
+    return new TaskCursor(task.getUpdatedAt(), task.getId());
+  }
+
+  public String encode() {
+    String raw = updatedAt.toString() + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static TaskCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int sep = raw.indexOf(SEPARATOR);
+      if (sep <= 0 || sep == raw.length() - 1) {
+        throw new IllegalArgumentException("Cursor inválido");
+      }
+      return new TaskCursor(Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Cursor inválido");
+    }
+  }
+}
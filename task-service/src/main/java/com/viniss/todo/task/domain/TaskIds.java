@@ -0,0 +1,27 @@
+package com.viniss.todo.task.domain;
+
+import com.viniss.todo.common.id.UuidV7;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Ids de task: UUIDv7 gravados como {@code uuid} nativo; na API continuam strings no formato canônico.
+ */
+public final class TaskIds {
+  private TaskIds() {}
+
+  public static UUID next() {
+    return UuidV7.next();
+  }
+
+  /** Id vindo de path/payload. Texto que não é UUID não existe como task (vazio em vez de erro). */
+  public static Optional<UUID> parse(String id) {
+    if (id == null || id.isBlank()) return Optional.empty();
+    try {
+      return Optional.of(UUID.fromString(id.trim()));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.viniss.todo.task.domain;
+
+import com.viniss.todo.common.dto.TaskStatus;
+
+import java.util.List;
+
+/**
+ * Campos de um PATCH parcial; {@code null} mantém o valor atual.
+ */
+public record TaskPatch(String title, String description, TaskStatus status, List<String> labels) {}
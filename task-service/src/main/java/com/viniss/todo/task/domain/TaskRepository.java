@@ -1,6 +1,13 @@
 package com.viniss.todo.task.domain;
 
+import com.viniss.todo.common.dto.TaskStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Domain port for task persistence.
@@ -10,5 +17,45 @@ import java.util.Optional;
  */
 public interface TaskRepository {
   Task save(Task task);
-  Optional<Task> findById(String id);
+  Optional<Task> findById(UUID id);
+
+  /** Loads every existing task among {@code ids}; missing ids are simply absent from the result. */
+  List<Task> findAllById(Collection<UUID> ids);
+
+  /** Inserts brand-new tasks (ids already assigned) in as few statements as the driver allows. */
+  List<Task> insertAll(List<Task> tasks);
+
+  /** Persists changes to existing tasks in a single flush. */
+  List<Task> saveAll(List<Task> tasks);
+
+  /**
+   * Applies only the non-null fields of {@code patch} in one atomic statement, bumping the version.
+   *
+   * @param expectedVersion optional If-Match version; a mismatch raises
+   *        {@link org.springframework.dao.OptimisticLockingFailureException}
+   * @return the row as written, or empty if no task has this id
+   */
+  Optional<Task> patch(UUID id, TaskPatch patch, Long expectedVersion, Instant updatedAt);
+
+  /**
+   * Keyset page of a project's tasks ordered by (updatedAt desc, id desc).
+   *
+   * @param status optional filter; {@code null} lists every status
+   * @param label  optional filter; only tasks carrying this label
+   * @param after  position of the last row already seen; {@code null} starts from the newest task
+   * @param limit  maximum number of rows to return
+   */
+  List<Task> findPage(String projectId, TaskStatus status, String label, TaskCursor after, int limit);
+
+  /**
+   * Typeahead: newest tasks of a project whose title or labels contain {@code query}
+   * (case-insensitive), ordered by (updatedAt desc, id desc).
+   */
+  List<Task> suggest(String projectId, String query, int limit);
+
+  /**
+   * Per-status task counts of a project, kept up to date on every write (no scan of tasks).
+   * Statuses without tasks may be absent from the result.
+   */
+  Map<TaskStatus, Long> countByStatus(String projectId);
 }
@@ -0,0 +1,28 @@
+package com.viniss.todo.task.http;
+
+import com.viniss.todo.common.dto.ProjectTaskStats;
+import com.viniss.todo.task.service.TaskAppService;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.parameters.P;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Contadores por status de um projeto, lidos de project_task_stats (mantida pelos writes).
+ */
+@RestController
+@RequestMapping(path = "/projects", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ProjectStatsController {
+  private final TaskAppService service;
+
+  public ProjectStatsController(TaskAppService service) { this.service = service; }
+
+  @GetMapping(path = "/{projectId}/stats")
+  @PreAuthorize("@authz.hasProjectAccess(authentication, #projectId)")
+  public ProjectTaskStats stats(@PathVariable("projectId") @P("projectId") String projectId) {
+    return service.stats(projectId);
+  }
+}
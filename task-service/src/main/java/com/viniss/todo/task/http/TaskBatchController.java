@@ -0,0 +1,47 @@
+package com.viniss.todo.task.http;
+
+import com.viniss.todo.common.dto.TaskBatchCreateRequest;
+import com.viniss.todo.common.dto.TaskBatchPatchRequest;
+import com.viniss.todo.common.dto.TaskBatchResponse;
+import com.viniss.todo.common.security.ProjectGrants;
+import com.viniss.todo.task.service.TaskBatchService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Endpoints em lote. Mapeados fora do @RequestMapping("/tasks") porque "/tasks:batch"
+ * é outro segmento de path (estilo custom method), não um filho de /tasks.
+ *
+ * Resposta: 201/200 quando todos os itens passaram, 207 Multi-Status se algum falhou. Sem
+ * {@code @PreAuthorize}: o acesso é checado item a item pelo projeto (403 no item), com os grants
+ * da identidade interna.
+ */
+@RestController
+public class TaskBatchController {
+  private final TaskBatchService service;
+
+  public TaskBatchController(TaskBatchService service) { this.service = service; }
+
+  @PostMapping(path = "/tasks:batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<TaskBatchResponse> create(@Valid @RequestBody TaskBatchCreateRequest req,
+                                                  Authentication authentication) {
+    return respond(service.create(req, ProjectGrants.of(authentication)), HttpStatus.CREATED);
+  }
+
+  @PatchMapping(path = "/tasks:batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<TaskBatchResponse> patch(@Valid @RequestBody TaskBatchPatchRequest req,
+                                                 Authentication authentication) {
+    return respond(service.patch(req, ProjectGrants.of(authentication)), HttpStatus.OK);
+  }
+
+  private static ResponseEntity<TaskBatchResponse> respond(TaskBatchResponse body, HttpStatus allOk) {
+    return ResponseEntity.status(body.failed() == 0 ? allOk : HttpStatus.MULTI_STATUS).body(body);
+  }
+}
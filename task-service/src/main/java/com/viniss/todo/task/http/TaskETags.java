@@ -0,0 +1,29 @@
+package com.viniss.todo.task.http;
+
+/**
+ * ETag forte das tasks: a própria coluna {@code version} entre aspas ({@code "3"}).
+ */
+final class TaskETags {
+  private TaskETags() {}
+
+  static String of(Long version) {
+    return version == null ? null : "\"" + version + "\"";
+  }
+
+  /**
+   * Versão esperada a partir do If-Match. {@code null} quando ausente ou {@code *}
+   * (nenhuma checagem além de a task existir). ETag fraco ou malformado nunca casa
+   * (comparação forte, RFC 9110 §13.1.1) e resulta em 412.
+   */
+  static Long expectedVersion(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank()) return null;
+    String tag = ifMatch.trim();
+    if (tag.equals("*")) return null;
+    if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) return -1L;
+    try {
+      return Long.parseLong(tag.substring(1, tag.length() - 1));
+    } catch (NumberFormatException e) {
+      return -1L;
+    }
+  }
+}
@@ -1,15 +1,21 @@
 package com.viniss.todo.task.http;
 
 import com.viniss.todo.common.dto.CreateTaskRequest;
+import com.viniss.todo.common.dto.TaskPage;
 import com.viniss.todo.common.dto.TaskResponse;
+import com.viniss.todo.common.dto.TaskSuggestion;
 import com.viniss.todo.common.dto.UpdateTaskRequest;
 import com.viniss.todo.task.service.TaskAppService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.parameters.P;
+
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/tasks", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -18,21 +24,59 @@ public class TaskRestController {
 
   public TaskRestController(TaskAppService service) { this.service = service; }
 
+  @GetMapping
+  @PreAuthorize("@authz.hasProjectAccess(authentication, #projectId)")
+  public TaskPage list(@RequestParam("projectId") @P("projectId") String projectId,
+                       @RequestParam(name = "status", required = false) String status,
+                       @RequestParam(name = "label", required = false) String label,
+                       @RequestParam(name = "after", required = false) String after,
+                       @RequestParam(name = "limit", required = false) Integer limit) {
+    return service.list(projectId, status, label, after, limit);
+  }
+
+  @GetMapping(path = "/suggest")
+  @PreAuthorize("@authz.hasProjectAccess(authentication, #projectId)")
+  public List<TaskSuggestion> suggest(@RequestParam("projectId") @P("projectId") String projectId,
+                                      @RequestParam(name = "q", required = false) String q,
+                                      @RequestParam(name = "limit", required = false) Integer limit) {
+    return service.suggest(projectId, q, limit);
+  }
+
+  /**
+   * If-None-Match com o ETag atual → 304 sem corpo (o Spring compara o ETag de um
+   * ResponseEntity 200 em GET/HEAD antes de serializar).
+   */
+  @GetMapping(path = "/{id}")
+  @PreAuthorize("@authz.canAccessTask(authentication, #id)")
+  public ResponseEntity<TaskResponse> get(@PathVariable("id") @P("id") String id) {
+    return withETag(service.get(id));
+  }
+
   @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
-  @PreAuthorize("@authz.hasProjectAccess(authentication, #request.projectId())")
-  public ResponseEntity<TaskResponse> create(@Valid @RequestBody CreateTaskRequest req) {
+  @PreAuthorize("@authz.canWriteProject(authentication, #req.projectId())")
+  public ResponseEntity<TaskResponse> create(@Valid @RequestBody @P("req") CreateTaskRequest req) {
     TaskResponse created = service.create(req);
-    return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    return ResponseEntity.status(HttpStatus.CREATED).eTag(TaskETags.of(created.version())).body(created);
   }
 
+  /** If-Match opcional; se informado e divergente da versão atual → 412. */
   @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-  @PreAuthorize("@authz.canAccessTask(authentication, #id)")
-  public TaskResponse update(@PathVariable("id") String id, @Valid @RequestBody UpdateTaskRequest req) {
-    return service.update(id, req);
+  @PreAuthorize("@authz.canWriteTask(authentication, #id)")
+  public ResponseEntity<TaskResponse> update(@PathVariable("id") @P("id") String id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @Valid @RequestBody UpdateTaskRequest req) {
+    return withETag(service.update(id, req, TaskETags.expectedVersion(ifMatch)));
   }
 
   @PatchMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-  public TaskResponse patch(@PathVariable("id") String id, @RequestBody UpdateTaskRequest req) {
-    return service.patch(id, req);
+  @PreAuthorize("@authz.canWriteTask(authentication, #id)")
+  public ResponseEntity<TaskResponse> patch(@PathVariable("id") @P("id") String id,
+                                            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                            @RequestBody UpdateTaskRequest req) {
+    return withETag(service.patch(id, req, TaskETags.expectedVersion(ifMatch)));
+  }
+
+  private static ResponseEntity<TaskResponse> withETag(TaskResponse task) {
+    return ResponseEntity.ok().eTag(TaskETags.of(task.version())).body(task);
   }
 }
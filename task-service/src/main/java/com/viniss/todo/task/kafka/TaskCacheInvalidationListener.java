@@ -0,0 +1,38 @@
+package com.viniss.todo.task.kafka;
+
+import com.viniss.todo.task.domain.TaskIds;
+import com.viniss.todo.task.persistence.cache.CachingTaskRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalida o cache local de tasks quando qualquer réplica publica em task.events.
+ *
+ * Cada instância usa um group id próprio (todas recebem todos os eventos) e começa do fim
+ * do tópico: o histórico não interessa, o cache nasce vazio. Só a key (taskId) é lida;
+ * o valor nem é desserializado.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.tasks.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskCacheInvalidationListener {
+  private final CachingTaskRepository cache;
+
+  public TaskCacheInvalidationListener(CachingTaskRepository cache) {
+    this.cache = cache;
+  }
+
+  @KafkaListener(
+      topics = TaskEventProducer.TOPIC,
+      groupId = "task-service-cache-#{T(java.util.UUID).randomUUID()}",
+      properties = {
+          "auto.offset.reset=latest",
+          "enable.auto.commit=false",
+          "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+          "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+      })
+  public void onTaskEvent(ConsumerRecord<String, byte[]> record) {
+    TaskIds.parse(record.key()).ifPresent(cache::evict);
+  }
+}
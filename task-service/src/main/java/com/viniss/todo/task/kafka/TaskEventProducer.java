@@ -1,27 +1,144 @@
 package com.viniss.todo.task.kafka;
 
 import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.events.TaskEvent;
 import com.viniss.todo.common.events.TaskUpdated;
 import com.viniss.todo.task.application.port.out.TaskEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envio direto ao Kafka, fora da transação da task. Só ativo com
+ * {@code app.events.publisher=direct}; o padrão é a outbox ({@code OutboxTaskEventPublisher}).
+ *
+ * <ul>
+ *   <li>Janela de envios sem ack limitada a {@code app.events.max-in-flight}. Com a janela cheia,
+ *       espera no máximo {@code app.events.acquire-timeout} e então falha o handle com
+ *       {@link RejectedExecutionException} — a thread da request nunca fica presa.</li>
+ *   <li>O handle completa no ack do broker; falhas são logadas e contadas, não engolidas.</li>
+ *   <li>Métricas (tag topic): task.events.publish.ack (latência até o ack),
+ *       task.events.publish.failed, task.events.publish.rejected e task.events.publish.in-flight.</li>
+ * </ul>
+ *
+ * {@code max.block.ms} do producer (application.yml) limita o bloqueio de send() quando o
+ * metadata do tópico não está disponível.
+ */
 @Component
+@ConditionalOnProperty(name = "app.events.publisher", havingValue = "direct")
 public class TaskEventProducer implements TaskEventPublisher {
-  private static final String TOPIC = "task.events";
+  private static final Logger log = LoggerFactory.getLogger(TaskEventProducer.class);
+
+  public static final String TOPIC = "task.events";
+
   private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final Semaphore window;
+  private final Duration acquireTimeout;
+
+  private final Timer ackLatency;
+  private final Counter failed;
+  private final Counter rejected;
 
-  public TaskEventProducer(KafkaTemplate<String, Object> kafkaTemplate) {
+  public TaskEventProducer(KafkaTemplate<String, Object> kafkaTemplate,
+                           MeterRegistry registry,
+                           @Value("${app.events.max-in-flight:1000}") int maxInFlight,
+                           @Value("${app.events.acquire-timeout:100ms}") Duration acquireTimeout) {
     this.kafkaTemplate = kafkaTemplate;
+    this.window = new Semaphore(maxInFlight);
+    this.acquireTimeout = acquireTimeout;
+
+    this.ackLatency = Timer.builder("task.events.publish.ack")
+        .description("Tempo entre o send e o ack do broker")
+        .tag("topic", TOPIC)
+        .publishPercentileHistogram()
+        .register(registry);
+    this.failed = Counter.builder("task.events.publish.failed")
+        .description("Envios que o broker não confirmou")
+        .tag("topic", TOPIC)
+        .register(registry);
+    this.rejected = Counter.builder("task.events.publish.rejected")
+        .description("Envios recusados com a janela de in-flight cheia")
+        .tag("topic", TOPIC)
+        .register(registry);
+    Gauge.builder("task.events.publish.in-flight", window, w -> maxInFlight - w.availablePermits())
+        .description("Envios aguardando ack do broker")
+        .tag("topic", TOPIC)
+        .register(registry);
+  }
+
+  @Override
+  public CompletableFuture<Void> publishCreated(TaskCreated event) {
+    return send(event);
   }
 
   @Override
-  public void publishCreated(TaskCreated event) {
-    kafkaTemplate.send(TOPIC, event.taskId(), event);
+  public CompletableFuture<Void> publishUpdated(TaskUpdated event) {
+    return send(event);
   }
 
   @Override
-  public void publishUpdated(TaskUpdated event) {
-    kafkaTemplate.send(TOPIC, event.taskId(), event);
+  public CompletableFuture<Void> publishAll(List<? extends TaskEvent> events) {
+    // send() é assíncrono: o producer agrupa os registros por partição no mesmo batch
+    CompletableFuture<?>[] acks = new CompletableFuture<?>[events.size()];
+    for (int i = 0; i < acks.length; i++) {
+      acks[i] = send(events.get(i));
+    }
+    return CompletableFuture.allOf(acks);
+  }
+
+  private CompletableFuture<Void> send(TaskEvent event) {
+    if (!tryAcquire()) {
+      rejected.increment();
+      log.warn("task_event_rejected taskId={} type={} reason=in_flight_window_full",
+          event.taskId(), event.getClass().getSimpleName());
+      return CompletableFuture.failedFuture(
+          new RejectedExecutionException("Janela de eventos em voo cheia; evento " + event.taskId() + " não enviado"));
+    }
+
+    long start = System.nanoTime();
+    CompletableFuture<?> sent;
+    try {
+      sent = kafkaTemplate.send(TOPIC, event.taskId(), event);
+    } catch (RuntimeException e) {
+      // serialização ou max.block.ms estourado: nada ficou em voo
+      window.release();
+      failed.increment();
+      log.warn("task_event_send_failed taskId={} error={}", event.taskId(), e.getClass().getSimpleName());
+      return CompletableFuture.failedFuture(e);
+    }
+
+    return sent.handle((result, error) -> {
+      window.release();
+      if (error != null) {
+        failed.increment();
+        log.warn("task_event_send_failed taskId={} error={}", event.taskId(), error.getClass().getSimpleName());
+        throw error instanceof RuntimeException re ? re : new IllegalStateException(error);
+      }
+      ackLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return null;
+    });
+  }
+
+  private boolean tryAcquire() {
+    try {
+      return window.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 }
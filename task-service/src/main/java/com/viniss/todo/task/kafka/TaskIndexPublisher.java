@@ -0,0 +1,108 @@
+package com.viniss.todo.task.kafka;
+
+import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.events.TaskUpdated;
+import com.viniss.todo.common.kafka.TaskEventDeserializer;
+import com.viniss.todo.common.kafka.TaskEventHeaders;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Mantém o tópico compactado task.index (key = taskId, value = projectId) a partir de
+ * task.events. O api-gateway materializa esse tópico num mapa local (TaskProjectIndex) e autoriza
+ * por taskId sem ir ao task-service.
+ *
+ * Lê task.events com grupo próprio desde o início (o primeiro start já preenche o índice com o
+ * histórico retido), em bytes: o projectId vem do header {@link TaskEventHeaders#PROJECT_ID} e o
+ * payload só é decodificado em eventos sem headers (produtores antigos). O lote só é commitado
+ * depois do ack de todos os envios.
+ */
+@Component
+@ConditionalOnProperty(name = "app.task-index.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskIndexPublisher {
+  public static final String TOPIC = "task.index";
+
+  private final KafkaTemplate<String, String> template;
+  private final TaskEventDeserializer legacy = new TaskEventDeserializer();
+
+  @SuppressWarnings("unchecked")
+  public TaskIndexPublisher(ProducerFactory<?, ?> producerFactory) {
+    this.template = new KafkaTemplate<>((ProducerFactory<String, String>) producerFactory, Map.of(
+        ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+        ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class));
+    legacy.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.viniss.todo.common.events"), false);
+  }
+
+  @Bean
+  public NewTopic taskIndexTopic(@Value("${app.task-index.partitions:3}") int partitions) {
+    // compactado: fica só o último projectId de cada task
+    return TopicBuilder.name(TOPIC).partitions(partitions).compact().build();
+  }
+
+  @KafkaListener(
+      topics = TaskEventProducer.TOPIC,
+      groupId = "task-service-index",
+      batch = "true",
+      properties = {
+          "auto.offset.reset=earliest",
+          "max.poll.records=2000",
+          "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+          "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+      })
+  public void onTaskEvents(List<ConsumerRecord<String, byte[]>> records) {
+    // última versão de cada task no lote; a ordem entre tasks não importa
+    Map<String, String> latest = new LinkedHashMap<>();
+    for (ConsumerRecord<String, byte[]> record : records) {
+      String projectId = projectId(record);
+      if (record.key() != null && projectId != null) latest.put(record.key(), projectId);
+    }
+
+    List<CompletableFuture<?>> sends = new ArrayList<>(latest.size());
+    latest.forEach((taskId, projectId) -> sends.add(template.send(TOPIC, taskId, projectId)));
+    try {
+      CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Envio ao task.index interrompido", e);
+    } catch (ExecutionException | TimeoutException e) {
+      // nada commitado: o lote é relido (o tópico é compactado, reenvio não duplica estado)
+      throw new IllegalStateException("Falha ao publicar no task.index", e);
+    }
+  }
+
+  String projectId(ConsumerRecord<String, byte[]> record) {
+    String type = TaskEventHeaders.type(record.headers());
+    if (type != null) {
+      return TaskEventHeaders.projectId(record.headers()); // null em TaskStatusChanged
+    }
+    Object event;
+    try {
+      event = legacy.deserialize(record.topic(), record.headers(), record.value());
+    } catch (RuntimeException e) {
+      return null; // payload ilegível: os consumidores de task.events já o mandam ao DLT
+    }
+    if (event instanceof TaskCreated e) return e.projectId();
+    if (event instanceof TaskUpdated e) return e.projectId();
+    return null;
+  }
+}
@@ -70,14 +70,15 @@ public class TaskMapper {
         
         // Records são criados via construtor, não setters
         return new TaskResponse(
-            entity.getId(),
+            entity.getId() == null ? null : entity.getId().toString(),
             nvl(entity.getProjectId(), ""),
             nvl(entity.getTitle(), ""),
             nvl(entity.getDescription(), ""),
             entity.getStatus() != null ? entity.getStatus().name() : TaskStatus.TODO.name(),
             instantToOffsetDateTime(entity.getCreatedAt()),
             instantToOffsetDateTime(entity.getUpdatedAt()),
-            entity.getLabels() != null ? new ArrayList<>(entity.getLabels()) : new ArrayList<>()
+            entity.getLabels() != null ? new ArrayList<>(entity.getLabels()) : new ArrayList<>(),
+            entity.getVersion()
         );
     }
 
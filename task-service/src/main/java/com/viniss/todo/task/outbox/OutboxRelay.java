@@ -0,0 +1,320 @@
+package com.viniss.todo.task.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.events.TaskEvent;
+import com.viniss.todo.common.events.TaskStatusChanged;
+import com.viniss.todo.common.events.TaskUpdated;
+import com.viniss.todo.task.kafka.TaskEventProducer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drena task_outbox para o tópico task.events.
+ *
+ * <ul>
+ *   <li>Uma única instância drena por vez: o relay ativo segura um advisory lock de sessão na
+ *       conexão do LISTEN, então a ordem por id da outbox — e portanto por task — é a ordem de
+ *       envio. Se a conexão cai, o lock é liberado e outra instância assume.</li>
+ *   <li>Lotes de até {@code app.outbox.batch-size} linhas, sem transação aberta durante a espera
+ *       dos acks. O envio é em rodadas: em cada uma vai a próxima linha de cada task (tasks
+ *       diferentes em paralelo) e só depois do ack a seguinte. Falha numa task segura as linhas
+ *       restantes dela até o próximo ciclo, sem publicar fora de ordem; as outras tasks seguem.
+ *       Depois apaga exatamente os ids confirmados (nunca um intervalo: um id menor pode commitar
+ *       depois do select).</li>
+ *   <li>Linha que nunca vai publicar (event_type desconhecido, payload ilegível) vai para
+ *       task_outbox_dead e é contada em task.outbox.relay.poisoned.</li>
+ *   <li>A thread dorme em LISTEN task_outbox e acorda no NOTIFY disparado pelo insert;
+ *       {@code app.outbox.poll-interval} é só a rede de segurança.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.publisher", havingValue = "outbox", matchIfMissing = true)
+public class OutboxRelay implements SmartLifecycle {
+  private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+  static final String CHANNEL = "task_outbox";
+  // chave arbitrária e fixa do pg_try_advisory_lock (sessão) que elege o relay ativo
+  static final long RELAY_LOCK_KEY = 0x7461736b6f7574L;
+
+  private static final Map<String, Class<? extends TaskEvent>> EVENT_TYPES = Map.of(
+      "TaskCreated", TaskCreated.class,
+      "TaskUpdated", TaskUpdated.class,
+      "TaskStatusChanged", TaskStatusChanged.class);
+
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbc;
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final ObjectMapper mapper;
+
+  private final int batchSize;
+  private final Duration pollInterval;
+  private final Duration sendTimeout;
+
+  private final Counter published;
+  private final Counter failed;
+  private final Counter poisoned;
+  private final DistributionSummary batchSizes;
+  private final Timer lag;
+
+  private volatile boolean running;
+  private Thread worker;
+
+  public OutboxRelay(DataSource dataSource,
+                     JdbcTemplate jdbc,
+                     KafkaTemplate<String, Object> kafkaTemplate,
+                     ObjectMapper mapper,
+                     MeterRegistry registry,
+                     @Value("${app.outbox.batch-size:500}") int batchSize,
+                     @Value("${app.outbox.poll-interval:5s}") Duration pollInterval,
+                     @Value("${app.outbox.send-timeout:10s}") Duration sendTimeout) {
+    this.dataSource = dataSource;
+    this.jdbc = jdbc;
+    this.kafkaTemplate = kafkaTemplate;
+    this.mapper = mapper;
+    this.batchSize = batchSize;
+    this.pollInterval = pollInterval;
+    this.sendTimeout = sendTimeout;
+
+    this.published = Counter.builder("task.outbox.relay.published")
+        .description("Eventos da outbox confirmados pelo broker")
+        .register(registry);
+    this.failed = Counter.builder("task.outbox.relay.failed")
+        .description("Envios da outbox que falharam e serão repetidos")
+        .register(registry);
+    this.poisoned = Counter.builder("task.outbox.relay.poisoned")
+        .description("Linhas da outbox impossíveis de publicar, movidas para task_outbox_dead")
+        .register(registry);
+    this.batchSizes = DistributionSummary.builder("task.outbox.relay.batch.size")
+        .description("Linhas lidas por ciclo de drenagem")
+        .register(registry);
+    this.lag = Timer.builder("task.outbox.relay.lag")
+        .description("Tempo entre a gravação na outbox e a confirmação do broker")
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+
+  // ---- ciclo de vida -------------------------------------------------------
+
+  @Override
+  public void start() {
+    running = true;
+    worker = Thread.ofPlatform().daemon().name("task-outbox-relay").start(this::loop);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    Thread t = worker;
+    if (t != null) {
+      t.interrupt();
+      try {
+        t.join(pollInterval.plusSeconds(1).toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void loop() {
+    while (running) {
+      try (Connection conn = dataSource.getConnection()) {
+        try (Statement st = conn.createStatement()) {
+          st.execute("LISTEN " + CHANNEL);
+        }
+        PGConnection pg = conn.unwrap(PGConnection.class);
+        boolean leader = false;
+        try {
+          while (running) {
+            if (!leader) leader = tryLock(conn);
+            if (leader) drainAll();
+            // bloqueia até um NOTIFY (commit de nova linha) ou até o poll-interval
+            pg.getNotifications((int) pollInterval.toMillis());
+          }
+        } finally {
+          // a conexão volta ao pool: o lock de sessão não cai sozinho
+          if (leader) unlock(conn);
+        }
+      } catch (Exception e) {
+        if (!running) return;
+        log.warn("outbox_relay_error error={} msg={}", e.getClass().getSimpleName(), e.getMessage());
+        sleepQuietly(pollInterval);
+      }
+    }
+  }
+
+  private static boolean tryLock(Connection conn) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement("select pg_try_advisory_lock(?)")) {
+      ps.setLong(1, RELAY_LOCK_KEY);
+      try (ResultSet rs = ps.executeQuery()) {
+        return rs.next() && rs.getBoolean(1);
+      }
+    }
+  }
+
+  private static void unlock(Connection conn) {
+    try (PreparedStatement ps = conn.prepareStatement("select pg_advisory_unlock(?)")) {
+      ps.setLong(1, RELAY_LOCK_KEY);
+      ps.execute();
+    } catch (Exception e) {
+      log.warn("outbox_relay_unlock_failed error={}", e.getClass().getSimpleName());
+    }
+  }
+
+  // ---- drenagem ------------------------------------------------------------
+
+  /** Drena até a outbox esvaziar. Só chamado pelo relay que segura o lock. */
+  void drainAll() {
+    int drained;
+    do {
+      drained = drainBatch();
+    } while (running && drained == batchSize);
+  }
+
+  /** @return quantidade de linhas removidas da outbox neste ciclo */
+  int drainBatch() {
+    List<OutboxRow> rows = jdbc.query(
+        "select id, aggregate_id, event_type, payload, created_at from task_outbox order by id limit ?",
+        (rs, i) -> new OutboxRow(
+            rs.getLong("id"),
+            rs.getString("aggregate_id"),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toInstant()),
+        batchSize);
+    if (rows.isEmpty()) return 0;
+    batchSizes.record(rows.size());
+
+    Drained drained = sendAll(rows);
+    drained.poisoned().forEach(this::deadLetter);
+    if (drained.acked().isEmpty()) return drained.poisoned().size();
+    // transação curta (autocommit), só com os ids confirmados
+    return drained.poisoned().size() + jdbc.update(con -> {
+      PreparedStatement ps = con.prepareStatement("delete from task_outbox where id = any(?)");
+      Array ids = con.createArrayOf("bigint", drained.acked().toArray());
+      ps.setArray(1, ids);
+      return ps;
+    });
+  }
+
+  /**
+   * Envia em rodadas, uma linha em voo por task: a rodada manda a próxima linha de cada task
+   * pendente e espera os acks. Task com falha sai do lote (as linhas dela ficam para o próximo
+   * ciclo, na ordem); linha impossível de decodificar é separada como poison e a task segue.
+   */
+  Drained sendAll(List<OutboxRow> rows) {
+    Map<String, Deque<OutboxRow>> byTask = new LinkedHashMap<>();
+    for (OutboxRow row : rows) {
+      byTask.computeIfAbsent(row.aggregateId(), k -> new ArrayDeque<>()).add(row);
+    }
+
+    List<Long> acked = new ArrayList<>(rows.size());
+    Map<OutboxRow, String> poison = new LinkedHashMap<>();
+    while (!byTask.isEmpty()) {
+      Map<OutboxRow, CompletableFuture<SendResult<String, Object>>> round = new LinkedHashMap<>();
+      for (Deque<OutboxRow> pending : byTask.values()) {
+        OutboxRow row = pending.poll();
+        TaskEvent event;
+        try {
+          event = decode(row);
+        } catch (IllegalArgumentException e) {
+          poisoned.increment();
+          log.error("outbox_poison id={} taskId={} error={}", row.id(), row.aggregateId(), e.getMessage());
+          poison.put(row, e.getMessage());
+          continue;
+        }
+        round.put(row, kafkaTemplate.send(TaskEventProducer.TOPIC, row.aggregateId(), event));
+      }
+
+      Set<String> blocked = new HashSet<>();
+      for (Map.Entry<OutboxRow, CompletableFuture<SendResult<String, Object>>> e : round.entrySet()) {
+        OutboxRow row = e.getKey();
+        try {
+          e.getValue().get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return new Drained(acked, poison);
+        } catch (Exception ex) {
+          failed.increment();
+          log.warn("outbox_send_failed id={} taskId={} error={}", row.id(), row.aggregateId(), ex.getClass().getSimpleName());
+          blocked.add(row.aggregateId());
+          continue;
+        }
+        published.increment();
+        lag.record(Duration.between(row.createdAt(), Instant.now()));
+        acked.add(row.id());
+      }
+      byTask.keySet().removeAll(blocked);
+      byTask.values().removeIf(Deque::isEmpty);
+    }
+    return new Drained(acked, poison);
+  }
+
+  private TaskEvent decode(OutboxRow row) {
+    Class<? extends TaskEvent> type = EVENT_TYPES.get(row.eventType());
+    if (type == null) throw new IllegalArgumentException("event_type desconhecido: " + row.eventType());
+    try {
+      return mapper.readValue(row.payload(), type);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("payload ilegível: " + e.getMessage(), e);
+    }
+  }
+
+  /** Move a linha para task_outbox_dead numa só instrução (autocommit). */
+  private void deadLetter(OutboxRow row, String error) {
+    jdbc.update("""
+        with moved as (delete from task_outbox where id = ? returning id, aggregate_id, event_type, payload, created_at)
+        insert into task_outbox_dead (id, aggregate_id, event_type, payload, created_at, error)
+        select id, aggregate_id, event_type, payload, created_at, ? from moved""", row.id(), error);
+  }
+
+  private static void sleepQuietly(Duration d) {
+    try {
+      Thread.sleep(d.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  record OutboxRow(long id, String aggregateId, String eventType, String payload, Instant createdAt) {}
+
+  /** Ids confirmados pelo broker e linhas poison (→ erro). */
+  record Drained(List<Long> acked, Map<OutboxRow, String> poisoned) {}
+}
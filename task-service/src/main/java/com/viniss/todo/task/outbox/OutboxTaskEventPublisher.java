@@ -0,0 +1,77 @@
+package com.viniss.todo.task.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.events.TaskEvent;
+import com.viniss.todo.common.events.TaskUpdated;
+import com.viniss.todo.task.application.port.out.TaskEventPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publica eventos gravando-os na outbox. Exige a transação de quem altera a task:
+ * o evento só existe se a task foi persistida, e vice-versa.
+ *
+ * O handle devolvido já nasce completo: a entrega ao broker é do OutboxRelay, que tem
+ * métricas próprias (task.outbox.relay.*). Falha no INSERT sobe como exceção e derruba a transação.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.publisher", havingValue = "outbox", matchIfMissing = true)
+public class OutboxTaskEventPublisher implements TaskEventPublisher {
+  static final String INSERT_SQL =
+      "insert into task_outbox (aggregate_id, event_type, payload) values (?, ?, cast(? as jsonb))";
+
+  private final JdbcTemplate jdbc;
+  private final ObjectMapper mapper;
+
+  public OutboxTaskEventPublisher(JdbcTemplate jdbc, ObjectMapper mapper) {
+    this.jdbc = jdbc;
+    this.mapper = mapper;
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public CompletableFuture<Void> publishCreated(TaskCreated event) {
+    append(event);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public CompletableFuture<Void> publishUpdated(TaskUpdated event) {
+    append(event);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public CompletableFuture<Void> publishAll(List<? extends TaskEvent> events) {
+    if (events.isEmpty()) return CompletableFuture.completedFuture(null);
+    // um único batch JDBC (com reWriteBatchedInserts vira insert multi-valores)
+    List<Object[]> rows = events.stream()
+        .map(e -> new Object[] {e.taskId(), e.getClass().getSimpleName(), toJson(e)})
+        .toList();
+    jdbc.batchUpdate(INSERT_SQL, rows);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  private void append(TaskEvent event) {
+    // event_type = nome simples do record, relido pelo OutboxRelay
+    jdbc.update(INSERT_SQL, event.taskId(), event.getClass().getSimpleName(), toJson(event));
+  }
+
+  private String toJson(TaskEvent event) {
+    try {
+      return mapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Falha ao serializar evento " + event.getClass().getSimpleName(), e);
+    }
+  }
+}
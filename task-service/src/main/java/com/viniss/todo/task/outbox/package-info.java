@@ -0,0 +1,8 @@
+/**
+ * Transactional outbox for task-service.
+ *
+ * Task events are written to the task_outbox table in the same transaction as
+ * the task itself and later drained to Kafka by a single relay, so a broker
+ * outage neither loses events nor blocks request threads.
+ */
+package com.viniss.todo.task.outbox;
@@ -0,0 +1,167 @@
+package com.viniss.todo.task.persistence.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.viniss.todo.common.dto.TaskStatus;
+import com.viniss.todo.task.domain.Task;
+import com.viniss.todo.task.domain.TaskCursor;
+import com.viniss.todo.task.domain.TaskPatch;
+import com.viniss.todo.task.domain.TaskRepository;
+import com.viniss.todo.task.persistence.jpa.TaskRepositoryJpaAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache read-through por id na frente do {@link TaskRepositoryJpaAdapter}.
+ *
+ * <ul>
+ *   <li>Limitado por tamanho e TTL ({@code app.cache.tasks.max-size}, {@code app.cache.tasks.ttl}).</li>
+ *   <li>Só atende leituras fora de transação de escrita (GET, transações readOnly). Dentro de
+ *       uma transação read-write a leitura vai ao banco: a entidade volta gerenciada, o If-Match
+ *       compara com a versão real e o flush não precisa de merge (um SELECT por linha no lote).</li>
+ *   <li>Guarda e devolve cópias: quem recebe a task pode alterá-la sem afetar outras threads.</li>
+ *   <li>Escritas locais invalidam na hora e de novo após o commit/rollback (evita repovoar com
+ *       o valor antigo durante a transação). Escritas de outras réplicas chegam por task.events
+ *       ({@code TaskCacheInvalidationListener}).</li>
+ *   <li>Listagem (findPage), typeahead (suggest) e contadores (countByStatus) não passam pelo cache.</li>
+ * </ul>
+ *
+ * Métricas em /actuator/metrics: cache.gets (hit/miss), cache.evictions, cache.size com tag cache=tasks.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "app.cache.tasks.enabled", havingValue = "true", matchIfMissing = true)
+public class CachingTaskRepository implements TaskRepository {
+  private final TaskRepositoryJpaAdapter delegate;
+  private final Cache<UUID, Task> cache;
+
+  public CachingTaskRepository(TaskRepositoryJpaAdapter delegate,
+                               MeterRegistry registry,
+                               @Value("${app.cache.tasks.max-size:10000}") long maxSize,
+                               @Value("${app.cache.tasks.ttl:60s}") Duration ttl) {
+    this.delegate = delegate;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "tasks");
+  }
+
+  @Override
+  public Optional<Task> findById(UUID id) {
+    if (inWriteTransaction()) return delegate.findById(id);
+    Task cached = cache.get(id, key -> delegate.findById(key).map(CachingTaskRepository::copyOf).orElse(null));
+    return Optional.ofNullable(cached).map(CachingTaskRepository::copyOf);
+  }
+
+  @Override
+  public List<Task> findAllById(Collection<UUID> ids) {
+    if (inWriteTransaction()) return delegate.findAllById(ids);
+    Map<UUID, Task> found = cache.getAll(ids, missing -> {
+      Map<UUID, Task> loaded = new HashMap<>();
+      for (Task t : delegate.findAllById(List.copyOf(missing))) {
+        loaded.put(t.getId(), copyOf(t));
+      }
+      return loaded;
+    });
+    List<Task> result = new ArrayList<>(found.size());
+    found.values().forEach(t -> result.add(copyOf(t)));
+    return result;
+  }
+
+  @Override
+  public Task save(Task task) {
+    invalidate(List.of(task.getId()));
+    return delegate.save(task);
+  }
+
+  @Override
+  public List<Task> insertAll(List<Task> tasks) {
+    invalidate(ids(tasks));
+    return delegate.insertAll(tasks);
+  }
+
+  @Override
+  public List<Task> saveAll(List<Task> tasks) {
+    invalidate(ids(tasks));
+    return delegate.saveAll(tasks);
+  }
+
+  @Override
+  public Optional<Task> patch(UUID id, TaskPatch patch, Long expectedVersion, Instant updatedAt) {
+    invalidate(List.of(id));
+    return delegate.patch(id, patch, expectedVersion, updatedAt);
+  }
+
+  @Override
+  public List<Task> findPage(String projectId, TaskStatus status, String label, TaskCursor after, int limit) {
+    return delegate.findPage(projectId, status, label, after, limit);
+  }
+
+  @Override
+  public List<Task> suggest(String projectId, String query, int limit) {
+    return delegate.suggest(projectId, query, limit);
+  }
+
+  @Override
+  public Map<TaskStatus, Long> countByStatus(String projectId) {
+    return delegate.countByStatus(projectId);
+  }
+
+  /** Invalidação vinda de outra réplica (evento em task.events). */
+  public void evict(UUID id) {
+    cache.invalidate(id);
+  }
+
+  private void invalidate(List<UUID> ids) {
+    cache.invalidateAll(ids);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          cache.invalidateAll(ids);
+        }
+      });
+    }
+  }
+
+  private static boolean inWriteTransaction() {
+    return TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  private static List<UUID> ids(List<Task> tasks) {
+    return tasks.stream().map(Task::getId).filter(id -> id != null).toList();
+  }
+
+  static Task copyOf(Task t) {
+    Task c = new Task();
+    c.setId(t.getId());
+    c.setProjectId(t.getProjectId());
+    c.setTitle(t.getTitle());
+    c.setDescription(t.getDescription());
+    c.setStatus(t.getStatus());
+    c.setCreatedAt(t.getCreatedAt());
+    c.setUpdatedAt(t.getUpdatedAt());
+    c.setLabels(t.getLabels() == null ? new ArrayList<>() : new ArrayList<>(t.getLabels()));
+    c.setVersion(t.getVersion());
+    return c;
+  }
+}
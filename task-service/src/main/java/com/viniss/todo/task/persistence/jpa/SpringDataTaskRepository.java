@@ -4,6 +4,8 @@ import com.viniss.todo.task.domain.Task;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.UUID;
+
 @Repository
-public interface SpringDataTaskRepository extends JpaRepository<Task, String> {
+public interface SpringDataTaskRepository extends JpaRepository<Task, UUID> {
 }
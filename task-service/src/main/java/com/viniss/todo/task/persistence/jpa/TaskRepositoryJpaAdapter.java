@@ -1,10 +1,31 @@
 package com.viniss.todo.task.persistence.jpa;
 
+import com.viniss.todo.common.dto.TaskStatus;
 import com.viniss.todo.task.domain.Task;
+import com.viniss.todo.task.domain.TaskCursor;
+import com.viniss.todo.task.domain.TaskPatch;
 import com.viniss.todo.task.domain.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Array;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * JPA adapter that implements the domain TaskRepository using Spring Data.
@@ -12,18 +33,165 @@ import java.util.Optional;
 @Component
 public class TaskRepositoryJpaAdapter implements TaskRepository {
   private final SpringDataTaskRepository springData;
+  private final EntityManager em;
+  private final JdbcTemplate jdbc;
 
-  public TaskRepositoryJpaAdapter(SpringDataTaskRepository springData) {
+  /**
+   * PATCH em um único round-trip: só as colunas informadas mudam (coalesce com o valor atual),
+   * a versão sobe no mesmo UPDATE e o RETURNING devolve a linha para resposta e evento.
+   * O lock de linha do UPDATE serializa PATCHes concorrentes na mesma task.
+   */
+  static final String PATCH_SQL = """
+      update tasks set
+        title       = coalesce(cast(? as varchar), title),
+        description = coalesce(cast(? as varchar), description),
+        status      = coalesce(cast(? as varchar), status),
+        labels      = coalesce(cast(? as text[]), labels),
+        updated_at  = ?,
+        version     = version + 1
+      where id = ? and (cast(? as bigint) is null or version = cast(? as bigint))
+      returning id, project_id, title, description, status, created_at, updated_at, labels, version
+      """;
+
+  public TaskRepositoryJpaAdapter(SpringDataTaskRepository springData, EntityManager em, JdbcTemplate jdbc) {
     this.springData = springData;
+    this.em = em;
+    this.jdbc = jdbc;
   }
 
   @Override
   public Task save(Task task) {
-    return springData.save(task);
+    // flush imediato: o @Version incrementado precisa estar na resposta (ETag)
+    return springData.saveAndFlush(task);
   }
 
   @Override
-  public Optional<Task> findById(String id) {
+  public Optional<Task> findById(UUID id) {
     return springData.findById(id);
   }
+
+  @Override
+  public List<Task> findAllById(Collection<UUID> ids) {
+    return springData.findAllById(ids);
+  }
+
+  /**
+   * persist direto: com id atribuído, save() faria merge (um SELECT por linha antes do INSERT).
+   * Os INSERTs saem agrupados no flush (hibernate.jdbc.batch_size).
+   */
+  @Override
+  @Transactional
+  public List<Task> insertAll(List<Task> tasks) {
+    tasks.forEach(em::persist);
+    em.flush();
+    return tasks;
+  }
+
+  @Override
+  public List<Task> saveAll(List<Task> tasks) {
+    return springData.saveAllAndFlush(tasks);
+  }
+
+  @Override
+  public Optional<Task> patch(UUID id, TaskPatch patch, Long expectedVersion, Instant updatedAt) {
+    List<Task> rows = jdbc.query(PATCH_SQL, TASK_ROW,
+        patch.title(),
+        patch.description(),
+        patch.status() == null ? null : patch.status().name(),
+        patch.labels() == null ? null : patch.labels().toArray(String[]::new),
+        OffsetDateTime.ofInstant(updatedAt, ZoneOffset.UTC),
+        id,
+        expectedVersion,
+        expectedVersion);
+    if (!rows.isEmpty()) return Optional.of(rows.get(0));
+    if (expectedVersion == null) return Optional.empty();
+
+    // 0 linhas com If-Match: distingue task inexistente de versão divergente (só no caminho de falha)
+    List<Long> current = jdbc.queryForList("select version from tasks where id = ?", Long.class, id);
+    if (current.isEmpty()) return Optional.empty();
+    throw new OptimisticLockingFailureException("Task " + id + " está na versão " + current.get(0));
+  }
+
+  private static final RowMapper<Task> TASK_ROW = (rs, rowNum) -> {
+    Task t = new Task();
+    t.setId(rs.getObject("id", UUID.class));
+    t.setProjectId(rs.getString("project_id"));
+    t.setTitle(rs.getString("title"));
+    t.setDescription(rs.getString("description"));
+    String status = rs.getString("status");
+    t.setStatus(status == null ? null : TaskStatus.valueOf(status));
+    t.setCreatedAt(toInstant(rs.getObject("created_at", OffsetDateTime.class)));
+    t.setUpdatedAt(toInstant(rs.getObject("updated_at", OffsetDateTime.class)));
+    Array labels = rs.getArray("labels");
+    t.setLabels(labels == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList((String[]) labels.getArray())));
+    t.setVersion(rs.getLong("version"));
+    return t;
+  };
+
+  private static Instant toInstant(OffsetDateTime odt) {
+    return odt == null ? null : odt.toInstant();
+  }
+
+  /**
+   * Keyset sem OFFSET: só os predicados dos filtros informados entram no SQL, para que o
+   * planner use idx_tasks_project_updated / idx_tasks_project_status_updated / idx_tasks_labels.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<Task> findPage(String projectId, TaskStatus status, String label, TaskCursor after, int limit) {
+    StringBuilder sql = new StringBuilder("select * from tasks t where t.project_id = :projectId");
+    if (status != null) {
+      sql.append(" and t.status = :status");
+    }
+    if (label != null) {
+      sql.append(" and t.labels @> array[cast(:label as text)]");
+    }
+    if (after != null) {
+      sql.append(" and (t.updated_at < :afterUpdatedAt or (t.updated_at = :afterUpdatedAt and t.id < :afterId))");
+    }
+    sql.append(" order by t.updated_at desc, t.id desc limit :limit");
+
+    Query query = em.createNativeQuery(sql.toString(), Task.class)
+        .setParameter("projectId", projectId)
+        .setParameter("limit", limit);
+    if (status != null) query.setParameter("status", status.name());
+    if (label != null) query.setParameter("label", label);
+    if (after != null) {
+      query.setParameter("afterUpdatedAt", after.updatedAt());
+      query.setParameter("afterId", after.id());
+    }
+    return query.getResultList();
+  }
+
+  /**
+   * Usa a mesma expressão de idx_tasks_project_search_trgm (V7), senão o planner não casa o índice.
+   * Termos com menos de 3 caracteres não geram trigramas: aí o Postgres percorre
+   * idx_tasks_project_updated do mais recente e para no limit.
+   */
+  static final String SUGGEST_SQL = """
+      select id, project_id, title, description, status, created_at, updated_at, labels, version
+      from tasks
+      where project_id = ? and task_search_text(title, labels) like ? escape '\\'
+      order by updated_at desc, id desc
+      limit ?
+      """;
+
+  @Override
+  public List<Task> suggest(String projectId, String query, int limit) {
+    return jdbc.query(SUGGEST_SQL, TASK_ROW, projectId, "%" + escapeLike(query.toLowerCase(Locale.ROOT)) + "%", limit);
+  }
+
+  private static String escapeLike(String s) {
+    return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  /** Lê os contadores mantidos pelos triggers de project_task_stats (V6): no máximo uma linha por status. */
+  @Override
+  public Map<TaskStatus, Long> countByStatus(String projectId) {
+    Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+    jdbc.query("select status, task_count from project_task_stats where project_id = ?",
+        rs -> { counts.put(TaskStatus.valueOf(rs.getString("status")), rs.getLong("task_count")); },
+        projectId);
+    return counts;
+  }
 }
@@ -0,0 +1,53 @@
+package com.viniss.todo.task.security;
+
+import com.viniss.todo.common.security.ProjectGrants;
+import com.viniss.todo.task.domain.Task;
+import com.viniss.todo.task.domain.TaskRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.function.BiPredicate;
+
+/**
+ * Regras do {@code @PreAuthorize("@authz...")} do task-service sobre os {@link ProjectGrants} que o
+ * gateway repassou na identidade interna: nenhuma leitura de JWT aqui. Leitura (GET) exige
+ * {@link ProjectGrants#canRead}; criação e alteração, {@link ProjectGrants#canWrite}.
+ */
+@Component("authz")
+public class TaskAuthz {
+  private final TaskRepository tasks;
+
+  public TaskAuthz(TaskRepository tasks) {
+    this.tasks = tasks;
+  }
+
+  public boolean hasProjectAccess(Authentication authentication, String projectId) {
+    return ProjectGrants.of(authentication).canRead(projectId);
+  }
+
+  public boolean canWriteProject(Authentication authentication, String projectId) {
+    return ProjectGrants.of(authentication).canWrite(projectId);
+  }
+
+  /** Resolve o projeto pela própria base (cache por id na frente); task inexistente → negado. */
+  public boolean canAccessTask(Authentication authentication, String taskId) {
+    return checkTask(authentication, taskId, ProjectGrants::canRead);
+  }
+
+  public boolean canWriteTask(Authentication authentication, String taskId) {
+    return checkTask(authentication, taskId, ProjectGrants::canWrite);
+  }
+
+  private boolean checkTask(Authentication authentication, String taskId, BiPredicate<ProjectGrants, String> rule) {
+    ProjectGrants grants = ProjectGrants.of(authentication);
+    if (grants == ProjectGrants.NONE) return false;
+    UUID id;
+    try {
+      id = UUID.fromString(taskId);
+    } catch (IllegalArgumentException | NullPointerException e) {
+      return false;
+    }
+    return tasks.findById(id).map(Task::getProjectId).map(p -> rule.test(grants, p)).orElse(false);
+  }
+}
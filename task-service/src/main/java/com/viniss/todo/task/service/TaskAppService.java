@@ -1,23 +1,43 @@
 package com.viniss.todo.task.service;
 
 import com.viniss.todo.common.dto.CreateTaskRequest;
+import com.viniss.todo.common.dto.ProjectTaskStats;
+import com.viniss.todo.common.dto.TaskPage;
 import com.viniss.todo.common.dto.TaskResponse;
 import com.viniss.todo.common.dto.UpdateTaskRequest;
 import com.viniss.todo.common.dto.TaskStatus;
+import com.viniss.todo.common.dto.TaskSuggestion;
 import com.viniss.todo.common.events.TaskCreated;
 import com.viniss.todo.common.events.TaskUpdated;
 import com.viniss.todo.task.application.port.out.TaskEventPublisher;
 import com.viniss.todo.task.domain.Task;
+import com.viniss.todo.task.domain.TaskCursor;
+import com.viniss.todo.task.domain.TaskIds;
+import com.viniss.todo.task.domain.TaskPatch;
 import com.viniss.todo.task.domain.TaskRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @Service
 public class TaskAppService {
+  static final int DEFAULT_PAGE_SIZE = 50;
+  static final int MAX_PAGE_SIZE = 200;
+  static final int DEFAULT_SUGGEST_SIZE = 10;
+  static final int MAX_SUGGEST_SIZE = 50;
+  static final int MAX_SUGGEST_QUERY = 100;
+
   private final TaskRepository repository;
   private final TaskEventPublisher eventPublisher;
 
@@ -26,71 +46,215 @@ public class TaskAppService {
     this.eventPublisher = eventPublisher;
   }
 
+  @Transactional
   public TaskResponse create(CreateTaskRequest req) {
-    Task t = new Task();
-    t.setId(UUID.randomUUID().toString());
-    t.setProjectId(req.projectId());
-    t.setTitle(req.title());
-    t.setDescription(req.description());
-    t.setStatus(TaskStatus.TODO); // default inicial
-    t.setCreatedAt(Instant.now());
-    t.setUpdatedAt(t.getCreatedAt());
-    t.setLabels(req.labels() == null ? new ArrayList<>() : new ArrayList<>(req.labels()));
-
-    Task saved = repository.save(t);
+    Task saved = repository.save(newTask(req, Instant.now()));
 
     // Evento de integração (agora com taskId e OffsetDateTime)
-    eventPublisher.publishCreated(new TaskCreated(
-            saved.getId(), // taskId
-            saved.getProjectId(),
-            saved.getTitle(),
-            saved.getStatus().name(),
-            saved.getCreatedAt().atOffset(ZoneOffset.UTC), // OffsetDateTime
-            saved.getLabels()
-    ));
+    eventPublisher.publishCreated(createdEvent(saved));
 
     return toResponse(saved);
   }
 
+  @Transactional(readOnly = true)
+  public TaskResponse get(String id) {
+    return TaskIds.parse(id)
+            .flatMap(repository::findById)
+            .map(TaskAppService::toResponse)
+            .orElseThrow(() -> new NoSuchElementException("Task not found: " + id));
+  }
+
+  // chamada via this não passa pelo proxy: a transação (exigida pela outbox) precisa estar aqui também
+  @Transactional
   public TaskResponse update(String id, UpdateTaskRequest req) {
-    Task t = repository.findById(id)
-            .orElseThrow(() -> new IllegalArgumentException("Task not found: " + id));
+    return update(id, req, null);
+  }
 
-    if (req.title() != null) t.setTitle(req.title());
-    if (req.description() != null) t.setDescription(req.description());
-    if (req.status() != null) t.setStatus(TaskStatus.valueOf(req.status()));
-    if (req.labels() != null) t.setLabels(new ArrayList<>(req.labels()));
-    t.setUpdatedAt(Instant.now());
+  /**
+   * @param expectedVersion versão vinda do If-Match; {@code null} dispensa a checagem.
+   *        Divergência (ou corrida detectada pelo @Version no flush) vira
+   *        {@link OptimisticLockingFailureException} → 412.
+   */
+  @Transactional
+  public TaskResponse update(String id, UpdateTaskRequest req, Long expectedVersion) {
+    Task t = TaskIds.parse(id)
+            .flatMap(repository::findById)
+            .orElseThrow(() -> new IllegalArgumentException("Task not found: " + id));
+    if (expectedVersion != null && !expectedVersion.equals(t.getVersion())) {
+      throw new OptimisticLockingFailureException("Task " + id + " está na versão " + t.getVersion());
+    }
 
+    applyChanges(t, req, Instant.now());
     Task saved = repository.save(t);
 
-    eventPublisher.publishUpdated(new TaskUpdated(
-            saved.getId(), // taskId
-            saved.getProjectId(),
-            saved.getTitle(),
-            saved.getStatus().name(),
-            saved.getUpdatedAt().atOffset(ZoneOffset.UTC), // OffsetDateTime
-            saved.getLabels()
-    ));
+    eventPublisher.publishUpdated(updatedEvent(saved));
 
     return toResponse(saved);
   }
 
+  /** Listagem keyset: busca limit+1 linhas para saber se existe próxima página sem COUNT. */
+  @Transactional(readOnly = true)
+  public TaskPage list(String projectId, String status, String label, String after, Integer limit) {
+    if (projectId == null || projectId.isBlank()) {
+      throw new IllegalArgumentException("projectId é obrigatório");
+    }
+    int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    TaskCursor cursor = (after == null || after.isBlank()) ? null : TaskCursor.decode(after);
+
+    String labelFilter = (label == null || label.isBlank()) ? null : label.trim();
+
+    List<Task> rows = repository.findPage(projectId, parseStatus(status), labelFilter, cursor, size + 1);
+    boolean hasMore = rows.size() > size;
+    List<Task> page = hasMore ? rows.subList(0, size) : rows;
+    String nextCursor = hasMore ? TaskCursor.of(page.get(page.size() - 1)).encode() : null;
+
+    return new TaskPage(page.stream().map(TaskAppService::toResponse).toList(), nextCursor);
+  }
+
+  /** Typeahead por título/labels (índice trigram), mais recentes primeiro. Termo vazio não consulta o banco. */
+  @Transactional(readOnly = true)
+  public List<TaskSuggestion> suggest(String projectId, String q, Integer limit) {
+    if (projectId == null || projectId.isBlank()) {
+      throw new IllegalArgumentException("projectId é obrigatório");
+    }
+    String term = q == null ? "" : q.strip();
+    if (term.isEmpty()) return List.of();
+    if (term.length() > MAX_SUGGEST_QUERY) {
+      throw new IllegalArgumentException("q excede " + MAX_SUGGEST_QUERY + " caracteres");
+    }
+    int size = limit == null ? DEFAULT_SUGGEST_SIZE : Math.max(1, Math.min(limit, MAX_SUGGEST_SIZE));
+
+    return repository.suggest(projectId, term, size).stream()
+            .map(t -> new TaskSuggestion(
+                    t.getId().toString(),
+                    t.getTitle(),
+                    t.getStatus() == null ? null : t.getStatus().name(),
+                    t.getLabels(),
+                    t.getUpdatedAt() == null ? null : t.getUpdatedAt().atOffset(ZoneOffset.UTC)))
+            .toList();
+  }
+
+  /** Contadores por status lidos de project_task_stats (O(1) no tamanho do projeto); status sem tasks saem como 0. */
+  @Transactional(readOnly = true)
+  public ProjectTaskStats stats(String projectId) {
+    if (projectId == null || projectId.isBlank()) {
+      throw new IllegalArgumentException("projectId é obrigatório");
+    }
+    Map<TaskStatus, Long> counts = repository.countByStatus(projectId);
+    Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+    long total = 0;
+    for (TaskStatus s : TaskStatus.values()) {
+      long n = counts.getOrDefault(s, 0L);
+      byStatus.put(s, n);
+      total += n;
+    }
+    return new ProjectTaskStats(projectId, byStatus, total);
+  }
+
   // PATCH parcial (mesma DTO com campos opcionais)
+  @Transactional
   public TaskResponse patch(String id, UpdateTaskRequest req) {
-    return update(id, req);
+    return patch(id, req, null);
+  }
+
+  /**
+   * PATCH sem read-modify-write: um único UPDATE ... RETURNING aplica só os campos informados
+   * (e o If-Match, se houver); o evento sai da linha devolvida.
+   */
+  @Transactional
+  public TaskResponse patch(String id, UpdateTaskRequest req, Long expectedVersion) {
+    UUID taskId = TaskIds.parse(id)
+            .orElseThrow(() -> new IllegalArgumentException("Task not found: " + id));
+    TaskPatch changes = new TaskPatch(
+            req.title(),
+            req.description(),
+            req.status() == null ? null : TaskStatus.valueOf(req.status()),
+            req.labels());
+
+    Task saved = repository.patch(taskId, changes, expectedVersion, Instant.now())
+            .orElseThrow(() -> new IllegalArgumentException("Task not found: " + id));
+
+    eventPublisher.publishUpdated(updatedEvent(saved));
+
+    return toResponse(saved);
+  }
+
+  private static TaskStatus parseStatus(String status) {
+    if (status == null || status.isBlank()) return null;
+    try {
+      return TaskStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Status inválido: " + status);
+    }
+  }
+
+  static Task newTask(CreateTaskRequest req, Instant now) {
+    Task t = new Task();
+    t.setId(TaskIds.next());
+    t.setProjectId(req.projectId());
+    t.setTitle(req.title());
+    t.setDescription(req.description());
+    t.setStatus(TaskStatus.TODO); // default inicial
+    t.setCreatedAt(now);
+    t.setUpdatedAt(now);
+    t.setLabels(req.labels() == null ? new ArrayList<>() : new ArrayList<>(req.labels()));
+    return t;
+  }
+
+  static void applyChanges(Task t, UpdateTaskRequest req, Instant now) {
+    if (req.title() != null) t.setTitle(req.title());
+    if (req.description() != null) t.setDescription(req.description());
+    if (req.status() != null) t.setStatus(TaskStatus.valueOf(req.status()));
+    if (req.labels() != null) t.setLabels(new ArrayList<>(req.labels()));
+    t.setUpdatedAt(now);
+  }
+
+  static TaskCreated createdEvent(Task t) {
+    return new TaskCreated(
+            t.getId().toString(), // taskId
+            t.getProjectId(),
+            t.getTitle(),
+            t.getStatus().name(),
+            t.getCreatedAt().atOffset(ZoneOffset.UTC), // OffsetDateTime
+            t.getLabels(),
+            eventId("TaskCreated", t),
+            t.getVersion() // sequence por task = @Version da escrita que gerou o evento
+    );
+  }
+
+  static TaskUpdated updatedEvent(Task t) {
+    return new TaskUpdated(
+            t.getId().toString(), // taskId
+            t.getProjectId(),
+            t.getTitle(),
+            t.getStatus().name(),
+            t.getUpdatedAt().atOffset(ZoneOffset.UTC), // OffsetDateTime
+            t.getLabels(),
+            eventId("TaskUpdated", t),
+            t.getVersion()
+    );
+  }
+
+  /**
+   * Id determinístico (UUID v3 de tipo + task + versão): o mesmo fato gera sempre o mesmo id,
+   * mesmo que seja montado e publicado de novo — é o que os consumidores usam para deduplicar.
+   */
+  static String eventId(String type, Task t) {
+    String name = type + ":" + t.getId() + ":" + t.getVersion();
+    return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
   }
 
-  private static TaskResponse toResponse(Task t) {
+  static TaskResponse toResponse(Task t) {
     return new TaskResponse(
-            t.getId(),
+            t.getId() == null ? null : t.getId().toString(),
             t.getProjectId(),
             t.getTitle(),
             t.getDescription(),
             t.getStatus() == null ? null : t.getStatus().name(),
             t.getCreatedAt() == null ? null : t.getCreatedAt().atOffset(ZoneOffset.UTC),
             t.getUpdatedAt() == null ? null : t.getUpdatedAt().atOffset(ZoneOffset.UTC),
-            t.getLabels()
+            t.getLabels(),
+            t.getVersion()
     );
   }
 }
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.viniss.todo.task.service;
+
+import com.viniss.todo.common.dto.CreateTaskRequest;
+import com.viniss.todo.common.dto.TaskBatchCreateRequest;
+import com.viniss.todo.common.dto.TaskBatchPatchRequest;
+import com.viniss.todo.common.dto.TaskBatchResponse;
+import com.viniss.todo.common.dto.TaskResponse;
+import com.viniss.todo.common.dto.TaskStatus;
+import com.viniss.todo.common.dto.UpdateTaskRequest;
+import com.viniss.todo.common.events.TaskEvent;
+import com.viniss.todo.common.security.ProjectGrants;
+import com.viniss.todo.task.application.port.out.TaskEventPublisher;
+import com.viniss.todo.task.domain.Task;
+import com.viniss.todo.task.domain.TaskIds;
+import com.viniss.todo.task.domain.TaskRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Operações em lote (POST/PATCH /tasks:batch).
+ *
+ * Itens inválidos, inexistentes ou de projetos sem grant de escrita (403, mesma regra dos
+ * endpoints unitários: {@link ProjectGrants#canWrite}) são reportados por índice e não impedem os demais;
+ * os válidos são gravados numa única transação com INSERT/UPDATE em batch JDBC e os
+ * eventos saem num único {@link TaskEventPublisher#publishAll}.
+ */
+@Service
+public class TaskBatchService {
+  private final TaskRepository repository;
+  private final TaskEventPublisher eventPublisher;
+  private final Validator validator;
+
+  public TaskBatchService(TaskRepository repository, TaskEventPublisher eventPublisher, Validator validator) {
+    this.repository = repository;
+    this.eventPublisher = eventPublisher;
+    this.validator = validator;
+  }
+
+  @Transactional
+  public TaskBatchResponse create(TaskBatchCreateRequest req, ProjectGrants grants) {
+    List<CreateTaskRequest> items = req.items();
+    TaskBatchResponse.Item[] results = new TaskBatchResponse.Item[items.size()];
+    List<Task> toInsert = new ArrayList<>(items.size());
+    List<Integer> positions = new ArrayList<>(items.size());
+    Instant now = Instant.now();
+
+    for (int i = 0; i < items.size(); i++) {
+      CreateTaskRequest item = items.get(i);
+      String error = item == null ? "Item vazio" : violations(item);
+      if (error != null) {
+        results[i] = failure(i, HttpStatus.BAD_REQUEST, error);
+        continue;
+      }
+      if (!grants.canWrite(item.projectId())) {
+        results[i] = failure(i, HttpStatus.FORBIDDEN, "Sem acesso ao projeto: " + item.projectId());
+        continue;
+      }
+      toInsert.add(TaskAppService.newTask(item, now));
+      positions.add(i);
+    }
+
+    List<Task> saved = toInsert.isEmpty() ? List.of() : repository.insertAll(toInsert);
+    for (int k = 0; k < saved.size(); k++) {
+      int i = positions.get(k);
+      results[i] = new TaskBatchResponse.Item(i, HttpStatus.CREATED.value(), TaskAppService.toResponse(saved.get(k)), null);
+    }
+
+    publish(saved, TaskAppService::createdEvent);
+    return summarize(results);
+  }
+
+  @Transactional
+  public TaskBatchResponse patch(TaskBatchPatchRequest req, ProjectGrants grants) {
+    List<TaskBatchPatchRequest.Item> items = req.items();
+    TaskBatchResponse.Item[] results = new TaskBatchResponse.Item[items.size()];
+
+    // um único SELECT ... WHERE id IN (...) para o lote inteiro
+    Set<UUID> ids = items.stream()
+        .filter(Objects::nonNull)
+        .flatMap(it -> TaskIds.parse(it.id()).stream())
+        .collect(Collectors.toSet());
+    Map<UUID, Task> existing = repository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+    // a mesma task pode aparecer mais de uma vez: as alterações são aplicadas em ordem
+    Map<UUID, Task> touched = new LinkedHashMap<>();
+    Instant now = Instant.now();
+
+    for (int i = 0; i < items.size(); i++) {
+      TaskBatchPatchRequest.Item item = items.get(i);
+      if (item == null || item.id() == null || item.id().isBlank() || item.changes() == null) {
+        results[i] = failure(i, HttpStatus.BAD_REQUEST, "id e changes são obrigatórios");
+        continue;
+      }
+      String error = violations(item.changes());
+      if (error != null) {
+        results[i] = failure(i, HttpStatus.BAD_REQUEST, error);
+        continue;
+      }
+      Task t = TaskIds.parse(item.id()).map(existing::get).orElse(null);
+      if (t == null) {
+        results[i] = failure(i, HttpStatus.NOT_FOUND, "Task not found: " + item.id());
+        continue;
+      }
+      if (!grants.canWrite(t.getProjectId())) {
+        results[i] = failure(i, HttpStatus.FORBIDDEN, "Sem acesso ao projeto da task: " + item.id());
+        continue;
+      }
+      if (!isValidStatus(item.changes())) {
+        results[i] = failure(i, HttpStatus.BAD_REQUEST, "Status inválido: " + item.changes().status());
+        continue;
+      }
+
+      TaskAppService.applyChanges(t, item.changes(), now);
+      touched.put(t.getId(), t);
+      // snapshot do estado deste item; a versão final entra depois do flush
+      results[i] = new TaskBatchResponse.Item(i, HttpStatus.OK.value(), TaskAppService.toResponse(t), null);
+    }
+
+    List<Task> saved = touched.isEmpty() ? List.of() : repository.saveAll(new ArrayList<>(touched.values()));
+    Map<String, Long> versions = new HashMap<>();
+    saved.forEach(t -> versions.put(t.getId().toString(), t.getVersion()));
+    for (int i = 0; i < results.length; i++) {
+      TaskResponse task = results[i].task();
+      if (task != null) {
+        results[i] = new TaskBatchResponse.Item(i, results[i].status(), withVersion(task, versions.get(task.id())), null);
+      }
+    }
+    publish(saved, TaskAppService::updatedEvent);
+    return summarize(results);
+  }
+
+  private void publish(List<Task> tasks, Function<Task, ? extends TaskEvent> toEvent) {
+    if (tasks.isEmpty()) return;
+    eventPublisher.publishAll(tasks.stream().map(toEvent).toList());
+  }
+
+  private String violations(Object item) {
+    Set<ConstraintViolation<Object>> violations = validator.validate(item);
+    if (violations.isEmpty()) return null;
+    return violations.stream()
+        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+        .sorted()
+        .collect(Collectors.joining("; "));
+  }
+
+  private static boolean isValidStatus(UpdateTaskRequest changes) {
+    return changes.status() == null
+        || Arrays.stream(TaskStatus.values()).anyMatch(s -> s.name().equals(changes.status()));
+  }
+
+  private static TaskResponse withVersion(TaskResponse t, Long version) {
+    return new TaskResponse(t.id(), t.projectId(), t.title(), t.description(), t.status(),
+        t.createdAt(), t.updatedAt(), t.labels(), version);
+  }
+
+  private static TaskBatchResponse.Item failure(int index, HttpStatus status, String error) {
+    return new TaskBatchResponse.Item(index, status.value(), null, error);
+  }
+
+  private static TaskBatchResponse summarize(TaskBatchResponse.Item[] results) {
+    int failed = 0;
+    for (TaskBatchResponse.Item r : results) {
+      if (r.task() == null) failed++;
+    }
+    return new TaskBatchResponse(results.length - failed, failed, List.of(results));
+  }
+}
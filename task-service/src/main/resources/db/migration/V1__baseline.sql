@@ -0,0 +1,23 @@
+-- Esquema existente antes do Flyway (gerado até então pelo ddl-auto do Hibernate).
+-- Idempotente: bancos já populados também passam por aqui (baseline-version 0).
+
+create table if not exists tasks (
+    id          varchar(255) not null primary key,
+    project_id  varchar(255),
+    title       varchar(255),
+    description varchar(255),
+    status      varchar(255),
+    created_at  timestamp(6) with time zone,
+    updated_at  timestamp(6) with time zone
+);
+
+create table if not exists task_labels (
+    task_id varchar(255) not null references tasks (id),
+    labels  varchar(255)
+);
+
+create index if not exists idx_tasks_project_updated
+    on tasks (project_id, updated_at, id);
+
+create index if not exists idx_tasks_project_status_updated
+    on tasks (project_id, status, updated_at, id);
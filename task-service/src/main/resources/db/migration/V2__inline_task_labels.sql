@@ -0,0 +1,18 @@
+-- Task.labels deixa de ser @ElementCollection (task_labels) e vira coluna text[] em tasks.
+-- Atualizar labels passa a ser um único UPDATE na linha da task.
+
+alter table tasks add column if not exists labels text[] not null default '{}';
+
+update tasks t
+   set labels = l.labels
+  from (select task_id,
+               array_agg(labels) filter (where labels is not null)::text[] as labels
+          from task_labels
+         group by task_id) l
+ where l.task_id = t.id
+   and l.labels is not null;
+
+drop table task_labels;
+
+-- filtro ?label= usa labels @> array[...]
+create index if not exists idx_tasks_labels on tasks using gin (labels);
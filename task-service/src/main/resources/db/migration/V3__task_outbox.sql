@@ -0,0 +1,28 @@
+-- Outbox transacional: eventos gravados na mesma transação da task e drenados
+-- para o tópico task.events pelo OutboxRelay.
+
+create table if not exists task_outbox (
+    id           bigserial    primary key,
+    aggregate_id varchar(255) not null,
+    event_type   varchar(64)  not null,
+    payload      jsonb        not null,
+    created_at   timestamp(6) with time zone not null default now()
+);
+
+-- Acorda o relay no commit (NOTIFY só é entregue quando a transação confirma;
+-- notificações iguais na mesma transação são agrupadas pelo Postgres).
+create or replace function notify_task_outbox() returns trigger
+    language plpgsql as
+$$
+begin
+    perform pg_notify('task_outbox', '');
+    return null;
+end;
+$$;
+
+drop trigger if exists task_outbox_notify on task_outbox;
+
+create trigger task_outbox_notify
+    after insert on task_outbox
+    for each statement
+execute function notify_task_outbox();
@@ -0,0 +1,2 @@
+-- Lock otimista (@Version em Task) e base do ETag das respostas.
+alter table tasks add column if not exists version bigint not null default 0;
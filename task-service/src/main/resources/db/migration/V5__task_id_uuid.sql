@@ -0,0 +1,5 @@
+-- tasks.id: varchar(255) -> uuid nativo (16 bytes, comparação binária).
+-- Os ids existentes vieram de UUID.randomUUID().toString(), então o cast é direto;
+-- novos ids são UUIDv7 (TaskIds.next) e passam a entrar no fim do índice.
+-- Os índices que contêm id (pk, idx_tasks_project_*) são reconstruídos pelo ALTER.
+alter table tasks alter column id type uuid using id::uuid;
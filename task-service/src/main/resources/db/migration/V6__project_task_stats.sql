@@ -0,0 +1,98 @@
+-- Contadores por (projeto, status) mantidos no próprio write: GET /projects/{id}/stats lê
+-- no máximo 4 linhas, qualquer que seja o tamanho do projeto.
+--
+-- Triggers por statement com transition tables: um INSERT multi-linha (batch/COPY) vira um
+-- único upsert agregado por (project_id, status), e qualquer caminho de escrita (JPA, PATCH
+-- via UPDATE ... RETURNING, SQL manual) mantém os contadores na mesma transação.
+
+create table if not exists project_task_stats (
+    project_id varchar(255) not null,
+    status     varchar(255) not null,
+    task_count bigint       not null default 0,
+    primary key (project_id, status)
+);
+
+create or replace function project_task_stats_upsert(p_project_id varchar, p_status varchar, p_delta bigint)
+    returns void language sql as
+$$
+    insert into project_task_stats (project_id, status, task_count)
+    values (p_project_id, p_status, p_delta)
+    on conflict (project_id, status)
+        do update set task_count = project_task_stats.task_count + excluded.task_count;
+$$;
+
+create or replace function project_task_stats_on_insert() returns trigger
+    language plpgsql as
+$$
+begin
+    perform project_task_stats_upsert(project_id, status, n)
+    from (select project_id, status, count(*) as n
+          from new_rows
+          where project_id is not null and status is not null
+          group by project_id, status) d;
+    return null;
+end;
+$$;
+
+create or replace function project_task_stats_on_delete() returns trigger
+    language plpgsql as
+$$
+begin
+    perform project_task_stats_upsert(project_id, status, -n)
+    from (select project_id, status, count(*) as n
+          from old_rows
+          where project_id is not null and status is not null
+          group by project_id, status) d;
+    return null;
+end;
+$$;
+
+-- só entram no delta as chaves cujo saldo mudou (um UPDATE de título não toca nos contadores)
+create or replace function project_task_stats_on_update() returns trigger
+    language plpgsql as
+$$
+begin
+    perform project_task_stats_upsert(project_id, status, delta)
+    from (select project_id, status, sum(d) as delta
+          from (select project_id, status, 1 as d from new_rows
+                union all
+                select project_id, status, -1 as d from old_rows) x
+          where project_id is not null and status is not null
+          group by project_id, status
+          having sum(d) <> 0) d;
+    return null;
+end;
+$$;
+
+-- triggers + backfill sob o mesmo lock: nenhuma escrita entre a contagem inicial e os triggers
+lock table tasks in share row exclusive mode;
+
+drop trigger if exists project_task_stats_ins on tasks;
+drop trigger if exists project_task_stats_upd on tasks;
+drop trigger if exists project_task_stats_del on tasks;
+
+create trigger project_task_stats_ins
+    after insert on tasks
+    referencing new table as new_rows
+    for each statement
+execute function project_task_stats_on_insert();
+
+create trigger project_task_stats_upd
+    after update on tasks
+    referencing old table as old_rows new table as new_rows
+    for each statement
+execute function project_task_stats_on_update();
+
+create trigger project_task_stats_del
+    after delete on tasks
+    referencing old table as old_rows
+    for each statement
+execute function project_task_stats_on_delete();
+
+delete from project_task_stats;
+
+insert into project_task_stats (project_id, status, task_count)
+select project_id, status, count(*)
+from tasks
+where project_id is not null and status is not null
+group by project_id, status;
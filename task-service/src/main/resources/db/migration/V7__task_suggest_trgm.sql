@@ -0,0 +1,18 @@
+-- Typeahead (GET /tasks/suggest): busca por substring em título + labels dentro do projeto.
+-- pg_trgm indexa o LIKE '%q%' e btree_gin permite project_id na mesma chave GIN,
+-- então o filtro por projeto e o match saem de um único índice.
+-- Ambas são extensões "trusted" (PG 13+): o dono do banco pode criá-las sem superusuário.
+
+create extension if not exists pg_trgm;
+create extension if not exists btree_gin;
+
+-- array_to_string é STABLE; o wrapper IMMUTABLE é seguro aqui (sem dependência de locale/sessão)
+-- e é o que permite usá-lo em índice de expressão. A query precisa usar exatamente esta expressão.
+create or replace function task_search_text(p_title text, p_labels text[])
+    returns text language sql immutable parallel safe as
+$$
+    select lower(coalesce(p_title, '') || ' ' || coalesce(array_to_string(p_labels, ' '), ''));
+$$;
+
+create index if not exists idx_tasks_project_search_trgm
+    on tasks using gin (project_id, task_search_text(title, labels) gin_trgm_ops);
@@ -0,0 +1,12 @@
+-- Linhas da outbox que nunca vão publicar (event_type desconhecido, payload ilegível).
+-- O OutboxRelay as move para cá em vez de travar a drenagem; reprocessar é manual.
+
+create table if not exists task_outbox_dead (
+    id           bigint       primary key,
+    aggregate_id varchar(255) not null,
+    event_type   varchar(64)  not null,
+    payload      jsonb        not null,
+    created_at   timestamp(6) with time zone not null,
+    failed_at    timestamp(6) with time zone not null default now(),
+    error        text         not null
+);
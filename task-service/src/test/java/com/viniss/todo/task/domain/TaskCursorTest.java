@@ -0,0 +1,40 @@
+package com.viniss.todo.task.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TaskCursorTest {
+
+    @Test
+    @DisplayName("encode/decode: ida e volta preserva updatedAt (micros) e id")
+    void roundTrip() {
+        TaskCursor cursor = new TaskCursor(Instant.parse("2025-01-02T03:04:05.123456Z"), UUID.fromString("0190a5a0-0000-7000-8000-000000000001"));
+
+        TaskCursor decoded = TaskCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("encode: token é opaco (base64url sem padding)")
+    void encode_isUrlSafe() {
+        String token = new TaskCursor(Instant.parse("2025-01-02T03:04:05Z"), UUID.randomUUID()).encode();
+
+        assertThat(token).doesNotContain("=", "+", "/", "|");
+    }
+
+    @Test
+    @DisplayName("decode: token inválido vira IllegalArgumentException")
+    void decode_invalid() {
+        assertThatThrownBy(() -> TaskCursor.decode("%%%"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cursor inválido");
+        assertThatThrownBy(() -> TaskCursor.decode("bm90LWEtY3Vyc29y")) // "not-a-cursor"
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,150 @@
+package com.viniss.todo.task.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viniss.todo.common.dto.TaskResponse;
+import com.viniss.todo.common.security.InternalIdentity;
+import com.viniss.todo.common.security.InternalIdentityAuthentication;
+import com.viniss.todo.common.security.ProjectGrants;
+import com.viniss.todo.task.domain.Task;
+import com.viniss.todo.task.domain.TaskRepository;
+import com.viniss.todo.task.security.SecurityConfig;
+import com.viniss.todo.task.security.TaskAuthz;
+import com.viniss.todo.task.service.TaskAppService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Regras do @PreAuthorize avaliadas com a SecurityConfig real e uma identidade interna
+ * (grants repassados pelo gateway): parâmetros resolvidos por nome e negação → 403.
+ */
+@WebMvcTest(controllers = TaskRestController.class)
+@Import({ SecurityConfig.class, TaskAuthz.class })
+class TaskRestControllerSecurityWebTest {
+
+    static final UUID TASK_ID = UUID.fromString("0190a5a0-0000-7000-8000-000000000001");
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+
+    @MockitoBean TaskAppService service;
+    @MockitoBean TaskRepository tasks;
+
+    private static InternalIdentityAuthentication identity(String... projects) {
+        Map<String, Integer> grants = new HashMap<>();
+        for (String p : projects) grants.put(p, ProjectGrants.READ | ProjectGrants.WRITE);
+        return new InternalIdentityAuthentication(new InternalIdentity("user-1",
+                ProjectGrants.of(false, false, grants), Instant.now().plusSeconds(30)));
+    }
+
+    private static InternalIdentityAuthentication readOnly(String project) {
+        return new InternalIdentityAuthentication(new InternalIdentity("user-1",
+                ProjectGrants.of(false, false, Map.of(project, ProjectGrants.READ)), Instant.now().plusSeconds(30)));
+    }
+
+    private static TaskResponse sample() {
+        var now = OffsetDateTime.now();
+        return new TaskResponse(TASK_ID.toString(), "p-1", "T", null, "TODO", now, now, List.of(), 1L);
+    }
+
+    private void taskInProject(String projectId) {
+        Task task = new Task();
+        task.setProjectId(projectId);
+        when(tasks.findById(TASK_ID)).thenReturn(Optional.of(task));
+    }
+
+    @Test
+    @DisplayName("POST /tasks no projeto concedido → 201; em outro projeto → 403")
+    void create_checks_request_project() throws Exception {
+        when(service.create(any())).thenReturn(sample());
+        String body = om.writeValueAsString(Map.of("title", "T", "projectId", "p-1", "labels", List.of()));
+
+        mvc.perform(post("/tasks").with(authentication(identity("p-1")))
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated());
+        mvc.perform(post("/tasks").with(authentication(identity("p-2")))
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isForbidden());
+
+        verify(service, times(1)).create(any());
+    }
+
+    @Test
+    @DisplayName("GET /tasks?projectId resolve #projectId pelo nome do parâmetro")
+    void list_checks_project_param() throws Exception {
+        mvc.perform(get("/tasks").param("projectId", "p-1").with(authentication(identity("p-1"))))
+                .andExpect(status().isOk());
+        mvc.perform(get("/tasks").param("projectId", "p-9").with(authentication(identity("p-1"))))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("PATCH /tasks/{id} de task de outro projeto → 403 sem chegar ao serviço")
+    void patch_checks_task_project() throws Exception {
+        taskInProject("p-2");
+
+        mvc.perform(patch("/tasks/{id}", TASK_ID).with(authentication(identity("p-1")))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"x\"}"))
+                .andExpect(status().isForbidden());
+
+        verify(service, never()).patch(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("grant só de leitura: GET 200, PATCH e POST → 403")
+    void read_only_grant_cannot_write() throws Exception {
+        taskInProject("p-1");
+        when(service.get(TASK_ID.toString())).thenReturn(sample());
+
+        mvc.perform(get("/tasks/{id}", TASK_ID).with(authentication(readOnly("p-1"))))
+                .andExpect(status().isOk());
+        mvc.perform(patch("/tasks/{id}", TASK_ID).with(authentication(readOnly("p-1")))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"x\"}"))
+                .andExpect(status().isForbidden());
+        mvc.perform(post("/tasks").with(authentication(readOnly("p-1")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(Map.of("title", "T", "projectId", "p-1", "labels", List.of()))))
+                .andExpect(status().isForbidden());
+
+        verify(service, never()).patch(any(), any(), any());
+        verify(service, never()).create(any());
+    }
+
+    @Test
+    @DisplayName("PATCH /tasks/{id} de task do projeto concedido → 200")
+    void patch_allowed() throws Exception {
+        taskInProject("p-1");
+        when(service.patch(eq(TASK_ID.toString()), any(), isNull())).thenReturn(sample());
+
+        mvc.perform(patch("/tasks/{id}", TASK_ID).with(authentication(identity("p-1")))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"x\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Sem identidade interna → 401")
+    void unauthenticated() throws Exception {
+        mvc.perform(get("/tasks/{id}", TASK_ID)).andExpect(status().isUnauthorized());
+    }
+}
@@ -1,6 +1,7 @@
 package com.viniss.todo.task.http;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viniss.todo.common.dto.TaskResponse;
 import com.viniss.todo.task.service.TaskAppService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,17 +13,21 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -50,9 +55,14 @@ class TaskRestControllerWebTest {
 
     private String json(Object o) throws Exception { return om.writeValueAsString(o); }
 
+    private static TaskResponse sample(String id, long version) {
+        var now = OffsetDateTime.now();
+        return new TaskResponse(id, "project-123", "T", null, "TODO", now, now, List.of(), version);
+    }
+
     @Test @DisplayName("POST /tasks -> 201 Created (payload válido)")
     void create_returns201() throws Exception {
-        Mockito.when(service.create(any())).thenReturn(null);
+        Mockito.when(service.create(any())).thenReturn(sample("t-1", 0));
 
         var body = Map.of(
                 "title","Write tests",
@@ -64,12 +74,13 @@ class TaskRestControllerWebTest {
         mvc.perform(post("/tasks")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json(body)))
-                .andExpect(status().isCreated());
+                .andExpect(status().isCreated())
+                .andExpect(header().string("ETag", "\"0\""));
     }
 
     @Test @DisplayName("PUT /tasks/{id} -> 200 OK (payload válido)")
     void update_returns200() throws Exception {
-        Mockito.when(service.update(anyString(), any())).thenReturn(null);
+        Mockito.when(service.update(anyString(), any(), isNull())).thenReturn(sample("t-1", 1));
 
         var body = Map.of(
                 "title","Novo título",
@@ -81,12 +92,14 @@ class TaskRestControllerWebTest {
         mvc.perform(put("/tasks/{id}", "t-1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json(body)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
     }
 
     @Test @DisplayName("PATCH /tasks/{id} -> 200 OK (parcial)")
     void patch_returns200() throws Exception {
-        Mockito.when(service.patch(anyString(), any())).thenReturn(null);
+        Mockito.when(service.patch(anyString(), any(), isNull())).thenReturn(sample("t-1", 1));
 
         var body = Map.of("title","Parcial");
 
@@ -96,6 +109,45 @@ class TaskRestControllerWebTest {
                 .andExpect(status().isOk());
     }
 
+    @Test @DisplayName("PATCH /tasks/{id} com If-Match repassa a versão esperada ao serviço")
+    void patch_withIfMatch_passesExpectedVersion() throws Exception {
+        Mockito.when(service.patch(eq("t-1"), any(), eq(3L))).thenReturn(sample("t-1", 4));
+
+        mvc.perform(patch("/tasks/{id}", "t-1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("title", "Parcial"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test @DisplayName("PUT /tasks/{id} -> 412 quando If-Match não confere")
+    void update_returns412_whenIfMatchStale() throws Exception {
+        Mockito.when(service.update(eq("t-1"), any(), eq(2L)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        mvc.perform(put("/tasks/{id}", "t-1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("title", "Novo"))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code").value("precondition_failed"));
+    }
+
+    @Test @DisplayName("GET /tasks/{id} -> 200 com ETag e 304 quando If-None-Match confere")
+    void get_returns304_whenIfNoneMatches() throws Exception {
+        Mockito.when(service.get("t-1")).thenReturn(sample("t-1", 7));
+
+        mvc.perform(get("/tasks/{id}", "t-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""))
+                .andExpect(jsonPath("$.id").value("t-1"));
+
+        mvc.perform(get("/tasks/{id}", "t-1").header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test @DisplayName("POST /tasks -> 400 quando título em branco")
     void create_returns400_whenTitleBlank() throws Exception {
         var body = Map.of(
@@ -2,15 +2,21 @@ package com.viniss.todo.task.kafka;
 
 import com.viniss.todo.common.events.TaskCreated;
 import com.viniss.todo.common.events.TaskUpdated;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -18,15 +24,24 @@ import static org.mockito.Mockito.*;
  */
 class TaskEventProducerTest {
 
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @SuppressWarnings("unchecked")
+    final KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+
+    TaskEventProducer producer(int maxInFlight) {
+        return new TaskEventProducer(kafka, registry, maxInFlight, Duration.ZERO);
+    }
+
     @Test
-    @DisplayName("publishCreated: envia no tópico task.events com key=taskId")
+    @DisplayName("publishCreated: envia no tópico task.events com key=taskId e completa no ack")
     void publishCreated_sendsToKafka() {
-        KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
-        TaskEventProducer producer = new TaskEventProducer(kafka);
+        when(kafka.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        TaskEventProducer producer = producer(10);
 
         TaskCreated evt = new TaskCreated("t-1", "p-1", "Title", "TODO", OffsetDateTime.now(), List.of("a"));
 
-        producer.publishCreated(evt);
+        CompletableFuture<Void> ack = producer.publishCreated(evt);
 
         ArgumentCaptor<String> topic = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
@@ -36,13 +51,16 @@ class TaskEventProducerTest {
         assertThat(topic.getValue()).isEqualTo("task.events");
         assertThat(key.getValue()).isEqualTo("t-1");
         assertThat(payload.getValue()).isEqualTo(evt);
+
+        assertThat(ack).isCompleted();
+        assertThat(registry.get("task.events.publish.ack").tag("topic", "task.events").timer().count()).isEqualTo(1);
     }
 
     @Test
     @DisplayName("publishUpdated: envia no tópico task.events com key=taskId")
     void publishUpdated_sendsToKafka() {
-        KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
-        TaskEventProducer producer = new TaskEventProducer(kafka);
+        when(kafka.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        TaskEventProducer producer = producer(10);
 
         TaskUpdated evt = new TaskUpdated("t-1", "p-1", "Title", "DONE", OffsetDateTime.now(), List.of());
 
@@ -57,4 +75,44 @@ class TaskEventProducerTest {
         assertThat(key.getValue()).isEqualTo("t-1");
         assertThat(payload.getValue()).isEqualTo(evt);
     }
+
+    @Test
+    @DisplayName("Falha do broker: handle falha, failed é contado e a vaga da janela é devolvida")
+    void brokerFailure_countedAndReleased() {
+        when(kafka.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        TaskEventProducer producer = producer(1);
+
+        TaskCreated evt = new TaskCreated("t-1", "p-1", "Title", "TODO", OffsetDateTime.now(), List.of());
+
+        assertThat(producer.publishCreated(evt)).isCompletedExceptionally();
+        assertThat(producer.publishCreated(evt)).isCompletedExceptionally(); // janela de 1 liberada
+        verify(kafka, times(2)).send(anyString(), anyString(), any());
+        assertThat(registry.get("task.events.publish.failed").counter().count()).isEqualTo(2.0);
+        assertThat(registry.get("task.events.publish.rejected").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Janela cheia: recusa sem chamar o Kafka até um ack liberar vaga")
+    void windowFull_rejectsWithoutBlocking() {
+        CompletableFuture<SendResult<String, Object>> pending = new CompletableFuture<>();
+        when(kafka.send(anyString(), anyString(), any())).thenReturn(pending);
+        TaskEventProducer producer = producer(1);
+
+        TaskCreated evt = new TaskCreated("t-1", "p-1", "Title", "TODO", OffsetDateTime.now(), List.of());
+
+        CompletableFuture<Void> first = producer.publishCreated(evt);
+        CompletableFuture<Void> second = producer.publishCreated(evt);
+
+        assertThat(first).isNotDone();
+        assertThat(second).isCompletedExceptionally();
+        assertThat(second.exceptionNow()).isInstanceOf(RejectedExecutionException.class);
+        assertThat(registry.get("task.events.publish.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("task.events.publish.in-flight").gauge().value()).isEqualTo(1.0);
+        verify(kafka, times(1)).send(anyString(), anyString(), any());
+
+        pending.complete(mock(SendResult.class));
+        assertThat(first).isCompleted();
+        assertThat(registry.get("task.events.publish.in-flight").gauge().value()).isZero();
+    }
 }
@@ -9,6 +9,7 @@ import com.viniss.todo.task.domain.Task;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -90,7 +91,7 @@ class TaskMapperTest {
     @Test
     void toResponse_evitaNulls_eMantemDefaults() {
         Task e = new Task();
-        e.setId("t-1");
+        e.setId(UUID.fromString("0190a5a0-0000-7000-8000-000000000001"));
         e.setProjectId(null);
         e.setTitle(null);
         e.setDescription(null);
@@ -98,7 +99,7 @@ class TaskMapperTest {
 
         TaskResponse r = mapper.toResponse(e);
 
-        assertThat(r.id()).isEqualTo("t-1");
+        assertThat(r.id()).isEqualTo("0190a5a0-0000-7000-8000-000000000001");
         assertThat(r.projectId()).isEqualTo("");
         assertThat(r.title()).isEqualTo("");
         assertThat(r.description()).isEqualTo("");
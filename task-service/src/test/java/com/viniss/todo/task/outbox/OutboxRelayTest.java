@@ -0,0 +1,106 @@
+package com.viniss.todo.task.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viniss.todo.common.events.TaskCreated;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Seleção dos ids apagados após o envio: exatamente os confirmados, uma linha em voo por task,
+ * e linhas poison separadas para task_outbox_dead.
+ */
+class OutboxRelayTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final OutboxRelay relay = new OutboxRelay(mock(DataSource.class), jdbc, kafka, mapper,
+            registry, 500, Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+    private OutboxRelay.OutboxRow row(long id, String taskId) throws Exception {
+        String payload = mapper.writeValueAsString(
+                new TaskCreated(taskId, "p-1", "Title", "TODO", OffsetDateTime.now(), List.of()));
+        return new OutboxRelay.OutboxRow(id, taskId, "TaskCreated", payload, Instant.now());
+    }
+
+    private static OutboxRelay.OutboxRow poison(long id, String taskId) {
+        return new OutboxRelay.OutboxRow(id, taskId, "TaskArchived", "{}", Instant.now());
+    }
+
+    @Test
+    @DisplayName("todos confirmados: devolve os ids lidos, sem preencher buracos da sequência")
+    void all_acked_returns_exact_ids() throws Exception {
+        when(kafka.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        OutboxRelay.Drained drained = relay.sendAll(List.of(row(3, "t-1"), row(7, "t-2"), row(9, "t-1")));
+
+        assertThat(drained.acked()).containsExactlyInAnyOrder(3L, 7L, 9L);
+        assertThat(drained.poisoned()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("falha numa task: as linhas seguintes dela não são enviadas; as outras tasks seguem")
+    void failure_blocks_only_its_task() throws Exception {
+        when(kafka.send(any(), eq("t-1"), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(kafka.send(any(), eq("t-2"), any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker")));
+
+        OutboxRelay.Drained drained = relay.sendAll(
+                List.of(row(3, "t-1"), row(7, "t-2"), row(8, "t-2"), row(9, "t-1")));
+
+        assertThat(drained.acked()).containsExactlyInAnyOrder(3L, 9L);
+        // a linha 8 não sai antes da 7 ser confirmada
+        verify(kafka, times(1)).send(any(), eq("t-2"), any());
+    }
+
+    @Test
+    @DisplayName("poison no meio do lote: separado para o DLT da outbox, o resto é publicado e apagado")
+    void poison_row_in_the_middle() throws Exception {
+        when(kafka.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        List<OutboxRelay.OutboxRow> rows = List.of(row(3, "t-1"), poison(5, "t-1"), row(7, "t-2"), row(9, "t-1"));
+        when(jdbc.query(anyString(), any(RowMapper.class), eq(500))).thenReturn(rows);
+        when(jdbc.update(any(PreparedStatementCreator.class))).thenReturn(3);
+
+        int removed = relay.drainBatch();
+
+        assertThat(removed).isEqualTo(4);
+        verify(jdbc).update(contains("insert into task_outbox_dead"), eq(5L), contains("TaskArchived"));
+        verify(jdbc).update(any(PreparedStatementCreator.class));
+        verify(kafka, times(3)).send(any(), any(), any());
+        assertThat(registry.get("task.outbox.relay.poisoned").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("payload ilegível também é poison")
+    void unreadable_payload_is_poison() {
+        OutboxRelay.Drained drained = relay.sendAll(
+                List.of(new OutboxRelay.OutboxRow(4, "t-1", "TaskCreated", "{\"taskId\": [", Instant.now())));
+
+        assertThat(drained.acked()).isEmpty();
+        assertThat(drained.poisoned()).hasSize(1);
+        verifyNoInteractions(kafka);
+    }
+}
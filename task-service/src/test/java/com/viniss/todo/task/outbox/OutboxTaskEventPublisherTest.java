@@ -0,0 +1,57 @@
+package com.viniss.todo.task.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.events.TaskUpdated;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OutboxTaskEventPublisher.
+ */
+class OutboxTaskEventPublisherTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("publishCreated: grava na outbox com aggregate_id=taskId e tipo TaskCreated")
+    void publishCreated_appendsToOutbox() throws Exception {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        OutboxTaskEventPublisher publisher = new OutboxTaskEventPublisher(jdbc, mapper);
+
+        TaskCreated evt = new TaskCreated("t-1", "p-1", "Title", "TODO",
+                OffsetDateTime.of(2025, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC), List.of("a"));
+
+        publisher.publishCreated(evt);
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbc).update(eq(OutboxTaskEventPublisher.INSERT_SQL), eq("t-1"), eq("TaskCreated"), payload.capture());
+        assertThat(mapper.readValue(payload.getValue(), TaskCreated.class)).isEqualTo(evt);
+    }
+
+    @Test
+    @DisplayName("publishUpdated: grava na outbox com tipo TaskUpdated")
+    void publishUpdated_appendsToOutbox() throws Exception {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        OutboxTaskEventPublisher publisher = new OutboxTaskEventPublisher(jdbc, mapper);
+
+        TaskUpdated evt = new TaskUpdated("t-1", "p-1", "Title", "DONE",
+                OffsetDateTime.of(2025, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC), List.of());
+
+        publisher.publishUpdated(evt);
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbc).update(eq(OutboxTaskEventPublisher.INSERT_SQL), eq("t-1"), eq("TaskUpdated"), payload.capture());
+        assertThat(mapper.readValue(payload.getValue(), TaskUpdated.class)).isEqualTo(evt);
+    }
+}
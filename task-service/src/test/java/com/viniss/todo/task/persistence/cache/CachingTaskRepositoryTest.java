@@ -0,0 +1,117 @@
+package com.viniss.todo.task.persistence.cache;
+
+import com.viniss.todo.common.dto.TaskStatus;
+import com.viniss.todo.task.domain.Task;
+import com.viniss.todo.task.persistence.jpa.TaskRepositoryJpaAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests para CachingTaskRepository (sem transação ativa: leituras passam pelo cache).
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingTaskRepositoryTest {
+
+    @Mock TaskRepositoryJpaAdapter delegate;
+
+    SimpleMeterRegistry registry;
+    CachingTaskRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        repo = new CachingTaskRepository(delegate, registry, 100, Duration.ofMinutes(1));
+    }
+
+    private static Task task(UUID id) {
+        Task t = new Task();
+        t.setId(id);
+        t.setProjectId("p1");
+        t.setTitle("T");
+        t.setStatus(TaskStatus.TODO);
+        t.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        t.setUpdatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        t.setLabels(new ArrayList<>(List.of("a")));
+        t.setVersion(0L);
+        return t;
+    }
+
+    @Test
+    @DisplayName("findById(): segunda leitura vem do cache e hit/miss aparecem nas métricas")
+    void findById_cachesAndRecordsStats() {
+        UUID id = UUID.randomUUID();
+        when(delegate.findById(id)).thenReturn(Optional.of(task(id)));
+
+        assertThat(repo.findById(id)).isPresent();
+        assertThat(repo.findById(id)).isPresent();
+
+        verify(delegate, times(1)).findById(id);
+        assertThat(registry.get("cache.gets").tag("cache", "tasks").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", "tasks").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("findById(): devolve cópias — alterar o retorno não contamina o cache")
+    void findById_returnsCopies() {
+        UUID id = UUID.randomUUID();
+        when(delegate.findById(id)).thenReturn(Optional.of(task(id)));
+
+        Task first = repo.findById(id).orElseThrow();
+        first.setTitle("mutado");
+        first.getLabels().add("b");
+
+        Task second = repo.findById(id).orElseThrow();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getTitle()).isEqualTo("T");
+        assertThat(second.getLabels()).containsExactly("a");
+    }
+
+    @Test
+    @DisplayName("save() e evict() invalidam a entrada")
+    void save_and_evict_invalidate() {
+        UUID id = UUID.randomUUID();
+        when(delegate.findById(id)).thenReturn(Optional.of(task(id)));
+        when(delegate.save(any(Task.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        repo.findById(id);
+        repo.save(task(id));
+        repo.findById(id);
+        repo.evict(id);
+        repo.findById(id);
+
+        verify(delegate, times(3)).findById(id);
+    }
+
+    @Test
+    @DisplayName("findAllById(): só busca no banco os ids ausentes do cache")
+    void findAllById_loadsOnlyMissing() {
+        UUID cached = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(delegate.findById(cached)).thenReturn(Optional.of(task(cached)));
+        when(delegate.findAllById(List.of(missing))).thenReturn(List.of(task(missing)));
+
+        repo.findById(cached);
+        List<Task> result = repo.findAllById(List.of(cached, missing));
+
+        assertThat(result).extracting(Task::getId).containsExactlyInAnyOrder(cached, missing);
+        verify(delegate).findAllById(List.of(missing));
+    }
+}
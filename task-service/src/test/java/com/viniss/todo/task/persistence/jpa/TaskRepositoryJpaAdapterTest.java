@@ -33,7 +33,7 @@ class TaskRepositoryJpaAdapterTest {
 
     private Task newTask() {
         Task t = new Task();
-        t.setId(UUID.randomUUID().toString());
+        t.setId(UUID.randomUUID());
         t.setProjectId("p1");
         t.setTitle("T");
         t.setDescription("D");
@@ -45,23 +45,24 @@ class TaskRepositoryJpaAdapterTest {
     }
 
     @Test
-    @DisplayName("save(): deve delegar para SpringDataTaskRepository.save e retornar resultado")
+    @DisplayName("save(): deve delegar para SpringDataTaskRepository.saveAndFlush (versão atualizada) e retornar resultado")
     void save_delegatesAndReturns() {
         // Arrange
         Task toSave = newTask();
         Task saved = newTask();
-        saved.setId("saved-123");
+        UUID savedId = UUID.randomUUID();
+        saved.setId(savedId);
 
-        when(springData.save(any(Task.class))).thenReturn(saved);
+        when(springData.saveAndFlush(any(Task.class))).thenReturn(saved);
 
         // Act
         Task returned = adapter.save(toSave);
 
         // Assert
-        verify(springData, times(1)).save(toSave);
+        verify(springData, times(1)).saveAndFlush(toSave);
         verifyNoMoreInteractions(springData);
         assertThat(returned).isSameAs(saved);
-        assertThat(returned.getId()).isEqualTo("saved-123");
+        assertThat(returned.getId()).isEqualTo(savedId);
     }
 
     @Test
@@ -69,27 +70,29 @@ class TaskRepositoryJpaAdapterTest {
     void findById_delegatesAndReturns() {
         // Arrange
         Task found = newTask();
-        found.setId("abc");
-        when(springData.findById("abc")).thenReturn(Optional.of(found));
+        UUID id = UUID.randomUUID();
+        found.setId(id);
+        when(springData.findById(id)).thenReturn(Optional.of(found));
 
         // Act
-        Optional<Task> result = adapter.findById("abc");
+        Optional<Task> result = adapter.findById(id);
 
         // Assert
-        verify(springData, times(1)).findById("abc");
+        verify(springData, times(1)).findById(id);
         verifyNoMoreInteractions(springData);
         assertThat(result).isPresent();
-        assertThat(result.get().getId()).isEqualTo("abc");
+        assertThat(result.get().getId()).isEqualTo(id);
     }
 
     @Test
     @DisplayName("findById(): deve retornar empty quando SpringData retorna empty")
     void findById_returnsEmptyWhenNotFound() {
-        when(springData.findById("missing")).thenReturn(Optional.empty());
+        UUID missing = UUID.randomUUID();
+        when(springData.findById(missing)).thenReturn(Optional.empty());
 
-        Optional<Task> result = adapter.findById("missing");
+        Optional<Task> result = adapter.findById(missing);
 
-        verify(springData).findById("missing");
+        verify(springData).findById(missing);
         verifyNoMoreInteractions(springData);
         assertThat(result).isEmpty();
     }
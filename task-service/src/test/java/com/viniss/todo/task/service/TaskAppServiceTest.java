@@ -1,12 +1,16 @@
 package com.viniss.todo.task.service;
 
 import com.viniss.todo.common.dto.CreateTaskRequest;
+import com.viniss.todo.common.dto.ProjectTaskStats;
 import com.viniss.todo.common.dto.UpdateTaskRequest;
 import com.viniss.todo.common.dto.TaskStatus;
+import com.viniss.todo.common.dto.TaskSuggestion;
 import com.viniss.todo.common.events.TaskCreated;
 import com.viniss.todo.common.events.TaskUpdated;
 import com.viniss.todo.task.application.port.out.TaskEventPublisher;
 import com.viniss.todo.task.domain.Task;
+import com.viniss.todo.task.domain.TaskCursor;
+import com.viniss.todo.task.domain.TaskPatch;
 import com.viniss.todo.task.domain.TaskRepository;
 
 import org.junit.jupiter.api.DisplayName;
@@ -16,11 +20,15 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -40,6 +48,12 @@ class TaskAppServiceTest {
 
     @InjectMocks TaskAppService service;
 
+    // UUIDv7 em ordem crescente, como os gerados por TaskIds.next()
+    static final String T1 = "0190a5a0-0000-7000-8000-000000000001";
+    static final String T2 = "0190a5a0-0000-7000-8000-000000000002";
+    static final String T3 = "0190a5a0-0000-7000-8000-000000000003";
+    static final String T9 = "0190a5a0-0000-7000-8000-000000000009";
+
     @Test
     @DisplayName("create(): persiste com defaults e publica TaskCreated")
     void create_persisteDefaults_publicaEvento() {
@@ -59,6 +73,7 @@ class TaskAppServiceTest {
         // Assert: salvou
         verify(repository, times(1)).save(any(Task.class));
         assertThat(resp.id()).isNotBlank();
+        assertThat(UUID.fromString(resp.id()).version()).isEqualTo(7); // UUIDv7 ordenado no tempo
         assertThat(resp.projectId()).isEqualTo("project-123");
         assertThat(resp.title()).isEqualTo("Write tests");
         assertThat(resp.description()).isEqualTo("Cobrir TaskAppService");
@@ -86,7 +101,7 @@ class TaskAppServiceTest {
         when(repository.save(any(Task.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Task existing = new Task();
-        existing.setId(UUID.randomUUID().toString());
+        existing.setId(UUID.randomUUID());
         existing.setProjectId("p1");
         existing.setTitle("Old title");
         existing.setDescription("Old desc");
@@ -105,7 +120,7 @@ class TaskAppServiceTest {
         );
 
         // Act
-        var resp = service.update(existing.getId(), req);
+        var resp = service.update(existing.getId().toString(), req);
 
         // Assert
         verify(repository).findById(existing.getId());
@@ -121,7 +136,7 @@ class TaskAppServiceTest {
         ArgumentCaptor<TaskUpdated> cap = ArgumentCaptor.forClass(TaskUpdated.class);
         verify(eventPublisher).publishUpdated(cap.capture());
         TaskUpdated evt = cap.getValue();
-        assertThat(evt.taskId()).isEqualTo(existing.getId());
+        assertThat(evt.taskId()).isEqualTo(existing.getId().toString());
         assertThat(evt.projectId()).isEqualTo("p1");
         assertThat(evt.title()).isEqualTo("New title");
         assertThat(evt.status()).isEqualTo(TaskStatus.DONE.name());
@@ -132,48 +147,228 @@ class TaskAppServiceTest {
     @Test
     @DisplayName("update(): quando não encontra, lança exceção e não publica")
     void update_quandoNaoEncontra_lanca() {
-        // Arrange
-        when(repository.findById("nope")).thenReturn(Optional.empty());
-
-        // Act + Assert
+        // Act + Assert (id que nem é UUID não chega ao repositório)
         assertThatThrownBy(() -> service.update("nope", new UpdateTaskRequest(null,null,null,null)))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Task not found");
 
-        verify(repository, never()).save(any());
+        verifyNoInteractions(repository);
         verify(eventPublisher, never()).publishUpdated(any());
     }
 
     @Test
-    @DisplayName("patch(): permite atualização parcial (mantém valores antigos quando null)")
-    void patch_parcial_mantemValoresNaoInformados() {
-        // Arrange
-        when(repository.save(any(Task.class))).thenAnswer(inv -> inv.getArgument(0));
+    @DisplayName("update(): id válido mas inexistente também lança e não publica")
+    void update_uuidInexistente_lanca() {
+        UUID missing = UUID.fromString(T9);
+        when(repository.findById(missing)).thenReturn(Optional.empty());
 
-        Task existing = new Task();
-        existing.setId("t-1");
-        existing.setProjectId("p1");
-        existing.setTitle("T");
-        existing.setDescription("D");
-        existing.setStatus(TaskStatus.TODO);
-        existing.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
-        existing.setUpdatedAt(existing.getCreatedAt());
-        existing.setLabels(List.of("a"));
+        assertThatThrownBy(() -> service.update(T9, new UpdateTaskRequest(null,null,null,null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Task not found");
+
+        verify(repository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
 
-        when(repository.findById("t-1")).thenReturn(Optional.of(existing));
+    @Test
+    @DisplayName("patch(): um único repository.patch com só os campos informados, sem findById/save")
+    void patch_parcial_usaUpdateUnico() {
+        // Arrange: o repositório devolve a linha como ficou após o UPDATE ... RETURNING
+        Task returned = new Task();
+        returned.setId(UUID.fromString(T1));
+        returned.setProjectId("p1");
+        returned.setTitle("New");
+        returned.setDescription("D");
+        returned.setStatus(TaskStatus.TODO);
+        returned.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        returned.setUpdatedAt(Instant.parse("2024-01-02T00:00:00Z"));
+        returned.setLabels(List.of("a"));
+        returned.setVersion(3L);
+
+        when(repository.patch(eq(UUID.fromString(T1)), any(TaskPatch.class), isNull(), any(Instant.class)))
+                .thenReturn(Optional.of(returned));
 
         UpdateTaskRequest parcial = new UpdateTaskRequest("New", null, null, null);
 
         // Act
-        var resp = service.patch("t-1", parcial);
+        var resp = service.patch(T1, parcial);
 
-        // Assert
-        verify(repository).save(any(Task.class));
-        verify(eventPublisher).publishUpdated(any(TaskUpdated.class));
+        // Assert: só o título vai no patch
+        ArgumentCaptor<TaskPatch> patch = ArgumentCaptor.forClass(TaskPatch.class);
+        verify(repository).patch(eq(UUID.fromString(T1)), patch.capture(), isNull(), any(Instant.class));
+        assertThat(patch.getValue()).isEqualTo(new TaskPatch("New", null, null, null));
+        verify(repository, never()).findById(any());
+        verify(repository, never()).save(any());
+
+        ArgumentCaptor<TaskUpdated> evt = ArgumentCaptor.forClass(TaskUpdated.class);
+        verify(eventPublisher).publishUpdated(evt.capture());
+        assertThat(evt.getValue().taskId()).isEqualTo(T1);
+        assertThat(evt.getValue().title()).isEqualTo("New");
 
         assertThat(resp.title()).isEqualTo("New");
         assertThat(resp.description()).isEqualTo("D");                // inalterado
         assertThat(resp.status()).isEqualTo(TaskStatus.TODO.name());  // inalterado
         assertThat(resp.labels()).containsExactly("a");               // inalterado
+        assertThat(resp.version()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("patch(): task inexistente lança e não publica")
+    void patch_inexistente_lanca() {
+        when(repository.patch(eq(UUID.fromString(T9)), any(TaskPatch.class), isNull(), any(Instant.class)))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.patch(T9, new UpdateTaskRequest("X", null, null, null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Task not found");
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("update(): If-Match com versão divergente → OptimisticLockingFailure, sem gravar nem publicar")
+    void update_versaoDivergente_lanca() {
+        Task existing = taskAt(T1, "2024-01-01T00:00:00Z");
+        existing.setVersion(5L);
+        when(repository.findById(existing.getId())).thenReturn(Optional.of(existing));
+
+        assertThatThrownBy(() -> service.update(T1, new UpdateTaskRequest("X", null, null, null), 4L))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        verify(repository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("get(): devolve a versão atual e lança NoSuchElement quando não existe")
+    void get_devolveVersao() {
+        Task existing = taskAt(T1, "2024-01-01T00:00:00Z");
+        existing.setVersion(2L);
+        when(repository.findById(existing.getId())).thenReturn(Optional.of(existing));
+
+        assertThat(service.get(T1).version()).isEqualTo(2L);
+        assertThatThrownBy(() -> service.get("nope")).isInstanceOf(NoSuchElementException.class);
+    }
+
+    private static Task taskAt(String id, String updatedAt) {
+        Task t = new Task();
+        t.setId(UUID.fromString(id));
+        t.setProjectId("p1");
+        t.setTitle("T-" + id);
+        t.setStatus(TaskStatus.TODO);
+        t.setCreatedAt(Instant.parse(updatedAt));
+        t.setUpdatedAt(Instant.parse(updatedAt));
+        return t;
+    }
+
+    @Test
+    @DisplayName("list(): busca limit+1, repassa filtros e devolve nextCursor do último item da página")
+    void list_comMaisPaginas_devolveCursor() {
+        List<Task> rows = new ArrayList<>(List.of(
+                taskAt(T3, "2024-01-03T00:00:00Z"),
+                taskAt(T2, "2024-01-02T00:00:00Z"),
+                taskAt(T1, "2024-01-01T00:00:00Z")));
+        when(repository.findPage("p1", TaskStatus.TODO, "bug", null, 3)).thenReturn(rows);
+
+        var page = service.list("p1", "todo", " bug ", null, 2);
+
+        assertThat(page.items()).extracting("id").containsExactly(T3, T2);
+        assertThat(TaskCursor.decode(page.nextCursor()))
+                .isEqualTo(new TaskCursor(Instant.parse("2024-01-02T00:00:00Z"), UUID.fromString(T2)));
+    }
+
+    @Test
+    @DisplayName("list(): última página sem nextCursor; cursor recebido é repassado ao repositório")
+    void list_ultimaPagina_semCursor() {
+        TaskCursor after = new TaskCursor(Instant.parse("2024-01-02T00:00:00Z"), UUID.fromString(T2));
+        when(repository.findPage(eq("p1"), isNull(), isNull(), eq(after), eq(TaskAppService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of(taskAt(T1, "2024-01-01T00:00:00Z")));
+
+        var page = service.list("p1", null, null, after.encode(), null);
+
+        assertThat(page.items()).extracting("id").containsExactly(T1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("list(): limit acima do máximo é limitado e status inválido é rejeitado")
+    void list_limitesEValidacao() {
+        when(repository.findPage(anyString(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        service.list("p1", null, null, null, 10_000);
+        verify(repository).findPage("p1", null, null, null, TaskAppService.MAX_PAGE_SIZE + 1);
+
+        assertThatThrownBy(() -> service.list("p1", "DOING", null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Status inválido");
+        assertThatThrownBy(() -> service.list(" ", null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("stats(): status sem contador saem como 0 e o total soma todos")
+    void stats_preencheZeros() {
+        when(repository.countByStatus("p1")).thenReturn(Map.of(TaskStatus.TODO, 3L, TaskStatus.DONE, 2L));
+
+        ProjectTaskStats stats = service.stats("p1");
+
+        assertThat(stats.projectId()).isEqualTo("p1");
+        assertThat(stats.byStatus()).containsOnlyKeys(TaskStatus.values());
+        assertThat(stats.byStatus()).containsEntry(TaskStatus.TODO, 3L)
+                .containsEntry(TaskStatus.IN_PROGRESS, 0L)
+                .containsEntry(TaskStatus.DONE, 2L)
+                .containsEntry(TaskStatus.CANCELED, 0L);
+        assertThat(stats.total()).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("suggest(): termo normalizado, limit limitado e termo vazio não consulta o repositório")
+    void suggest_normalizaTermoELimit() {
+        Task t = new Task();
+        t.setId(UUID.fromString(T1));
+        t.setTitle("Revisar PR");
+        t.setStatus(TaskStatus.TODO);
+        t.setLabels(new ArrayList<>(List.of("review")));
+        t.setUpdatedAt(Instant.parse("2024-01-01T10:00:00Z"));
+        when(repository.suggest("p1", "rev", TaskAppService.MAX_SUGGEST_SIZE)).thenReturn(List.of(t));
+
+        List<TaskSuggestion> out = service.suggest("p1", "  rev ", 1_000);
+
+        assertThat(out).singleElement().satisfies(s -> {
+            assertThat(s.id()).isEqualTo(T1);
+            assertThat(s.title()).isEqualTo("Revisar PR");
+            assertThat(s.status()).isEqualTo("TODO");
+            assertThat(s.labels()).containsExactly("review");
+        });
+
+        assertThat(service.suggest("p1", "   ", null)).isEmpty();
+        verify(repository, times(1)).suggest(anyString(), anyString(), anyInt());
+        assertThatThrownBy(() -> service.suggest("p1", "x".repeat(TaskAppService.MAX_SUGGEST_QUERY + 1), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Eventos: eventId determinístico por (tipo, task, versão) e sequence = versão")
+    void eventos_eventIdDeterministico() {
+        Task t = new Task();
+        t.setId(UUID.fromString(T1));
+        t.setProjectId("p1");
+        t.setTitle("A");
+        t.setStatus(TaskStatus.TODO);
+        t.setCreatedAt(Instant.parse("2024-01-01T10:00:00Z"));
+        t.setUpdatedAt(Instant.parse("2024-01-01T10:00:00Z"));
+        t.setLabels(new ArrayList<>());
+        t.setVersion(4L);
+
+        TaskUpdated first = TaskAppService.updatedEvent(t);
+        TaskUpdated again = TaskAppService.updatedEvent(t);
+        TaskCreated created = TaskAppService.createdEvent(t);
+
+        assertThat(first.sequence()).isEqualTo(4L);
+        assertThat(again.eventId()).isEqualTo(first.eventId());
+        assertThat(created.eventId()).isNotEqualTo(first.eventId());
+
+        t.setVersion(5L);
+        assertThat(TaskAppService.updatedEvent(t).eventId()).isNotEqualTo(first.eventId());
     }
-}
\ No newline at end of file
+}
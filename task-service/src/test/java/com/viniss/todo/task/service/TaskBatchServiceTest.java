@@ -0,0 +1,198 @@
+package com.viniss.todo.task.service;
+
+import com.viniss.todo.common.dto.CreateTaskRequest;
+import com.viniss.todo.common.dto.TaskBatchCreateRequest;
+import com.viniss.todo.common.dto.TaskBatchPatchRequest;
+import com.viniss.todo.common.dto.TaskBatchResponse;
+import com.viniss.todo.common.dto.TaskStatus;
+import com.viniss.todo.common.dto.UpdateTaskRequest;
+import com.viniss.todo.common.events.TaskCreated;
+import com.viniss.todo.common.events.TaskEvent;
+import com.viniss.todo.common.events.TaskUpdated;
+import com.viniss.todo.common.security.ProjectGrants;
+import com.viniss.todo.task.application.port.out.TaskEventPublisher;
+import com.viniss.todo.task.domain.Task;
+import com.viniss.todo.task.domain.TaskRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários de TaskBatchService.
+ * Foco: falha parcial por item, uma única gravação em lote e um único publishAll.
+ */
+@ExtendWith(MockitoExtension.class)
+class TaskBatchServiceTest {
+
+    @Mock TaskRepository repository;
+    @Mock TaskEventPublisher eventPublisher;
+
+    TaskBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TaskBatchService(repository, eventPublisher,
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    static final ProjectGrants P1 = ProjectGrants.of(false, false, Map.of("p1", ProjectGrants.READ | ProjectGrants.WRITE));
+
+    static final String T1 = "0190a5a0-0000-7000-8000-000000000001";
+    static final String T2 = "0190a5a0-0000-7000-8000-000000000002";
+    static final String MISSING = "0190a5a0-0000-7000-8000-00000000000f";
+
+    private static Task existing(String id) {
+        Task t = new Task();
+        t.setId(UUID.fromString(id));
+        t.setProjectId("p1");
+        t.setTitle("Old " + id);
+        t.setStatus(TaskStatus.TODO);
+        t.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        t.setUpdatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        t.setLabels(new ArrayList<>());
+        return t;
+    }
+
+    @Test
+    @DisplayName("create(): grava os válidos num único insertAll e reporta o inválido pelo índice")
+    @SuppressWarnings("unchecked")
+    void create_partialFailure() {
+        when(repository.insertAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        var req = new TaskBatchCreateRequest(List.of(
+                new CreateTaskRequest("A", null, "p1", List.of("x")),
+                new CreateTaskRequest("", null, "p1", null), // título em branco
+                new CreateTaskRequest("C", null, "p1", null)
+        ));
+
+        TaskBatchResponse resp = service.create(req, P1);
+
+        assertThat(resp.succeeded()).isEqualTo(2);
+        assertThat(resp.failed()).isEqualTo(1);
+        assertThat(resp.items()).extracting(TaskBatchResponse.Item::status).containsExactly(201, 400, 201);
+        assertThat(resp.items().get(1).error()).contains("title");
+        assertThat(resp.items().get(0).task().title()).isEqualTo("A");
+        assertThat(resp.items().get(2).task().status()).isEqualTo("TODO");
+
+        ArgumentCaptor<List<Task>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).insertAll(inserted.capture());
+        assertThat(inserted.getValue()).extracting(Task::getTitle).containsExactly("A", "C");
+
+        ArgumentCaptor<List<TaskEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(eventPublisher, times(1)).publishAll(events.capture());
+        assertThat(events.getValue()).hasSize(2).allMatch(e -> e instanceof TaskCreated);
+        verify(eventPublisher, never()).publishCreated(any());
+    }
+
+    @Test
+    @DisplayName("create(): lote todo inválido não toca no banco nem publica")
+    void create_allInvalid_noWrites() {
+        var req = new TaskBatchCreateRequest(List.of(new CreateTaskRequest(" ", null, "p1", null)));
+
+        TaskBatchResponse resp = service.create(req, P1);
+
+        assertThat(resp.failed()).isEqualTo(1);
+        verify(repository, never()).insertAll(anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("patch(): um findAllById, 404 para inexistente, 400 para status inválido, eventos em lote")
+    @SuppressWarnings("unchecked")
+    void patch_partialFailure() {
+        when(repository.findAllById(anyCollection())).thenReturn(List.of(existing(T1), existing(T2)));
+        when(repository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        var req = new TaskBatchPatchRequest(Arrays.asList(
+                new TaskBatchPatchRequest.Item(T1, new UpdateTaskRequest("New", null, "DONE", null)),
+                new TaskBatchPatchRequest.Item(MISSING, new UpdateTaskRequest("X", null, null, null)),
+                new TaskBatchPatchRequest.Item(T2, new UpdateTaskRequest(null, null, "NOPE", null)),
+                new TaskBatchPatchRequest.Item(null, null)
+        ));
+
+        TaskBatchResponse resp = service.patch(req, P1);
+
+        assertThat(resp.items()).extracting(TaskBatchResponse.Item::status).containsExactly(200, 404, 400, 400);
+        assertThat(resp.succeeded()).isEqualTo(1);
+        assertThat(resp.items().get(0).task().title()).isEqualTo("New");
+        assertThat(resp.items().get(0).task().status()).isEqualTo("DONE");
+
+        verify(repository, times(1)).findAllById(anyCollection());
+        ArgumentCaptor<List<Task>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(Task::getId).containsExactly(UUID.fromString(T1));
+
+        ArgumentCaptor<List<TaskEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(eventPublisher).publishAll(events.capture());
+        assertThat(events.getValue()).singleElement().isInstanceOf(TaskUpdated.class);
+    }
+
+    @Test
+    @DisplayName("create(): item de projeto sem grant vira 403 no item, os demais seguem")
+    void create_forbiddenProject_perItem() {
+        when(repository.insertAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        var req = new TaskBatchCreateRequest(List.of(
+                new CreateTaskRequest("A", null, "p1", null),
+                new CreateTaskRequest("B", null, "p2", null)
+        ));
+
+        TaskBatchResponse resp = service.create(req, P1);
+
+        assertThat(resp.items()).extracting(TaskBatchResponse.Item::status).containsExactly(201, 403);
+        assertThat(resp.failed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("patch(): task de projeto sem grant vira 403 no item e não é gravada")
+    void patch_forbiddenProject_perItem() {
+        Task other = existing(T2);
+        other.setProjectId("p2");
+        when(repository.findAllById(anyCollection())).thenReturn(List.of(existing(T1), other));
+        when(repository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        var req = new TaskBatchPatchRequest(List.of(
+                new TaskBatchPatchRequest.Item(T1, new UpdateTaskRequest("New", null, null, null)),
+                new TaskBatchPatchRequest.Item(T2, new UpdateTaskRequest("Hijack", null, null, null))
+        ));
+
+        TaskBatchResponse resp = service.patch(req, P1);
+
+        assertThat(resp.items()).extracting(TaskBatchResponse.Item::status).containsExactly(200, 403);
+        assertThat(other.getTitle()).isEqualTo("Old " + T2);
+    }
+
+    @Test
+    @DisplayName("grant só de leitura no projeto: criar e alterar viram 403 no item")
+    void readOnlyGrant_cannotWrite() {
+        ProjectGrants readOnly = ProjectGrants.of(false, false, Map.of("p1", ProjectGrants.READ));
+        when(repository.findAllById(anyCollection())).thenReturn(List.of(existing(T1)));
+
+        TaskBatchResponse created = service.create(new TaskBatchCreateRequest(List.of(
+                new CreateTaskRequest("A", null, "p1", null))), readOnly);
+        TaskBatchResponse patched = service.patch(new TaskBatchPatchRequest(List.of(
+                new TaskBatchPatchRequest.Item(T1, new UpdateTaskRequest("New", null, null, null)))), readOnly);
+
+        assertThat(created.items()).extracting(TaskBatchResponse.Item::status).containsExactly(403);
+        assertThat(patched.items()).extracting(TaskBatchResponse.Item::status).containsExactly(403);
+        verify(repository, never()).insertAll(anyList());
+        verify(repository, never()).saveAll(anyList());
+    }
+}